@@ -0,0 +1,48 @@
+package com.one.innovation.digital.winestock.benchmark;
+
+import com.one.innovation.digital.winestock.enums.WineType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Popula a tabela wine diretamente por JDBC em lotes, para que a preparação dos benchmarks
+ não dependa do caminho que está sendo medido.
+ */
+public final class CatalogSeeder {
+
+    private static final int BATCH_SIZE = 5000;
+
+    /** O mesmo allocationSize da wine_sequence na entidade Wine. */
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final WineType[] TYPES = WineType.values();
+
+    private CatalogSeeder() {
+    }
+
+    public static String nameOf(long id) {
+        return String.format("Wine %07d", id);
+    }
+
+    public static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        String sql = "insert into wine (id, name, brand, max, quantity, type, version) values (?, ?, ?, ?, ?, ?, 0)";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= rows; id++) {
+            int max = 50 + (int) (id % 450);
+            batch.add(new Object[]{id, nameOf(id), "Brand " + (id % 1000), max, (int) (id % max),
+                    TYPES[(int) (id % TYPES.length)].name()});
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+        /** O Hibernate usa o valor lido da sequence como o último id do bloco reservado; para que o primeiro
+         bloco comece logo após os vinhos inseridos aqui, a sequence recomeça no fim desse bloco.
+         */
+        jdbcTemplate.execute("alter sequence wine_sequence restart with " + (rows + ID_ALLOCATION_SIZE));
+    }
+}
@@ -0,0 +1,146 @@
+package com.one.innovation.digital.winestock.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Gerador de carga HTTP em malha fechada: cada cliente envia uma requisição e só envia a próxima
+ depois da resposta. Serve para comparar o pool de threads padrão do Tomcat com o modo de virtual threads
+ (winestock.threads.virtual=true), com a mesma aplicação, os mesmos dados e a mesma concorrência.
+
+ Uso, com a aplicação já em execução:
+ mvn -Pbenchmark exec:exec -Dbenchmark.main=com.one.innovation.digital.winestock.benchmark.HttpLoadGenerator
+ -Dbenchmark.args="http://localhost:8080 400 30 1000"
+
+ Para o lado das virtual threads, a aplicação precisa rodar em um JDK 21 ou mais novo (o gerador pode continuar no JDK
+ do projeto): $JAVA21_HOME/bin/java -jar target/winestock-0.0.1-SNAPSHOT.jar --winestock.threads.virtual=true.
+ A aplicação é reiniciada entre as medições, para que cada uma comece com o banco em memória vazio.
+
+ Argumentos: URL base, clientes simultâneos, duração em segundos e quantidade de vinhos a cadastrar.
+ Metade das requisições busca um vinho pelo nome e a outra metade altera o estoque (increment/decrement).
+ */
+public final class HttpLoadGenerator {
+
+    private static final String WINES_PATH = "/api/v1/wines";
+
+    private HttpLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int wines = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long[] ids = seed(httpClient, baseUrl, wines);
+
+        long[][] samples = new long[clients][];
+        int[] sampleCounts = new int[clients];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        for (int client = 0; client < clients; client++) {
+            int index = client;
+            Thread thread = new Thread(() -> {
+                long[] latencies = new long[4096];
+                int count = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int wine = random.nextInt(ids.length);
+                    HttpRequest request = random.nextBoolean()
+                            ? get(baseUrl + WINES_PATH + "/" + CatalogSeeder.nameOf(wine + 1).replace(" ", "%20"))
+                            : adjust(baseUrl, ids[wine], random.nextBoolean() ? "increment" : "decrement");
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        /** 400 é esperado quando o estoque chega ao mínimo ou ao máximo. */
+                        if (response.statusCode() >= 500) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                samples[index] = latencies;
+                sampleCounts[index] = count;
+                done.countDown();
+            }, "load-client-" + client);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        report(samples, sampleCounts, errors.get(), seconds, clients);
+    }
+
+    private static long[] seed(HttpClient httpClient, String baseUrl, int wines) throws IOException, InterruptedException {
+        long[] ids = new long[wines];
+        for (int i = 0; i < wines; i++) {
+            String body = String.format("{\"name\":\"%s\",\"brand\":\"Load\",\"max\":100,\"quantity\":50,\"type\":\"REDWINE\"}",
+                    CatalogSeeder.nameOf(i + 1));
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + WINES_PATH))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Could not seed wine " + (i + 1) + ": " + response.statusCode() + " " + response.body());
+            }
+            String json = response.body();
+            int start = json.indexOf("\"id\":") + 5;
+            ids[i] = Long.parseLong(json.substring(start, json.indexOf(',', start)));
+        }
+        return ids;
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest adjust(String baseUrl, long id, String operation) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + WINES_PATH + "/" + id + "/" + operation))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":1}"))
+                .build();
+    }
+
+    private static void report(long[][] samples, int[] sampleCounts, long errors, int seconds, int clients) {
+        int total = Arrays.stream(sampleCounts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int client = 0; client < samples.length; client++) {
+            System.arraycopy(samples[client], 0, all, offset, sampleCounts[client]);
+            offset += sampleCounts[client];
+        }
+        Arrays.sort(all);
+        System.out.printf("clients=%d duration=%ds requests=%d errors=%d%n", clients, seconds, total, errors);
+        System.out.printf("throughput=%.1f req/s%n", total / (double) seconds);
+        System.out.printf("p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                percentile(all, 0.50), percentile(all, 0.99), all.length == 0 ? 0.0 : all[all.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.one.innovation.digital.winestock.benchmark;
+
+import com.one.innovation.digital.winestock.dto.InventoryLevelDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.inventory.InventoryIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Tempo das consultas de estoque do InventoryIndex com milhões de vinhos em memória (sem banco e sem HTTP).
+ As quantidades são sorteadas entre 0 e o máximo de cada vinho; cerca de 10% dos vinhos ficam abaixo de 10%.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class InventoryIndexBenchmark {
+
+    @Param({"1000000", "5000000"})
+    private int wines;
+
+    private InventoryIndex inventoryIndex;
+
+    @Setup
+    public void setUp() {
+        inventoryIndex = new InventoryIndex();
+        Random random = new Random(42);
+        for (long id = 1; id <= wines; id++) {
+            int max = 50 + random.nextInt(451);
+            inventoryIndex.put(id, WineType.values()[(int) (id % WineType.values().length)], random.nextInt(max + 1), max, 0L);
+        }
+    }
+
+    @Benchmark
+    public List<InventoryLevelDTO> belowFillOfOneType() {
+        return inventoryIndex.belowFill(WineType.REDWINE, 10, 50);
+    }
+
+    @Benchmark
+    public List<InventoryLevelDTO> belowFillOfAllTypes() {
+        return inventoryIndex.belowFill(null, 10, 50);
+    }
+
+    @Benchmark
+    public List<InventoryLevelDTO> topByQuantityOfOneType() {
+        return inventoryIndex.topByQuantity(WineType.REDWINE, 10);
+    }
+}
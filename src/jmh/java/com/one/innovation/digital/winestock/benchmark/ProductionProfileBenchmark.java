@@ -0,0 +1,96 @@
+package com.one.innovation.digital.winestock.benchmark;
+
+import com.one.innovation.digital.winestock.WinestockApplication;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.service.WineService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Teste de carga do perfil prod (application-prod.properties) contra a configuração padrão: as mesmas
+ operações, com 8 threads simultâneas, sobre o mesmo catálogo de 100 mil vinhos em um H2 em memória.
+ O cache de vinhos por nome fica desligado, para que todo findByName chegue ao banco.
+
+ mvn -Pbenchmark exec:exec -Dbenchmark.args="ProductionProfileBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 5)
+@Measurement(iterations = 10, time = 5)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductionProfileBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    private final AtomicLong createdWines = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private WineService wineService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WinestockApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:load-" + profile + ";DB_CLOSE_DELAY=-1",
+                        "spring.cache.type=none",
+                        "logging.level.root=WARN")
+                .run();
+        /** Com auto-commit desligado (perfil prod), as inserções diretas precisam de uma transação para serem confirmadas. */
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> CatalogSeeder.seed(context.getBean(JdbcTemplate.class), ROWS));
+        wineService = context.getBean(WineService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public WineDTO findByName() throws WineNotFoundException {
+        return wineService.findByName(CatalogSeeder.nameOf(ThreadLocalRandom.current().nextInt(1, ROWS + 1)));
+    }
+
+    @Benchmark
+    public WineDTO createWine() throws WineAlreadyRegisteredException {
+        WineDTO wineDTO = new WineDTO();
+        wineDTO.setName("Load " + createdWines.incrementAndGet());
+        wineDTO.setBrand("Load Brand");
+        wineDTO.setMax(100);
+        wineDTO.setQuantity(10);
+        wineDTO.setType(WineType.REDWINE);
+        return wineService.createWine(wineDTO);
+    }
+}
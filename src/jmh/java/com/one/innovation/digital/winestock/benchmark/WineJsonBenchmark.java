@@ -0,0 +1,56 @@
+package com.one.innovation.digital.winestock.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Serialização de listas de WineDTO com o mesmo ObjectMapper que o Spring Boot configura
+ para as respostas da API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WineJsonBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<WineDTO> wines;
+
+    @Setup
+    public void setUp() {
+        WineType[] types = WineType.values();
+        wines = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            wines.add(new WineDTO(id, CatalogSeeder.nameOf(id), "Brand " + (id % 1000), 100,
+                    (int) (id % 100), types[(int) (id % types.length)], null, 0L));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(wines);
+    }
+}
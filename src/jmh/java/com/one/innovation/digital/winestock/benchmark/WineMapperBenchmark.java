@@ -0,0 +1,49 @@
+package com.one.innovation.digital.winestock.benchmark;
+
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.entity.Wine;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.mapper.WineMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WineMapperBenchmark {
+
+    private final WineMapper wineMapper = WineMapper.INSTANCE;
+
+    private Wine wine;
+
+    private WineDTO wineDTO;
+
+    @Setup
+    public void setUp() {
+        wineDTO = new WineDTO(1L, "Cabernet Sauvignon", "Villa Lobos", 50, 10, WineType.REDWINE, null, 0L);
+        wine = wineMapper.toModel(wineDTO);
+    }
+
+    @Benchmark
+    public WineDTO toDTO() {
+        return wineMapper.toDTO(wine);
+    }
+
+    @Benchmark
+    public Wine toModel() {
+        return wineMapper.toModel(wineDTO);
+    }
+}
@@ -0,0 +1,63 @@
+package com.one.innovation.digital.winestock.benchmark;
+
+import com.one.innovation.digital.winestock.config.SearchProperties;
+import com.one.innovation.digital.winestock.search.WineSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Tempo de uma busca no índice com um catálogo de um milhão de vinhos em memória (sem banco e sem HTTP).
+ Os nomes combinam uvas, vinícolas, regiões e safras, de modo que cada palavra aparece em milhares
+ a centenas de milhares de vinhos; as consultas incluem um erro de digitação e um trecho de palavra.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class WineSearchIndexBenchmark {
+
+    private static final String[] GRAPES = {"Cabernet Sauvignon", "Malbec", "Merlot", "Pinot Noir", "Syrah",
+            "Chardonnay", "Sauvignon Blanc", "Tannat", "Carmenere", "Tempranillo", "Riesling", "Nebbiolo"};
+
+    private static final String[] ESTATES = {"Quinta", "Bodega", "Chateau", "Domaine", "Vina", "Tenuta", "Cantina"};
+
+    private static final String[] REGIONS = {"Mendoza", "Douro", "Bordeaux", "Rioja", "Maipo", "Toscana", "Napa",
+            "Barossa", "Mosel", "Serra Gaucha", "Colchagua", "Piemonte", "Alentejo"};
+
+    @Param({"1000000"})
+    private int wines;
+
+    @Param({"malbek quinta 1987", "sauvignon", "tenuta toscana 2003 brand 471", "sauv gauch"})
+    private String query;
+
+    private WineSearchIndex wineSearchIndex;
+
+    @Setup
+    public void setUp() {
+        wineSearchIndex = new WineSearchIndex(new SearchProperties());
+        for (long id = 1; id <= wines; id++) {
+            String name = GRAPES[(int) (id % GRAPES.length)] + " " + ESTATES[(int) (id / 7 % ESTATES.length)]
+                    + " " + REGIONS[(int) (id / 11 % REGIONS.length)] + " " + (1950 + id % 71);
+            wineSearchIndex.bulkPut(id, name, "Brand " + (id % 5000), 0L);
+        }
+        wineSearchIndex.finishBulkLoad();
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return wineSearchIndex.search(query, 20);
+    }
+}
@@ -0,0 +1,80 @@
+package com.one.innovation.digital.winestock.benchmark;
+
+import com.one.innovation.digital.winestock.WinestockApplication;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.service.WineService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Mede o WineService com o contexto Spring completo (proxies de cache e transação incluídos)
+ sobre um H2 em memória populado com a quantidade de linhas do parâmetro rows.
+ Com cacheType=none, findByName sempre chega ao banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WineServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"caffeine", "none"})
+    private String cacheType;
+
+    private ConfigurableApplicationContext context;
+
+    private WineService wineService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WinestockApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + rows + ";DB_CLOSE_DELAY=-1",
+                        "spring.cache.type=" + cacheType,
+                        "logging.level.root=WARN")
+                .run();
+        CatalogSeeder.seed(context.getBean(JdbcTemplate.class), rows);
+        wineService = context.getBean(WineService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public WineDTO findByName() throws WineNotFoundException {
+        return wineService.findByName(CatalogSeeder.nameOf(ThreadLocalRandom.current().nextInt(1, rows + 1)));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<WineDTO> listAll() {
+        return wineService.listAll();
+    }
+}
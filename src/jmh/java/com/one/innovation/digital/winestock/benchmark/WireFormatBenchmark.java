@@ -0,0 +1,97 @@
+package com.one.innovation.digital.winestock.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.one.innovation.digital.winestock.config.WireFormatConfig;
+import com.one.innovation.digital.winestock.converter.WineProtobufCodec;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Compara os formatos aceitos pela API (JSON, Smile, CBOR e Protobuf) na codificação e decodificação
+ de uma listagem de vinhos. O tamanho em bytes de cada formato é impresso no início de cada rodada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<WineDTO>> WINE_LIST = new TypeReference<List<WineDTO>>() {
+    };
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    private String format;
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<WineDTO> wines;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        WineType[] types = WineType.values();
+        wines = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            wines.add(new WineDTO(id, CatalogSeeder.nameOf(id), "Brand " + (id % 1000), 100,
+                    (int) (id % 100), types[(int) (id % types.length)], null, 0L));
+        }
+        if ("json".equals(format)) {
+            objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        } else if (!"protobuf".equals(format)) {
+            JsonFactory jsonFactory = "smile".equals(format) ? new SmileFactory() : new CBORFactory();
+            objectMapper = WireFormatConfig.binaryObjectMapper(Jackson2ObjectMapperBuilder.json(), jsonFactory);
+        }
+        encoded = encode();
+        System.out.printf("%n%s, %d wines: %d bytes (%.1f bytes/wine)%n",
+                format, size, encoded.length, encoded.length / (double) size);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (objectMapper != null) {
+            return objectMapper.writeValueAsBytes(wines);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size * 32);
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        WineProtobufCodec.writeWineList(wines, output);
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public List<WineDTO> decode() throws IOException {
+        if (objectMapper != null) {
+            return objectMapper.readValue(encoded, WINE_LIST);
+        }
+        return WineProtobufCodec.readWineList(CodedInputStream.newInstance(encoded));
+    }
+}
@@ -0,0 +1,37 @@
+package com.one.innovation.digital.winestock.alert;
+
+import com.one.innovation.digital.winestock.config.StockAlertProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+@Component
+@ConditionalOnProperty(name = "winestock.alerts.sink", havingValue = "memory")
+/** Guarda os alertas em uma fila limitada, para serem consumidos por quem chamar drain().
+ Quando a fila está cheia, o alerta mais antigo é descartado para dar lugar ao novo.
+ */
+public class InMemoryStockAlertSink implements StockAlertSink {
+
+    private final BlockingQueue<StockAlert> alerts;
+
+    public InMemoryStockAlertSink(StockAlertProperties stockAlertProperties) {
+        this.alerts = new ArrayBlockingQueue<>(stockAlertProperties.getMemoryCapacity());
+    }
+
+    @Override
+    public void publish(StockAlert alert) {
+        while (!alerts.offer(alert)) {
+            alerts.poll();
+        }
+    }
+
+    public List<StockAlert> drain() {
+        List<StockAlert> drainedAlerts = new ArrayList<>();
+        alerts.drainTo(drainedAlerts);
+        return drainedAlerts;
+    }
+}
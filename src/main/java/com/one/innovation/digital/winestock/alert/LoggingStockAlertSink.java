@@ -0,0 +1,17 @@
+package com.one.innovation.digital.winestock.alert;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "winestock.alerts.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingStockAlertSink implements StockAlertSink {
+
+    @Override
+    public void publish(StockAlert alert) {
+        log.warn("{} for wine {} ({}): quantity {} of {}, threshold {}", alert.getType(), alert.getWineId(),
+                alert.getName(), alert.getQuantity(), alert.getMax(), alert.getThreshold());
+    }
+}
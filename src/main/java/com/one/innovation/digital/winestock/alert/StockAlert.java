@@ -0,0 +1,30 @@
+package com.one.innovation.digital.winestock.alert;
+
+import com.one.innovation.digital.winestock.enums.StockAlertType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlert {
+
+    private StockAlertType type;
+
+    private Long wineId;
+
+    private String name;
+
+    private int quantity;
+
+    private int max;
+
+    private int threshold;
+
+    private Instant occurredAt;
+}
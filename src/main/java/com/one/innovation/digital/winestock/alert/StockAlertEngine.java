@@ -0,0 +1,56 @@
+package com.one.innovation.digital.winestock.alert;
+
+import com.one.innovation.digital.winestock.config.StockAlertProperties;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.StockAlertType;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Avalia apenas o vinho alterado em cada escrita, comparando o estado anterior com o novo.
+ Um alerta é emitido somente quando o limite é cruzado (em qualquer direção), e não a cada
+ escrita em um vinho que já estava com estoque baixo.
+ */
+public class StockAlertEngine {
+
+    private final StockAlertSink stockAlertSink;
+
+    private final StockAlertProperties stockAlertProperties;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWineChanged(WineChangedEvent event) {
+        WineDTO after = event.getAfter();
+        if (after == null) {
+            return;
+        }
+        boolean wasLow = isLow(event.getBefore());
+        boolean isLow = isLow(after);
+        if (!wasLow && isLow) {
+            stockAlertSink.publish(alertOf(StockAlertType.LOW_STOCK, after));
+        } else if (wasLow && !isLow) {
+            stockAlertSink.publish(alertOf(StockAlertType.RESTOCKED, after));
+        }
+    }
+
+    public int thresholdOf(WineDTO wineDTO) {
+        if (wineDTO.getLowStockThreshold() != null) {
+            return wineDTO.getLowStockThreshold();
+        }
+        return wineDTO.getMax() * stockAlertProperties.getDefaultThresholdPercent() / 100;
+    }
+
+    private boolean isLow(WineDTO wineDTO) {
+        return wineDTO != null && wineDTO.getQuantity() <= thresholdOf(wineDTO);
+    }
+
+    private StockAlert alertOf(StockAlertType type, WineDTO wineDTO) {
+        return new StockAlert(type, wineDTO.getId(), wineDTO.getName(), wineDTO.getQuantity(),
+                wineDTO.getMax(), thresholdOf(wineDTO), Instant.now());
+    }
+}
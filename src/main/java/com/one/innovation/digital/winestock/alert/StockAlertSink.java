@@ -0,0 +1,9 @@
+package com.one.innovation.digital.winestock.alert;
+
+/** Destino dos alertas de estoque. Apenas uma implementação fica ativa, de acordo com
+ winestock.alerts.sink.
+ */
+public interface StockAlertSink {
+
+    void publish(StockAlert alert);
+}
@@ -0,0 +1,53 @@
+package com.one.innovation.digital.winestock.alert;
+
+import com.one.innovation.digital.winestock.config.StockAlertProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "winestock.alerts.sink", havingValue = "webhook")
+/** Envia cada alerta por POST para winestock.alerts.webhook-url. O envio acontece em uma thread
+ separada, para que a lentidão do destino não atrase a escrita que gerou o alerta.
+ */
+public class WebhookStockAlertSink implements StockAlertSink {
+
+    private final RestTemplate restTemplate;
+
+    private final String webhookUrl;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    public WebhookStockAlertSink(RestTemplateBuilder restTemplateBuilder, StockAlertProperties stockAlertProperties) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(2))
+                .setReadTimeout(Duration.ofSeconds(5))
+                .build();
+        this.webhookUrl = stockAlertProperties.getWebhookUrl();
+    }
+
+    @Override
+    public void publish(StockAlert alert) {
+        executor.execute(() -> {
+            try {
+                restTemplate.postForLocation(webhookUrl, alert);
+            } catch (RestClientException e) {
+                log.error("Could not deliver {} for wine {} to {}", alert.getType(), alert.getWineId(), webhookUrl, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,44 @@
+package com.one.innovation.digital.winestock.cache;
+
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.utils.ETagUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+/** Contador de versões do catálogo, incrementado a cada alteração confirmada em qualquer vinho
+ (cadastro, atualização, exclusão, importação em lote e também movimentações de estoque, que mudam
+ a quantidade exibida nas listagens). Ele gera o ETag das listagens: enquanto o contador não muda,
+ o catálogo é o mesmo e o cliente pode reaproveitar a cópia que já tem.
+ */
+public class CatalogVersion {
+
+    /** O contador recomeça do zero quando a aplicação reinicia; o instante de início entra no ETag
+     para que uma cópia guardada antes do reinício não seja confundida com a versão atual.
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicLong version = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    /** Executado após o commit: quem lê a nova versão também enxerga os dados novos. */
+    public void onWineChanged(WineChangedEvent event) {
+        advance();
+    }
+
+    /** Para alterações que não passam por um WineChangedEvent, como a restauração do snapshot. */
+    public void advance() {
+        version.incrementAndGet();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /** ETag fraco, pois o mesmo catálogo pode ser enviado em formatos e compressões diferentes. */
+    public String eTag() {
+        return ETagUtils.toWeakETag(epoch + "-" + version.get());
+    }
+}
@@ -0,0 +1,41 @@
+package com.one.innovation.digital.winestock.cache;
+
+import com.one.innovation.digital.winestock.config.CacheConfig;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class WineCacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    /** Executado somente após o commit, para que uma leitura feita durante a transação não volte a guardar no
+     cache o valor antigo. O nome anterior e o novo são removidos, pois o update pode renomear o vinho.
+     Resta uma janela: uma busca que leu o banco antes do commit e só grava no cache depois desta remoção deixa o
+     valor antigo guardado até expirar (expireAfterWrite em spring.cache.caffeine.spec, 10 minutos por padrão).
+     Remover também antes da escrita (@CacheEvict) não fecha essa janela, que deve ser levada em conta ao
+     ajustar a expiração.
+     */
+    public void onWineChanged(WineChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.WINES_BY_NAME_CACHE);
+        if (cache == null) {
+            return;
+        }
+        evict(cache, event.getBefore());
+        evict(cache, event.getAfter());
+    }
+
+    private void evict(Cache cache, WineDTO wineDTO) {
+        if (wineDTO != null) {
+            cache.evict(wineDTO.getName());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.one.innovation.digital.winestock.changes;
+
+import com.one.innovation.digital.winestock.config.ChangeFeedProperties;
+import com.one.innovation.digital.winestock.dto.WineChangeDTO;
+import com.one.innovation.digital.winestock.exception.WineChangesExpiredException;
+import com.one.innovation.digital.winestock.service.WineChangeService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "winestock.sharding.enabled", havingValue = "false", matchIfMissing = true)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Sequenciador da outbox e fonte dos streams de alterações (Server-Sent Events).
+ A cada pollInterval, as alterações confirmadas recebem a sua posição e são colocadas na fila de cada stream aberto.
+ O sequenciador não escreve na rede: cada stream é esvaziado por uma tarefa própria no deliveryExecutor, e um
+ cliente lento só atrasa o seu próprio stream (e não o sequenciamento, os outros streams ou os demais @Scheduled).
+ A fila de cada stream é limitada (subscriberBuffer); o que não cabe nela é descartado e relido da outbox depois.
+ Um stream que ficou para trás (acabou de conectar com since antigo, teve alterações descartadas, ou a réplica
+ ainda não tinha as linhas) é alcançado com leituras da outbox: nenhum stream recebe uma alteração sem ter
+ recebido todas as anteriores. Pensado para uma única instância da aplicação.
+ */
+public class WineChangeFeed implements DisposableBean {
+
+    public static final String EVENT_NAME = "wine-change";
+
+    private final WineChangeService wineChangeService;
+
+    private final ChangeFeedProperties changeFeedProperties;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /** Maior posição já atribuída; negativa até o primeiro ciclo. */
+    private final AtomicLong head = new AtomicLong(-1);
+
+    /** No máximo uma tarefa por stream ao mesmo tempo; as threads ociosas são encerradas pelo próprio pool. */
+    private final ExecutorService deliveryExecutor = Executors.newCachedThreadPool(new CustomizableThreadFactory("change-feed-delivery-"));
+
+    /** Sem since, o stream começa nas alterações que ainda vão acontecer. */
+    public SseEmitter subscribe(Long since) throws WineChangesExpiredException, IOException {
+        return subscribe(since, new SseEmitter(changeFeedProperties.getStreamTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(Long since, SseEmitter emitter) throws WineChangesExpiredException, IOException {
+        long cursor = since != null ? since : currentHead();
+        wineChangeService.verifyIfRetained(cursor);
+        /** Sem um primeiro envio, a resposta (e o status 200) só chegaria ao cliente com a primeira alteração. */
+        emitter.send(SseEmitter.event().comment("since " + cursor));
+        Subscriber subscriber = new Subscriber(emitter, cursor, changeFeedProperties.getSubscriberBuffer());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedDelayString = "${winestock.changes.poll-interval}")
+    public synchronized void poll() {
+        if (head.get() < 0) {
+            head.set(wineChangeService.lastSequence());
+        }
+        List<WineChangeDTO> sequencedChanges;
+        do {
+            sequencedChanges = wineChangeService.assignSequences(changeFeedProperties.getBatchSize());
+            if (!sequencedChanges.isEmpty()) {
+                head.set(sequencedChanges.get(sequencedChanges.size() - 1).getSequence());
+            }
+            for (Subscriber subscriber : subscribers) {
+                /** Fila cheia: a alteração fica de fora e o stream a relê da outbox quando chegar nela. */
+                for (WineChangeDTO wineChange : sequencedChanges) {
+                    subscriber.pending.offer(wineChange);
+                }
+            }
+        } while (sequencedChanges.size() == changeFeedProperties.getBatchSize());
+        /** Também sem alterações novas: um stream atrasado continua sendo alcançado a cada ciclo. */
+        for (Subscriber subscriber : subscribers) {
+            scheduleDelivery(subscriber);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${winestock.changes.purge-interval}", initialDelayString = "${winestock.changes.purge-interval}")
+    public void purge() {
+        int purgedChanges = wineChangeService.purgeOlderThan(Instant.now().minus(changeFeedProperties.getRetention()));
+        if (purgedChanges > 0) {
+            log.info("{} wine changes older than {} purged from the outbox", purgedChanges, changeFeedProperties.getRetention());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        deliveryExecutor.shutdownNow();
+    }
+
+    /** Se o stream já tem uma tarefa em andamento, ela mesma chega às alterações novas (ou o próximo ciclo agenda outra). */
+    private void scheduleDelivery(Subscriber subscriber) {
+        if (subscriber.delivering.compareAndSet(false, true)) {
+            deliveryExecutor.execute(() -> {
+                try {
+                    deliver(subscriber);
+                } finally {
+                    subscriber.delivering.set(false);
+                }
+            });
+        }
+    }
+
+    private void deliver(Subscriber subscriber) {
+        try {
+            WineChangeDTO nextChange;
+            while ((nextChange = subscriber.pending.peek()) != null) {
+                if (!catchUp(subscriber, nextChange.getSequence() - 1)) {
+                    return;
+                }
+                send(subscriber, nextChange);
+                subscriber.pending.poll();
+            }
+            catchUp(subscriber, head.get());
+        } catch (IOException | WineChangesExpiredException e) {
+            /** Cliente desconectado, ou tão atrasado que as alterações seguintes já foram apagadas. */
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    /** Lê da outbox o que o stream ainda não recebeu até a posição informada. */
+    private boolean catchUp(Subscriber subscriber, long upTo) throws IOException, WineChangesExpiredException {
+        while (subscriber.cursor < upTo) {
+            List<WineChangeDTO> missedChanges = wineChangeService.changesSince(subscriber.cursor, changeFeedProperties.getBatchSize());
+            if (missedChanges.isEmpty()) {
+                /** A leitura foi para uma réplica que ainda não tem as linhas: tenta de novo no próximo ciclo. */
+                return false;
+            }
+            for (WineChangeDTO missedChange : missedChanges) {
+                send(subscriber, missedChange);
+            }
+        }
+        return true;
+    }
+
+    private void send(Subscriber subscriber, WineChangeDTO wineChange) throws IOException {
+        if (wineChange.getSequence() <= subscriber.cursor) {
+            return;
+        }
+        subscriber.emitter.send(SseEmitter.event()
+                .id(String.valueOf(wineChange.getSequence()))
+                .name(EVENT_NAME)
+                .data(wineChange, MediaType.APPLICATION_JSON));
+        subscriber.cursor = wineChange.getSequence();
+    }
+
+    private long currentHead() {
+        long currentHead = head.get();
+        return currentHead < 0 ? wineChangeService.lastSequence() : currentHead;
+    }
+
+    /** O cursor é a posição da última alteração enviada ao stream. Só a tarefa de entrega o altera, e o
+     flag delivering garante uma tarefa por vez (e a visibilidade do cursor entre uma tarefa e a seguinte).
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<WineChangeDTO> pending;
+
+        private final AtomicBoolean delivering = new AtomicBoolean();
+
+        private long cursor;
+
+        private Subscriber(SseEmitter emitter, long cursor, int bufferSize) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.pending = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.one.innovation.digital.winestock.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.entity.WineChange;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.repository.WineChangeRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+@Component
+@ConditionalOnProperty(name = "winestock.sharding.enabled", havingValue = "false", matchIfMissing = true)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Grava cada alteração do catálogo na outbox (WineChange) antes do commit, na mesma transação da escrita:
+ a alteração só fica visível aos consumidores se o vinho for de fato gravado, e nenhuma escrita confirmada
+ fica sem a sua alteração. Como no ledger, os INSERTs saem em lotes JDBC no flush do commit.
+ Não existe com os shards ligados: a escrita em um shard não tem como incluir a outbox do banco principal
+ na sua transação, e a garantia acima deixaria de valer.
+ */
+public class WineChangeRecorder {
+
+    private final WineChangeRepository wineChangeRepository;
+
+    private final ObjectMapper objectMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    /** A variante reativa grava a outbox pelo R2DBC, na transação da escrita, e marca o evento. */
+    public void onWineChanged(WineChangedEvent event) {
+        if (event.isChangeLogged()) {
+            return;
+        }
+        wineChangeRepository.save(new WineChange(null, null, event.getWineId(), event.getOperation(),
+                toJson(event.getBefore()), toJson(event.getAfter()), Instant.now()));
+    }
+
+    private String toJson(WineDTO wineDTO) {
+        if (wineDTO == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(wineDTO);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.one.innovation.digital.winestock.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+/** Habilita o cache em memória (Caffeine). O tamanho máximo, o tempo de expiração e o registro
+ de estatísticas ficam em spring.cache.caffeine.spec, no application.properties.
+ O cache é consultado antes de a transação começar (ordem anterior à do @Transactional): um acerto
+ no cache não ocupa uma conexão do pool.
+ */
+public class CacheConfig {
+
+    public static final String WINES_BY_NAME_CACHE = "winesByName";
+}
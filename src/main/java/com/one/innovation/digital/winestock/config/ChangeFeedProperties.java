@@ -0,0 +1,31 @@
+package com.one.innovation.digital.winestock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "winestock.changes")
+/** Fluxo de alterações do catálogo. A cada pollInterval, as alterações confirmadas recebem a sua posição
+ (no máximo batchSize por transação) e entram na fila de cada stream aberto, que guarda até subscriberBuffer
+ alterações ainda não enviadas. Alterações mais antigas que
+ retention são apagadas a cada purgeInterval; um stream aberto é encerrado depois de streamTimeout
+ e o cliente reconecta com o cabeçalho Last-Event-ID.
+ */
+public class ChangeFeedProperties {
+
+    private Duration pollInterval = Duration.ofMillis(200);
+
+    private int batchSize = 500;
+
+    private int subscriberBuffer = 1000;
+
+    private Duration retention = Duration.ofDays(7);
+
+    private Duration purgeInterval = Duration.ofHours(1);
+
+    private Duration streamTimeout = Duration.ofMinutes(30);
+}
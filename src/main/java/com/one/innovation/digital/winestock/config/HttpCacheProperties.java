@@ -0,0 +1,19 @@
+package com.one.innovation.digital.winestock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "winestock.http-cache")
+/** Cache HTTP das listagens do catálogo. Com catalogMaxAge zero, clientes e CDNs sempre revalidam
+ com o ETag (resposta 304 sem corpo quando nada mudou); um valor maior permite servir a cópia guardada
+ sem consultar a API durante esse tempo, aceitando um catálogo desatualizado por até esse intervalo.
+ */
+public class HttpCacheProperties {
+
+    private Duration catalogMaxAge = Duration.ZERO;
+}
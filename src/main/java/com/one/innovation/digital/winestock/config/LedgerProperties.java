@@ -0,0 +1,21 @@
+package com.one.innovation.digital.winestock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "winestock.ledger")
+/** Compactação do ledger de estoque. A cada snapshotInterval, as movimentações registradas até
+ (agora - snapshotGrace) são somadas aos snapshots. A folga cobre transações que gravaram a movimentação
+ mas ainda não confirmaram: elas precisam terminar dentro desse tempo para entrar na compactação certa.
+ */
+public class LedgerProperties {
+
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+
+    private Duration snapshotGrace = Duration.ofMinutes(1);
+}
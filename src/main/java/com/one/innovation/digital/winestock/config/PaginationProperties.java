@@ -0,0 +1,18 @@
+package com.one.innovation.digital.winestock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "winestock.pagination")
+/** Tamanhos de página utilizados na listagem paginada. O cliente pode pedir um tamanho,
+ mas ele nunca ultrapassará o maxSize, mantendo a memória por requisição constante.
+ */
+public class PaginationProperties {
+
+    private int defaultSize = 50;
+
+    private int maxSize = 500;
+}
@@ -0,0 +1,34 @@
+package com.one.innovation.digital.winestock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "winestock.replica")
+/** Réplicas de leitura. Quando ligado, as transações somente leitura vão para uma das réplicas em urls
+ (com o mesmo usuário e senha), e as escritas para o banco principal (spring.datasource.*).
+ A cada heartbeatInterval o atraso de cada réplica é medido; réplicas atrasadas mais que maxLag,
+ ou que não responderam, deixam de receber leituras até alcançarem o principal.
+ */
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    private List<String> urls = new ArrayList<>();
+
+    private String username;
+
+    private String password;
+
+    private int poolSize = 10;
+
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+
+    private Duration maxLag = Duration.ofSeconds(10);
+}
@@ -0,0 +1,10 @@
+package com.one.innovation.digital.winestock.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+/** @EnableScheduling Ativa a execução dos métodos anotados com @Scheduled, como a compactação do ledger. */
+public class SchedulingConfig {
+}
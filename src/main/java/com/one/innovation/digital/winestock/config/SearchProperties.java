@@ -0,0 +1,19 @@
+package com.one.innovation.digital.winestock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "winestock.search")
+/** Busca por nome e marca. Uma palavra da consulta corresponde a uma palavra do catálogo quando contém
+ pelo menos minScore dos trigramas da consulta: valores menores toleram mais erros de digitação, mas trazem
+ mais resultados irrelevantes. Cada palavra da consulta considera no máximo maxExpansions palavras do catálogo.
+ */
+public class SearchProperties {
+
+    private double minScore = 0.5;
+
+    private int maxExpansions = 20;
+}
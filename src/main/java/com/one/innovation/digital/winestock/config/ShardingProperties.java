@@ -0,0 +1,28 @@
+package com.one.innovation.digital.winestock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "winestock.sharding")
+/** Catálogo dividido entre vários bancos (shards). Quando ligado, cada vinho é gravado no shard escolhido
+ pelo hash do nome, entre os bancos de urls (com o mesmo usuário e senha). A ordem e a quantidade de urls
+ fazem parte do endereço de cada vinho (nome e id): mudar qualquer uma delas exige redistribuir os dados.
+ */
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    private List<String> urls = new ArrayList<>();
+
+    private String username;
+
+    private String password;
+
+    private int poolSize = 10;
+}
@@ -0,0 +1,29 @@
+package com.one.innovation.digital.winestock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "winestock.snapshot")
+/** Snapshot do catálogo em disco. Quando ligado, o catálogo é gravado em path a cada interval
+ (e no desligamento, com writeOnShutdown). Ao iniciar com a tabela de vinhos vazia, o último snapshot
+ é mapeado em memória, atende as buscas por nome na hora e é copiado para o banco em segundo plano.
+ */
+public class SnapshotProperties {
+
+    private boolean enabled = false;
+
+    private Path path = Paths.get("data", "catalog.snapshot");
+
+    private Duration interval = Duration.ofMinutes(5);
+
+    private boolean writeOnShutdown = true;
+
+    private int restoreBatchSize = 1000;
+}
@@ -0,0 +1,22 @@
+package com.one.innovation.digital.winestock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "winestock.alerts")
+/** Configuração dos alertas de estoque baixo. O sink define para onde os alertas são enviados:
+ log (padrão), memory (fila em memória) ou webhook.
+ */
+public class StockAlertProperties {
+
+    private String sink = "log";
+
+    private int defaultThresholdPercent = 20;
+
+    private int memoryCapacity = 1000;
+
+    private String webhookUrl;
+}
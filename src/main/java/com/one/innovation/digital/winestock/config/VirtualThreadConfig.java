@@ -0,0 +1,49 @@
+package com.one.innovation.digital.winestock.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@ConditionalOnProperty(name = "winestock.threads.virtual", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+/** Modo opcional em que cada requisição é atendida em uma virtual thread, em vez de ocupar uma das
+ threads do pool do Tomcat enquanto espera pelo JDBC. Inclui as respostas assíncronas, como a exportação.
+ Virtual threads só existem a partir do Java 21; o executor é obtido por reflexão para que o projeto
+ continue compilando na versão atual, e a aplicação não sobe se o modo for ligado em um JDK sem suporte.
+ O limite real passa a ser o pool de conexões (spring.datasource.hikari.maximum-pool-size).
+ */
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(String.format(
+                    "winestock.threads.virtual=true requires Java 21 or newer, but the application is running on Java %s.",
+                    Runtime.version()), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create the virtual thread executor.", e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = virtualThreadExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new ConcurrentTaskExecutor(virtualThreadExecutor()));
+    }
+}
@@ -0,0 +1,53 @@
+package com.one.innovation.digital.winestock.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.one.innovation.digital.winestock.converter.ProtobufWineHttpMessageConverter;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Formatos binários escolhidos pelo cabeçalho Accept (ou Content-Type, nas requisições), para as chamadas
+ entre serviços em que o tamanho da resposta e o custo de serialização pesam mais que a legibilidade:
+ application/x-protobuf, application/x-jackson-smile e application/cbor.
+ Os conversores entram depois dos padrões, para que Accept: *&#47;* (ou sem Accept) continue resultando em JSON.
+ */
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilderProvider;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ProtobufWineHttpMessageConverter());
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                binaryObjectMapper(objectMapperBuilderProvider.getObject(), new SmileFactory())));
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                binaryObjectMapper(objectMapperBuilderProvider.getObject(), new CBORFactory())));
+    }
+
+    /** Parte da mesma configuração do ObjectMapper JSON do Spring Boot, trocando apenas o formato.
+     Os enums (como WineType) são escritos pelo índice (ordinal) em vez do nome; na leitura,
+     o Jackson aceita tanto o índice quanto o nome.
+     */
+    public static ObjectMapper binaryObjectMapper(Jackson2ObjectMapperBuilder builder, JsonFactory jsonFactory) {
+        return builder
+                .factory(jsonFactory)
+                .featuresToEnable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                .build();
+    }
+}
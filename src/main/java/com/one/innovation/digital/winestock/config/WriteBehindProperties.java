@@ -0,0 +1,28 @@
+package com.one.innovation.digital.winestock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "winestock.write-behind")
+/** Modo write-behind dos incrementos e decrementos de estoque. Quando ligado, as variações são somadas
+ em memória por vinho e gravadas a cada flushInterval, ou antes disso quando maxPending operações
+ se acumulam; a partir daí, novas variações são gravadas de forma síncrona até o flush. Cada transação de gravação aplica no máximo batchSize vinhos. Um vinho cuja gravação falha
+ sozinha (sem que o banco esteja indisponível) é tentado em até maxFailedFlushes flushes seguidos.
+ */
+public class WriteBehindProperties {
+
+    private boolean enabled = false;
+
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    private int maxPending = 10000;
+
+    private int batchSize = 500;
+
+    private int maxFailedFlushes = 5;
+}
@@ -0,0 +1,114 @@
+package com.one.innovation.digital.winestock.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.one.innovation.digital.winestock.dto.QuantityDTO;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.dto.WineTypeStatsDTO;
+import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineRenameNotAllowedException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import com.one.innovation.digital.winestock.exception.WineVersionMismatchException;
+import com.one.innovation.digital.winestock.service.ShardedWineService;
+import com.one.innovation.digital.winestock.utils.ETagUtils;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.validation.Valid;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/wines")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "winestock.sharding.enabled", havingValue = "true")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Substitui o WineController quando winestock.sharding.enabled=true. Responde nos mesmos caminhos as
+ operações do catálogo que funcionam sobre os shards: cadastro, busca por nome, listagem, totais por tipo,
+ exportação, atualização, estoque e exclusão. Filtros, páginas, busca textual e cadastro em lote
+ dependem de consultas no banco único e não estão disponíveis neste modo. O fluxo de alterações (/changes) e o
+ estoque por data (/{id}/stock) também não: a outbox e o ledger teriam de ser gravados na mesma transação da
+ escrita, e cada escrita acontece em um shard.
+ */
+public class ShardedWineController implements ShardedWineControllerDocs {
+
+    private final ShardedWineService shardedWineService;
+
+    private final ObjectMapper objectMapper;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public WineDTO createWine(@RequestBody @Valid WineDTO wineDTO) throws WineAlreadyRegisteredException {
+        return shardedWineService.createWine(wineDTO);
+    }
+
+    @GetMapping("/{name}")
+    /** Consulta apenas o shard do nome. */
+    public ResponseEntity<WineDTO> findByName(@PathVariable String name, WebRequest webRequest) throws WineNotFoundException {
+        WineDTO wineDTO = shardedWineService.findByName(name);
+        String eTag = ETagUtils.toETag(wineDTO.getVersion());
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return WineResponses.okWithETag(wineDTO);
+    }
+
+    @GetMapping
+    /** Consulta todos os shards em paralelo e devolve os vinhos ordenados pelo id. */
+    public List<WineDTO> listWines() {
+        return shardedWineService.listAll();
+    }
+
+    @GetMapping("/stats")
+    /** Totais por tipo somados a partir de uma consulta agrupada em cada shard. */
+    public List<WineTypeStatsDTO> stats() {
+        return shardedWineService.stats();
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    /** Um vinho por linha, escrito conforme chega de qualquer um dos shards (sem ordem definida). */
+    public ResponseEntity<StreamingResponseBody> exportWines() {
+        StreamingResponseBody body = outputStream ->
+                shardedWineService.exportAll(wineDTO -> WineResponses.writeLine(objectMapper, outputStream, wineDTO));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteById(@PathVariable Long id) throws WineNotFoundException {
+        shardedWineService.deleteById(id);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<WineDTO> update(@PathVariable Long id, @RequestBody @Valid WineDTO wineDTO,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws WineNotFoundException, WineVersionMismatchException, WineRenameNotAllowedException {
+        if (ifMatch != null) {
+            wineDTO.setVersion(WineResponses.parseVersion(id, ifMatch));
+        }
+        return WineResponses.okWithETag(shardedWineService.update(id, wineDTO));
+    }
+
+    @PatchMapping("/{id}/increment")
+    public ResponseEntity<WineDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO)
+            throws WineNotFoundException, WineStockExceededException {
+        return ResponseEntity.ok(shardedWineService.increment(id, quantityDTO.getQuantity()));
+    }
+
+    @PatchMapping("/{id}/decrement")
+    public ResponseEntity<WineDTO> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO)
+            throws WineNotFoundException, WineStockExceededException {
+        return ResponseEntity.ok(shardedWineService.decrement(id, quantityDTO.getQuantity()));
+    }
+}
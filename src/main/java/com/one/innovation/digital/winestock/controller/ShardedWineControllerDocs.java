@@ -0,0 +1,21 @@
+package com.one.innovation.digital.winestock.controller;
+
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+import java.util.List;
+
+
+@Api("Manages wine stock in a sharded catalog")
+/** Documentação do catálogo com os shards ligados: as operações comuns e a listagem sem filtros. */
+public interface ShardedWineControllerDocs extends WineCatalogControllerDocs {
+
+    @ApiOperation(value = "Returns a list of all wines registered in every shard, ordered by id")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "List of all wines registered in the system")
+    })
+    List<WineDTO> listWines();
+}
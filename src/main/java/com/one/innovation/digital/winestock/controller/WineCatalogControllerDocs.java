@@ -0,0 +1,92 @@
+package com.one.innovation.digital.winestock.controller;
+
+import com.one.innovation.digital.winestock.dto.QuantityDTO;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.dto.WineTypeStatsDTO;
+import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineRenameNotAllowedException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import com.one.innovation.digital.winestock.exception.WineVersionMismatchException;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+/** Documentação das operações do catálogo disponíveis tanto em um único banco (WineControllerDocs)
+ quanto com os shards ligados (ShardedWineControllerDocs).
+ */
+public interface WineCatalogControllerDocs {
+
+    @ApiOperation(value = "Wine creation operation")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Success wine creation"),
+            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
+    })
+    WineDTO createWine(WineDTO wineDTO) throws WineAlreadyRegisteredException;
+
+    @ApiOperation(value = "Returns wine found by a given name")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success wine found in the system"),
+            @ApiResponse(code = 304, message = "Wine not modified since the version given in If-None-Match."),
+            @ApiResponse(code = 404, message = "Wine with given name not found.")
+    })
+    ResponseEntity<WineDTO> findByName(@PathVariable String name, WebRequest webRequest) throws WineNotFoundException;
+
+    @ApiOperation(value = "Streams every wine registered in the system as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "One wine per line, in id order (in no defined order when the catalog is sharded)"),
+    })
+    ResponseEntity<StreamingResponseBody> exportWines();
+
+    @ApiOperation(value = "Delete a wines found by a given valid Id")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Success wine deleted in the system"),
+            @ApiResponse(code = 404, message = "Wine with given id not found.")
+    })
+    void deleteById(@PathVariable Long id) throws WineNotFoundException;
+
+    @ApiOperation(value = "Update a wine by a given valid Id")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success wine updated in system"),
+            @ApiResponse(code = 400, message = "Missing required fields, wrong field range value, a name already registered or, with the catalog sharded, a new name."),
+            @ApiResponse(code = 404, message = "Wine with given Id not found."),
+            @ApiResponse(code = 412, message = "Wine changed since the version given in If-Match.")
+    })
+    ResponseEntity<WineDTO> update(@PathVariable Long id, @RequestBody WineDTO wineDTO, @RequestHeader String ifMatch)
+            throws WineNotFoundException, WineVersionMismatchException, WineRenameNotAllowedException,
+            WineAlreadyRegisteredException;
+
+    @ApiOperation(value = "Increment the stock of a wine by a given valid Id")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success wine stock incremented"),
+            @ApiResponse(code = 202, message = "Stock change validated against the projected stock and accepted, to be written with the next write-behind batch"),
+            @ApiResponse(code = 400, message = "Quantity out of range or stock would exceed the max."),
+            @ApiResponse(code = 404, message = "Wine with given Id not found.")
+    })
+    ResponseEntity<WineDTO> increment(@PathVariable Long id, @RequestBody QuantityDTO quantityDTO)
+            throws WineNotFoundException, WineStockExceededException;
+
+    @ApiOperation(value = "Decrement the stock of a wine by a given valid Id")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success wine stock decremented"),
+            @ApiResponse(code = 202, message = "Stock change validated against the projected stock and accepted, to be written with the next write-behind batch"),
+            @ApiResponse(code = 400, message = "Quantity out of range or stock would go below zero."),
+            @ApiResponse(code = 404, message = "Wine with given Id not found.")
+    })
+    ResponseEntity<WineDTO> decrement(@PathVariable Long id, @RequestBody QuantityDTO quantityDTO)
+            throws WineNotFoundException, WineStockExceededException;
+
+    @ApiOperation(value = "Returns the number of wines, bottles, capacity and fill ratio of each wine type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success statistics returned")
+    })
+    List<WineTypeStatsDTO> stats();
+}
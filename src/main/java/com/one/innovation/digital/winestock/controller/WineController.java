@@ -1,19 +1,59 @@
 package com.one.innovation.digital.winestock.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.one.innovation.digital.winestock.cache.CatalogVersion;
+import com.one.innovation.digital.winestock.changes.WineChangeFeed;
+import com.one.innovation.digital.winestock.config.HttpCacheProperties;
+import com.one.innovation.digital.winestock.dto.InventoryLevelDTO;
+import com.one.innovation.digital.winestock.dto.QuantityDTO;
+import com.one.innovation.digital.winestock.dto.StockLevelDTO;
+import com.one.innovation.digital.winestock.dto.WineBulkRequestDTO;
+import com.one.innovation.digital.winestock.dto.WineBulkResultDTO;
+import com.one.innovation.digital.winestock.dto.WineChangeDTO;
 import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.dto.WineFilterDTO;
+import com.one.innovation.digital.winestock.dto.WinePageDTO;
+import com.one.innovation.digital.winestock.dto.WineTypeStatsDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.exception.InvalidCursorException;
+import com.one.innovation.digital.winestock.exception.InvalidSortException;
 import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.exception.WineChangesExpiredException;
 import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import com.one.innovation.digital.winestock.exception.WineVersionMismatchException;
+import com.one.innovation.digital.winestock.service.StockLedgerService;
+import com.one.innovation.digital.winestock.service.WineChangeService;
 import com.one.innovation.digital.winestock.service.WineService;
+import com.one.innovation.digital.winestock.stats.WineTypeStatistics;
+import com.one.innovation.digital.winestock.utils.ETagUtils;
+import com.one.innovation.digital.winestock.writebehind.StockWriteBehindBuffer;
 
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 
 
 @RestController
@@ -25,12 +65,36 @@ simples troca de dados, por Json ou XML. Recomendo mudar para @Controller, caso
 /** @RequestMapping indica qual será o caminho padrão sempre utilizado
 quando formos pesquisar no navegador
  */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "winestock.sharding.enabled", havingValue = "false", matchIfMissing = true)
+/** Com o catálogo dividido em shards, quem responde nestes caminhos é o ShardedWineController. */
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class WineController implements WineControllerDocs {
 
+    /** Propriedades aceitas no parâmetro sort da listagem. Qualquer outra seria repassada à consulta
+     (erro 500 para um nome desconhecido, ou uma ordenação sem índice em uma coluna qualquer).
+     */
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "name", "brand", "type", "quantity", "max");
 
     private final WineService wineService;
 
+    private final StockLedgerService stockLedgerService;
+
+    private final WineTypeStatistics wineTypeStatistics;
+
+    private final WineChangeService wineChangeService;
+
+    private final WineChangeFeed wineChangeFeed;
+
+    private final ObjectMapper objectMapper;
+
+    private final CatalogVersion catalogVersion;
+
+    private final HttpCacheProperties httpCacheProperties;
+
+    /** Disponível apenas com winestock.write-behind.enabled=true. */
+    private final ObjectProvider<StockWriteBehindBuffer> stockWriteBehindBuffer;
+
     @PostMapping
     /** @PostMapping Mapeará o método como um método Post do verbo HTTP. Onde passaremos um corpo
     pela requisição.
@@ -40,19 +104,122 @@ public class WineController implements WineControllerDocs {
         return wineService.createWine(wineDTO);
     }
 
+    @PostMapping("/bulk")
+    /** Cadastra ou atualiza vários vinhos de uma vez, como na chegada de uma remessa do fornecedor.
+     Retorna o resultado de cada item na ordem em que foi enviado.
+     */
+    public List<WineBulkResultDTO> bulkCreateOrUpdate(@RequestBody @Valid WineBulkRequestDTO wineBulkRequestDTO) {
+        return wineService.bulkCreateOrUpdate(wineBulkRequestDTO.getWines());
+    }
+
     @GetMapping("/{name}")
     /** Maperá o método com um método Get do verbo HTTP. Onde solicitaremos
      uma resposta de acordo com o nome.
      */
-    public WineDTO findByName(@PathVariable String name) throws WineNotFoundException {
-        return wineService.findByName(name);
+    public ResponseEntity<WineDTO> findByName(@PathVariable String name, WebRequest webRequest) throws WineNotFoundException {
+        WineDTO wineDTO = wineService.findByName(name);
+        String eTag = ETagUtils.toETag(wineDTO.getVersion());
+        /** Se o cliente já tem esta versão (If-None-Match), responde 304 sem corpo. */
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return WineResponses.okWithETag(wineDTO);
     }
 
     @GetMapping
-    /** Listará os vinhos.
+    /** Listará os vinhos. Os parâmetros opcionais (type, brand, minQuantity, maxQuantity,
+     belowFillPercent e sort) são aplicados na consulta ao banco.
+     */
+    public ResponseEntity<List<WineDTO>> listWines(@Valid WineFilterDTO filter, @SortDefault("id") Sort sort,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws InvalidSortException {
+        verifyIfSortable(sort);
+        /** A versão é lida antes da consulta: se uma escrita acontecer no meio, o ETag fica mais antigo
+         que os dados e o cliente apenas baixa o catálogo de novo na próxima vez (nunca o contrário).
+         */
+        String eTag = catalogVersion.eTag();
+        if (ETagUtils.matchesAny(ifNoneMatch, eTag)) {
+            return notModifiedCatalog(eTag);
+        }
+        return okWithCatalogHeaders(eTag, wineService.listAll(filter, sort));
+    }
+
+    @GetMapping("/page")
+    /** Listará os vinhos em páginas de tamanho limitado. O cursor retornado em uma página
+     deve ser enviado para obter a próxima.
+     */
+    public ResponseEntity<WinePageDTO> listWinesPage(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws InvalidCursorException {
+        String eTag = catalogVersion.eTag();
+        if (ETagUtils.matchesAny(ifNoneMatch, eTag)) {
+            return notModifiedCatalog(eTag);
+        }
+        return okWithCatalogHeaders(eTag, wineService.listPage(cursor, size));
+    }
+
+    @GetMapping("/search")
+    /** Buscará os vinhos cujo nome ou marca contenha o texto informado, mesmo com pequenos erros
+     de digitação, do mais para o menos parecido.
+     */
+    public List<WineDTO> search(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        return wineService.search(q, limit);
+    }
+
+    @GetMapping("/stats")
+    /** Totais por tipo de vinho: vinhos cadastrados, garrafas, capacidade e ocupação.
+     Lidos dos contadores em memória, sem consultar o banco.
      */
-    public List<WineDTO> listWines() {
-        return wineService.listAll();
+    public List<WineTypeStatsDTO> stats() {
+        return wineTypeStatistics.all();
+    }
+
+    @GetMapping("/inventory/below-fill")
+    /** Vinhos com ocupação abaixo do percentual informado, do mais vazio para o mais cheio,
+     opcionalmente de um único tipo. Lidos do índice de estoque em memória, sem consultar o banco.
+     */
+    public List<InventoryLevelDTO> listBelowFill(@RequestParam int percent, @RequestParam(required = false) WineType type,
+                                                 @RequestParam(required = false) Integer limit) {
+        return wineService.listBelowFill(type, percent, limit);
+    }
+
+    @GetMapping("/inventory/top")
+    /** Vinhos com as maiores quantidades em estoque, opcionalmente de um único tipo. */
+    public List<InventoryLevelDTO> topByQuantity(@RequestParam(required = false) WineType type,
+                                                 @RequestParam(required = false) Integer limit) {
+        return wineService.topByQuantity(type, limit);
+    }
+
+    @GetMapping("/changes")
+    /** Alterações do catálogo posteriores à posição since, em ordem. Quem sincroniza pede de novo
+     com since igual à última sequence recebida, até receber uma lista vazia.
+     */
+    public List<WineChangeDTO> listChanges(@RequestParam(defaultValue = "0") long since,
+                                           @RequestParam(required = false) Integer limit) throws WineChangesExpiredException {
+        return wineChangeService.changesSince(since, limit);
+    }
+
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    /** As mesmas alterações como Server-Sent Events, enviadas assim que recebem a sua posição.
+     Ao reconectar, o cliente SSE reenvia o id do último evento no cabeçalho Last-Event-ID e continua dali.
+     */
+    public SseEmitter streamChanges(@RequestParam(required = false) Long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId)
+            throws WineChangesExpiredException, IOException {
+        return wineChangeFeed.subscribe(since != null ? since : lastEventId);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    /** Exportará o catálogo inteiro em JSON delimitado por linha (um vinho por linha).
+     O corpo é escrito aos poucos, enquanto as linhas são lidas do banco, sem montar a lista em memória.
+     */
+    public ResponseEntity<StreamingResponseBody> exportWines() {
+        StreamingResponseBody body = outputStream ->
+                wineService.exportAll(wineDTO -> WineResponses.writeLine(objectMapper, outputStream, wineDTO));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @DeleteMapping("/{id}")
@@ -65,7 +232,85 @@ public class WineController implements WineControllerDocs {
     }
 
     @PutMapping("/{id}")
-    public WineDTO update(@PathVariable Long id, @RequestBody @Valid WineDTO wineDTO) throws WineNotFoundException{
-        return wineService.update(id, wineDTO);
+    /** Com o cabeçalho If-Match, a atualização só acontece se o vinho ainda estiver na versão
+     informada. Caso contrário, responde 412 e o cliente deve buscar o vinho novamente.
+     */
+    public ResponseEntity<WineDTO> update(@PathVariable Long id, @RequestBody @Valid WineDTO wineDTO,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws WineNotFoundException, WineVersionMismatchException, WineAlreadyRegisteredException {
+        if (ifMatch != null) {
+            wineDTO.setVersion(WineResponses.parseVersion(id, ifMatch));
+        }
+        WineDTO updatedWineDTO = wineService.update(id, wineDTO);
+        return WineResponses.okWithETag(updatedWineDTO);
+    }
+
+    @PatchMapping("/{id}/increment")
+    /** @PatchMapping Mapeará o método como um método Patch do verbo HTTP, usado para alterar
+    apenas parte do recurso. Aqui, somente a quantidade em estoque.
+     */
+    public ResponseEntity<WineDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO)
+            throws WineNotFoundException, WineStockExceededException {
+        if (enqueueStockChange(id, quantityDTO.getQuantity())) {
+            return ResponseEntity.accepted().build();
+        }
+        return ResponseEntity.ok(wineService.increment(id, quantityDTO.getQuantity()));
+    }
+
+    @PatchMapping("/{id}/decrement")
+    public ResponseEntity<WineDTO> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO)
+            throws WineNotFoundException, WineStockExceededException {
+        if (enqueueStockChange(id, -quantityDTO.getQuantity())) {
+            return ResponseEntity.accepted().build();
+        }
+        return ResponseEntity.ok(wineService.decrement(id, quantityDTO.getQuantity()));
+    }
+
+    @GetMapping("/{id}/stock")
+    /** Estoque do vinho no instante informado (ISO-8601, ex.: 2021-03-18T10:15:30Z), reconstruído
+     a partir do ledger de movimentações. Sem o parâmetro at, considera o instante atual.
+     */
+    public StockLevelDTO stockAt(@PathVariable Long id,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at)
+            throws WineNotFoundException {
+        return stockLedgerService.stockAt(id, at == null ? Instant.now() : at);
+    }
+
+    /** No modo write-behind, a variação é validada contra o estoque projetado do vinho, acumulada e
+     respondida com 202, sem o vinho atualizado. Com o buffer cheio, a variação é gravada de forma síncrona.
+     */
+    private boolean enqueueStockChange(Long id, int delta) throws WineNotFoundException, WineStockExceededException {
+        StockWriteBehindBuffer buffer = stockWriteBehindBuffer.getIfAvailable();
+        return buffer != null && buffer.enqueue(id, delta);
+    }
+
+    private <T> ResponseEntity<T> okWithCatalogHeaders(String eTag, T body) {
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(catalogCacheControl())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    private <T> ResponseEntity<T> notModifiedCatalog(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(catalogCacheControl())
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    private CacheControl catalogCacheControl() {
+        return CacheControl.maxAge(httpCacheProperties.getCatalogMaxAge())
+                .cachePublic()
+                .mustRevalidate();
+    }
+
+    private void verifyIfSortable(Sort sort) throws InvalidSortException {
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new InvalidSortException(order.getProperty());
+            }
+        }
     }
-}
\ No newline at end of file
+}
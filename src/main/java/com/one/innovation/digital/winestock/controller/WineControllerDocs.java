@@ -1,52 +1,100 @@
 package com.one.innovation.digital.winestock.controller;
 
+import com.one.innovation.digital.winestock.dto.InventoryLevelDTO;
+import com.one.innovation.digital.winestock.dto.StockLevelDTO;
+import com.one.innovation.digital.winestock.dto.WineBulkRequestDTO;
+import com.one.innovation.digital.winestock.dto.WineBulkResultDTO;
+import com.one.innovation.digital.winestock.dto.WineChangeDTO;
 import com.one.innovation.digital.winestock.dto.WineDTO;
-import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.dto.WineFilterDTO;
+import com.one.innovation.digital.winestock.dto.WinePageDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.exception.InvalidCursorException;
+import com.one.innovation.digital.winestock.exception.InvalidSortException;
+import com.one.innovation.digital.winestock.exception.WineChangesExpiredException;
 import com.one.innovation.digital.winestock.exception.WineNotFoundException;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
 
 @Api("Manages wine stock")
-public interface WineControllerDocs {
+/** Documentação das operações do catálogo em um único banco. As operações que também existem com os
+ shards ligados estão em WineCatalogControllerDocs.
+ */
+public interface WineControllerDocs extends WineCatalogControllerDocs {
 
-    @ApiOperation(value = "Wine creation operation")
+    @ApiOperation(value = "Creates or updates, by name, a list of wines in a single request")
     @ApiResponses(value = {
-            @ApiResponse(code = 201, message = "Success wine creation"),
-            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
+            @ApiResponse(code = 200, message = "Result of each wine, in the order they were sent"),
+            @ApiResponse(code = 400, message = "Empty list, missing required fields or wrong field range value.")
     })
-    WineDTO createWine(WineDTO wineDTO) throws WineAlreadyRegisteredException;
+    List<WineBulkResultDTO> bulkCreateOrUpdate(WineBulkRequestDTO wineBulkRequestDTO);
 
-    @ApiOperation(value = "Returns wine found by a given name")
+    @ApiOperation(value = "Returns a list of all wines registered in the system, optionally filtered and sorted")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "Success wine found in the system"),
-            @ApiResponse(code = 404, message = "Wine with given name not found.")
+            @ApiResponse(code = 200, message = "List of all wines registered in the system matching the filters"),
+            @ApiResponse(code = 304, message = "Catalog unchanged since the ETag sent in If-None-Match"),
+            @ApiResponse(code = 400, message = "Wrong filter range value or unsupported sort property.")
     })
-    WineDTO findByName(@PathVariable String name) throws WineNotFoundException;
+    ResponseEntity<List<WineDTO>> listWines(WineFilterDTO filter, Sort sort, String ifNoneMatch) throws InvalidSortException;
 
-    @ApiOperation(value = "Returns a list of all wines registered in the system")
+    @ApiOperation(value = "Returns a page of wines ordered by id, continuing after the given cursor")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "List of all wines registered in the system"),
+            @ApiResponse(code = 200, message = "Page of wines and the cursor for the next page"),
+            @ApiResponse(code = 304, message = "Catalog unchanged since the ETag sent in If-None-Match"),
+            @ApiResponse(code = 400, message = "Invalid cursor.")
     })
-    List<WineDTO> listWines();
+    ResponseEntity<WinePageDTO> listWinesPage(String cursor, Integer size, String ifNoneMatch) throws InvalidCursorException;
 
-    @ApiOperation(value = "Delete a wines found by a given valid Id")
+    @ApiOperation(value = "Returns the stock of a wine at a given instant, rebuilt from the stock movement ledger")
     @ApiResponses(value = {
-            @ApiResponse(code = 204, message = "Success wine deleted in the system"),
-            @ApiResponse(code = 404, message = "Wine with given id not found.")
+            @ApiResponse(code = 200, message = "Success stock level found"),
+            @ApiResponse(code = 404, message = "No stock movement recorded for the wine up to the given instant.")
     })
-    void deleteById(@PathVariable Long id) throws WineNotFoundException;
+    StockLevelDTO stockAt(@PathVariable Long id, Instant at) throws WineNotFoundException;
 
-    @ApiOperation(value = "Update a wine by a given valid Id")
+    @ApiOperation(value = "Searches wines by part of the name or brand, tolerating typos, best matches first")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "Success wine updated in system"),
-            @ApiResponse(code = 404, message = "Wine with given Id not found.")
+            @ApiResponse(code = 200, message = "Success wines found (possibly an empty list)"),
+            @ApiResponse(code = 400, message = "Missing search text.")
     })
-    WineDTO update(@PathVariable Long id, @RequestBody WineDTO wineDTO) throws WineNotFoundException;
-}
\ No newline at end of file
+    List<WineDTO> search(String q, Integer limit);
+
+    @ApiOperation(value = "Returns the wines filled below a percentage of their max, emptiest first, from the in-memory inventory index")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success wines found (possibly an empty list)"),
+            @ApiResponse(code = 400, message = "Missing percent or unknown wine type.")
+    })
+    List<InventoryLevelDTO> listBelowFill(int percent, WineType type, Integer limit);
+
+    @ApiOperation(value = "Returns the wines with the most bottles in stock, from the in-memory inventory index")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success wines found (possibly an empty list)"),
+            @ApiResponse(code = 400, message = "Unknown wine type.")
+    })
+    List<InventoryLevelDTO> topByQuantity(WineType type, Integer limit);
+
+    @ApiOperation(value = "Returns the catalog changes after a sequence number, in order, with the wine before and after each change")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success changes found (an empty list when the caller is up to date)"),
+            @ApiResponse(code = 410, message = "The changes after this sequence were purged; read the full catalog again.")
+    })
+    List<WineChangeDTO> listChanges(long since, Integer limit) throws WineChangesExpiredException;
+
+    @ApiOperation(value = "Streams the catalog changes as Server-Sent Events, resuming after the since parameter or the Last-Event-ID header")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Success stream opened"),
+            @ApiResponse(code = 410, message = "The changes after this sequence were purged; read the full catalog again.")
+    })
+    SseEmitter streamChanges(Long since, Long lastEventId) throws WineChangesExpiredException, IOException;
+}
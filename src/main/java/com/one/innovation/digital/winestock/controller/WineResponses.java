@@ -0,0 +1,47 @@
+package com.one.innovation.digital.winestock.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.exception.WineVersionMismatchException;
+import com.one.innovation.digital.winestock.utils.ETagUtils;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/** Respostas comuns ao WineController e ao ShardedWineController: o vinho com o seu ETag, a versão
+ esperada lida do If-Match e as linhas da exportação em JSON delimitado por linha.
+ */
+final class WineResponses {
+
+    private WineResponses() {
+    }
+
+    static ResponseEntity<WineDTO> okWithETag(WineDTO wineDTO) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        String eTag = ETagUtils.toETag(wineDTO.getVersion());
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(wineDTO);
+    }
+
+    /** Um If-Match que não foi gerado por esta API não corresponde a nenhuma versão: responde 412. */
+    static Long parseVersion(Long id, String ifMatch) throws WineVersionMismatchException {
+        try {
+            return ETagUtils.toVersion(ifMatch);
+        } catch (NumberFormatException e) {
+            throw new WineVersionMismatchException(id, ifMatch);
+        }
+    }
+
+    static void writeLine(ObjectMapper objectMapper, OutputStream outputStream, WineDTO wineDTO) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(wineDTO));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
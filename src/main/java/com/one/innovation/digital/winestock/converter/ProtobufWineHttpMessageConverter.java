@@ -0,0 +1,101 @@
+package com.one.innovation.digital.winestock.converter;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.one.innovation.digital.winestock.dto.QuantityDTO;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/** Converte WineDTO, QuantityDTO e List<WineDTO> de/para Protobuf quando o cliente pede
+ application/x-protobuf no Accept (respostas) ou no Content-Type (requisições).
+ Os demais tipos continuam sendo tratados pelos conversores JSON.
+ */
+public class ProtobufWineHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public ProtobufWineHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return WineDTO.class == clazz || QuantityDTO.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return isWineList(type) ? canRead(mediaType) : super.canRead(type, contextClass, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return isWineList(type) ? canWrite(mediaType) : super.canWrite(type, clazz, mediaType);
+    }
+
+    /** Na negociação, o Spring pergunta pelos formatos da classe do valor (ArrayList), sem o tipo dos elementos.
+     A verificação completa (List<WineDTO>) acontece depois, no canWrite com o tipo genérico; listas de outros
+     tipos continuam recebendo 406 quando pedidas em Protobuf.
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : super.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(inputMessage.getBody());
+        try {
+            if (isWineList(type)) {
+                return WineProtobufCodec.readWineList(input);
+            }
+            if (QuantityDTO.class == type) {
+                return WineProtobufCodec.readQuantity(input);
+            }
+            return WineProtobufCodec.readWine(input);
+        } catch (InvalidProtocolBufferException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf message: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+        if (object instanceof WineDTO) {
+            WineProtobufCodec.writeWine((WineDTO) object, output);
+        } else if (object instanceof QuantityDTO) {
+            WineProtobufCodec.writeQuantity((QuantityDTO) object, output);
+        } else if (object instanceof List) {
+            WineProtobufCodec.writeWineList((List<WineDTO>) object, output);
+        } else {
+            throw new HttpMessageNotWritableException("Cannot write " + object.getClass().getName() + " as protobuf");
+        }
+        output.flush();
+    }
+
+    private boolean isWineList(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        ParameterizedType parameterizedType = (ParameterizedType) type;
+        return parameterizedType.getRawType() == List.class
+                && parameterizedType.getActualTypeArguments()[0] == WineDTO.class;
+    }
+}
@@ -0,0 +1,178 @@
+package com.one.innovation.digital.winestock.converter;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.one.innovation.digital.winestock.dto.QuantityDTO;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Codifica e decodifica WineDTO, List<WineDTO> e QuantityDTO no formato binário do Protobuf, seguindo
+ o esquema em src/main/proto/wine.proto. É escrito à mão sobre o CodedOutputStream/CodedInputStream,
+ sem classes geradas, para não copiar cada DTO para uma mensagem intermediária.
+ Campos nulos não são escritos; campos desconhecidos são ignorados na leitura.
+ */
+public final class WineProtobufCodec {
+
+    private static final int WINE_ID = 1;
+    private static final int WINE_NAME = 2;
+    private static final int WINE_BRAND = 3;
+    private static final int WINE_MAX = 4;
+    private static final int WINE_QUANTITY = 5;
+    private static final int WINE_TYPE = 6;
+    private static final int WINE_LOW_STOCK_THRESHOLD = 7;
+    private static final int WINE_VERSION = 8;
+
+    private static final int WINE_LIST_WINES = 1;
+
+    private static final int QUANTITY_QUANTITY = 1;
+
+    private static final WineType[] WINE_TYPES = WineType.values();
+
+    private WineProtobufCodec() {
+    }
+
+    public static void writeWine(WineDTO wineDTO, CodedOutputStream output) throws IOException {
+        if (wineDTO.getId() != null) {
+            output.writeInt64(WINE_ID, wineDTO.getId());
+        }
+        if (wineDTO.getName() != null) {
+            output.writeString(WINE_NAME, wineDTO.getName());
+        }
+        if (wineDTO.getBrand() != null) {
+            output.writeString(WINE_BRAND, wineDTO.getBrand());
+        }
+        if (wineDTO.getMax() != null) {
+            output.writeInt32(WINE_MAX, wineDTO.getMax());
+        }
+        if (wineDTO.getQuantity() != null) {
+            output.writeInt32(WINE_QUANTITY, wineDTO.getQuantity());
+        }
+        if (wineDTO.getType() != null) {
+            output.writeEnum(WINE_TYPE, wineDTO.getType().ordinal());
+        }
+        if (wineDTO.getLowStockThreshold() != null) {
+            output.writeInt32(WINE_LOW_STOCK_THRESHOLD, wineDTO.getLowStockThreshold());
+        }
+        if (wineDTO.getVersion() != null) {
+            output.writeInt64(WINE_VERSION, wineDTO.getVersion());
+        }
+    }
+
+    public static void writeWineList(List<WineDTO> wines, CodedOutputStream output) throws IOException {
+        for (WineDTO wineDTO : wines) {
+            /** Mensagens aninhadas são precedidas pelo seu tamanho em bytes. */
+            output.writeTag(WINE_LIST_WINES, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(sizeOf(wineDTO));
+            writeWine(wineDTO, output);
+        }
+    }
+
+    public static void writeQuantity(QuantityDTO quantityDTO, CodedOutputStream output) throws IOException {
+        if (quantityDTO.getQuantity() != null) {
+            output.writeInt32(QUANTITY_QUANTITY, quantityDTO.getQuantity());
+        }
+    }
+
+    public static WineDTO readWine(CodedInputStream input) throws IOException {
+        WineDTO wineDTO = new WineDTO();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case WINE_ID:
+                    wineDTO.setId(input.readInt64());
+                    break;
+                case WINE_NAME:
+                    wineDTO.setName(input.readString());
+                    break;
+                case WINE_BRAND:
+                    wineDTO.setBrand(input.readString());
+                    break;
+                case WINE_MAX:
+                    wineDTO.setMax(input.readInt32());
+                    break;
+                case WINE_QUANTITY:
+                    wineDTO.setQuantity(input.readInt32());
+                    break;
+                case WINE_TYPE:
+                    wineDTO.setType(wineTypeOf(input.readEnum()));
+                    break;
+                case WINE_LOW_STOCK_THRESHOLD:
+                    wineDTO.setLowStockThreshold(input.readInt32());
+                    break;
+                case WINE_VERSION:
+                    wineDTO.setVersion(input.readInt64());
+                    break;
+                default:
+                    input.skipField(tag);
+            }
+        }
+        return wineDTO;
+    }
+
+    public static List<WineDTO> readWineList(CodedInputStream input) throws IOException {
+        List<WineDTO> wines = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (WireFormat.getTagFieldNumber(tag) == WINE_LIST_WINES) {
+                int oldLimit = input.pushLimit(input.readRawVarint32());
+                wines.add(readWine(input));
+                input.popLimit(oldLimit);
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return wines;
+    }
+
+    public static QuantityDTO readQuantity(CodedInputStream input) throws IOException {
+        QuantityDTO quantityDTO = new QuantityDTO();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (WireFormat.getTagFieldNumber(tag) == QUANTITY_QUANTITY) {
+                quantityDTO.setQuantity(input.readInt32());
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return quantityDTO;
+    }
+
+    private static int sizeOf(WineDTO wineDTO) {
+        int size = 0;
+        if (wineDTO.getId() != null) {
+            size += CodedOutputStream.computeInt64Size(WINE_ID, wineDTO.getId());
+        }
+        if (wineDTO.getName() != null) {
+            size += CodedOutputStream.computeStringSize(WINE_NAME, wineDTO.getName());
+        }
+        if (wineDTO.getBrand() != null) {
+            size += CodedOutputStream.computeStringSize(WINE_BRAND, wineDTO.getBrand());
+        }
+        if (wineDTO.getMax() != null) {
+            size += CodedOutputStream.computeInt32Size(WINE_MAX, wineDTO.getMax());
+        }
+        if (wineDTO.getQuantity() != null) {
+            size += CodedOutputStream.computeInt32Size(WINE_QUANTITY, wineDTO.getQuantity());
+        }
+        if (wineDTO.getType() != null) {
+            size += CodedOutputStream.computeEnumSize(WINE_TYPE, wineDTO.getType().ordinal());
+        }
+        if (wineDTO.getLowStockThreshold() != null) {
+            size += CodedOutputStream.computeInt32Size(WINE_LOW_STOCK_THRESHOLD, wineDTO.getLowStockThreshold());
+        }
+        if (wineDTO.getVersion() != null) {
+            size += CodedOutputStream.computeInt64Size(WINE_VERSION, wineDTO.getVersion());
+        }
+        return size;
+    }
+
+    /** Um valor fora do enum (de um cliente com um esquema mais novo) vira nulo e é recusado pela validação. */
+    private static WineType wineTypeOf(int ordinal) {
+        return ordinal >= 0 && ordinal < WINE_TYPES.length ? WINE_TYPES[ordinal] : null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.one.innovation.digital.winestock.dto;
+
+import com.one.innovation.digital.winestock.enums.WineType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryLevelDTO {
+    /**
+     * Estoque de um vinho como guardado no InventoryIndex: apenas o id e os campos numéricos,
+     * sem nome nem marca. A ocupação é a razão entre a quantidade e o máximo.
+     */
+
+    private Long id;
+
+    private WineType type;
+
+    private int quantity;
+
+    private int max;
+
+    private double fillRatio;
+}
@@ -0,0 +1,27 @@
+package com.one.innovation.digital.winestock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevelDTO {
+    /**
+     * Estoque de um vinho em um instante, reconstruído a partir do ledger. O snapshotAsOf indica
+     * de qual snapshot a reconstrução partiu (nulo quando todas as movimentações foram somadas).
+     */
+
+    private Long wineId;
+
+    private Instant at;
+
+    private int quantity;
+
+    private Instant snapshotAsOf;
+}
@@ -0,0 +1,23 @@
+package com.one.innovation.digital.winestock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WineBulkRequestDTO {
+    /**
+     * Envolve a lista de vinhos para que cada item seja validado com as mesmas regras do WineDTO.
+     */
+
+    @NotEmpty
+    private List<@Valid WineDTO> wines;
+}
@@ -0,0 +1,23 @@
+package com.one.innovation.digital.winestock.dto;
+
+import com.one.innovation.digital.winestock.enums.BulkItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WineBulkResultDTO {
+    /**
+     * Resultado de um item da carga em lote, na mesma ordem em que os itens foram enviados.
+     */
+
+    private String name;
+
+    private BulkItemStatus status;
+
+    private WineDTO wine;
+}
@@ -0,0 +1,33 @@
+package com.one.innovation.digital.winestock.dto;
+
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WineChangeDTO {
+    /**
+     * Uma alteração do catálogo como entregue aos consumidores. A sequence é crescente e sem lacunas:
+     * quem guardou a última recebida pede as seguintes com since=sequence. O before é nulo na criação
+     * e o after é nulo na exclusão, como no WineChangedEvent.
+     */
+
+    private Long sequence;
+
+    private Long wineId;
+
+    private WineOperation operation;
+
+    private WineDTO before;
+
+    private WineDTO after;
+
+    private Instant occurredAt;
+}
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
@@ -43,4 +44,10 @@ public class WineDTO {
     @Enumerated(EnumType.STRING)
     @NotNull
     private WineType type;
+
+    @Min(0)
+    @Max(500)
+    private Integer lowStockThreshold;
+
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.one.innovation.digital.winestock.dto;
+
+import com.one.innovation.digital.winestock.enums.WineType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WineFilterDTO {
+    /**
+     * Filtros opcionais da listagem, recebidos como parâmetros da URL. Os filtros informados
+     * são combinados com AND e aplicados pelo banco.
+     */
+
+    private WineType type;
+
+    private String brand;
+
+    @Min(0)
+    private Integer minQuantity;
+
+    @Min(0)
+    private Integer maxQuantity;
+
+    @Min(0)
+    @Max(100)
+    private Integer belowFillPercent;
+}
@@ -0,0 +1,25 @@
+package com.one.innovation.digital.winestock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WinePageDTO {
+    /**
+     * Página de vinhos ordenada por id. O nextCursor é opaco para o cliente e deve ser
+     * reenviado para buscar a próxima página. Quando nulo, não há mais páginas.
+     */
+
+    private List<WineDTO> content;
+
+    private int size;
+
+    private String nextCursor;
+}
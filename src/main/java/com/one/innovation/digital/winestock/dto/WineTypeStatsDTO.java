@@ -0,0 +1,39 @@
+package com.one.innovation.digital.winestock.dto;
+
+import com.one.innovation.digital.winestock.enums.WineType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WineTypeStatsDTO {
+    /**
+     * Totais de um WineType: quantidade de vinhos cadastrados (SKUs), garrafas em estoque,
+     * capacidade (soma dos max) e a ocupação, que é a razão entre garrafas e capacidade.
+     */
+
+    private WineType type;
+
+    private long wines;
+
+    private long bottles;
+
+    private long capacity;
+
+    private double fillRatio;
+
+    /** Calcula a ocupação a partir dos totais; sem capacidade (nenhum vinho do tipo), a ocupação é 0. */
+    public static WineTypeStatsDTO of(WineType type, long wines, long bottles, long capacity) {
+        return WineTypeStatsDTO.builder()
+                .type(type)
+                .wines(wines)
+                .bottles(bottles)
+                .capacity(capacity)
+                .fillRatio(capacity > 0 ? (double) bottles / capacity : 0)
+                .build();
+    }
+}
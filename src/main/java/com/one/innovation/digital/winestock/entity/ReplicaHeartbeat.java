@@ -0,0 +1,29 @@
+package com.one.innovation.digital.winestock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+/** Linha única, regravada periodicamente no banco principal com o instante da gravação. Ao ler a mesma
+ linha em uma réplica, sabe-se até quando ela está atualizada: tudo o que foi confirmado no principal
+ antes de writtenAt já foi replicado (ver ReplicaLagTracker).
+ */
+public class ReplicaHeartbeat {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Instant writtenAt;
+}
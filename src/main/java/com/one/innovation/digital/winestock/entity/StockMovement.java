@@ -0,0 +1,55 @@
+package com.one.innovation.digital.winestock.entity;
+
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.Instant;
+
+@Data
+@Entity
+@Immutable // @Immutable O Hibernate nunca gera UPDATE para esta entidade: uma movimentação registrada não muda mais.
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = {
+        // Consulta de estoque em uma data: movimentações de um vinho dentro de um intervalo de tempo.
+        @Index(name = "idx_stock_movement_wine_time", columnList = "wineId, occurredAt"),
+        // Compactação: movimentações de todos os vinhos desde o último snapshot.
+        @Index(name = "idx_stock_movement_time", columnList = "occurredAt")
+})
+/** Uma linha do livro-razão (ledger) de estoque: cada alteração de quantidade de um vinho vira uma
+ movimentação com a variação (delta), o motivo e o instante. As linhas só são inseridas, nunca alteradas
+ ou apagadas, nem mesmo quando o vinho é excluído.
+ */
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_sequence")
+    @SequenceGenerator(name = "stock_movement_sequence", sequenceName = "stock_movement_sequence", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long wineId;
+
+    @Column(nullable = false)
+    private int delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WineOperation reason;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+}
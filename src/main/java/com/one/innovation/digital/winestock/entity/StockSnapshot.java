@@ -0,0 +1,45 @@
+package com.one.innovation.digital.winestock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.Instant;
+
+@Data
+@Entity
+@Immutable
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = { // Busca do último snapshot de um vinho até uma data.
+        @Index(name = "idx_stock_snapshot_wine_as_of", columnList = "wineId, asOf")
+})
+/** Quantidade de um vinho em um instante (asOf), compactada a partir das movimentações do ledger.
+ Para saber o estoque em uma data, parte-se do último snapshot até ela e somam-se apenas as
+ movimentações posteriores, em vez de percorrer o ledger inteiro.
+ */
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_snapshot_sequence")
+    @SequenceGenerator(name = "stock_snapshot_sequence", sequenceName = "stock_snapshot_sequence", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long wineId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private Instant asOf;
+}
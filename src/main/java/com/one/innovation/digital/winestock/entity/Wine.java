@@ -14,20 +14,29 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Data // @Data Gera getters e setters, hash e equal para as propriedades.
 @Entity // @Entity Descreve a entendidade. Mapeamento da JPA.
 @NoArgsConstructor // @NoArgs... Irá gerar um construtor sem parâmetros se possível.
 @AllArgsConstructor // @AllArgs... Irá gerar um construtor com 1 parâmetro para cada propriedade.
+@Table(indexes = { // Índices usados pelos filtros da listagem (tipo + faixa de quantidade e prefixo da marca).
+        @Index(name = "idx_wine_type_quantity", columnList = "type, quantity"),
+        @Index(name = "idx_wine_brand", columnList = "brand")
+})
 public class Wine {
 
     @Id // @Id Informa ao JPA qual campo é identificado como chave primária de uma tabela.
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wine_sequence")
+    @SequenceGenerator(name = "wine_sequence", sequenceName = "wine_sequence", allocationSize = 50)
     /** @GeneratedValue é utilizada para informar
     que a geração do valor do identificador único da entidade será gerenciada pelo provedor de persistência.
-    Identity: Informamos ao provedor de persistência que os valores a serem atribuídos ao identificador único
-    serão gerados pela coluna de auto incremento do banco de dados. Assim, um valor para o identificador é
-    gerado para cada registro inserido no banco.
+    Sequence: O identificador vem de uma sequence do banco. Com o allocationSize, o Hibernate reserva
+    50 valores por chamada (otimizador pooled) e conhece o id antes do INSERT, o que permite agrupar
+    vários INSERTs em um único lote JDBC. Com Identity isso não é possível, pois o id só existe após cada INSERT.
      */
     private Long id;
 
@@ -49,4 +58,12 @@ public class Wine {
     @Column(nullable = false)
     private WineType type;
 
+    @Column // Quantidade a partir da qual o vinho é considerado com estoque baixo. Quando nula, vale o percentual
+    // padrão configurado em winestock.alerts.default-threshold-percent.
+    private Integer lowStockThreshold;
+
+    @Version // @Version Incrementada a cada alteração. O UPDATE só acontece se a versão no banco for a mesma lida,
+    // evitando que uma escrita concorrente seja sobrescrita sem que ninguém perceba (lock otimista).
+    private Long version;
+
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.one.innovation.digital.winestock.entity;
+
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.Instant;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = {
+        // Leitura das alterações a partir de uma posição (GET /changes?since=N e o stream).
+        // As alterações ainda sem posição (sequence nula) também são encontradas por ele.
+        @Index(name = "idx_wine_change_sequence", columnList = "sequence", unique = true)
+})
+/** Uma linha da tabela outbox de alterações do catálogo, gravada na mesma transação da escrita do vinho,
+ com o estado antes e depois em JSON. A linha nasce sem sequence: a posição é atribuída depois do commit
+ pelo WineChangeFeed, na ordem em que as alterações se tornam visíveis. O id vem de uma sequência em blocos
+ e não segue a ordem de commit, por isso não serve como posição.
+ */
+public class WineChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wine_change_sequence")
+    @SequenceGenerator(name = "wine_change_sequence", sequenceName = "wine_change_sequence", allocationSize = 50)
+    private Long id;
+
+    private Long sequence;
+
+    @Column(nullable = false)
+    private Long wineId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WineOperation operation;
+
+    @Column(length = 2000)
+    private String beforeJson;
+
+    @Column(length = 2000)
+    private String afterJson;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+}
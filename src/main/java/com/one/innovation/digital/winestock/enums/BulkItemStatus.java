@@ -0,0 +1,15 @@
+package com.one.innovation.digital.winestock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum BulkItemStatus {
+
+    CREATED("Wine created"),
+    UPDATED("Wine already registered with this name and was updated"),
+    DUPLICATED("Wine name repeated in the same request and ignored");
+
+    private final String description;
+}
@@ -0,0 +1,14 @@
+package com.one.innovation.digital.winestock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockAlertType {
+
+    LOW_STOCK("Stock reached the low stock threshold"),
+    RESTOCKED("Stock went back above the low stock threshold");
+
+    private final String description;
+}
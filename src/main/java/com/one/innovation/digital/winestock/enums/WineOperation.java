@@ -0,0 +1,17 @@
+package com.one.innovation.digital.winestock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum WineOperation {
+
+    CREATE("Wine created"),
+    UPDATE("Wine updated"),
+    INCREMENT("Wine stock incremented"),
+    DECREMENT("Wine stock decremented"),
+    DELETE("Wine deleted");
+
+    private final String description;
+}
@@ -0,0 +1,80 @@
+package com.one.innovation.digital.winestock.event;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/** Última version de cada vinho excluído, usada pelos índices em memória para ignorar um evento atrasado que
+ traria o vinho de volta. Os eventos fora de ordem chegam com milissegundos de diferença, então cada registro só
+ precisa durar um pouco mais que isso: ele sai após RETENTION, ou antes, se houver mais de MAX_SIZE exclusões
+ mais recentes. Não é thread-safe: cada índice o acessa com o seu próprio lock de escrita.
+ */
+public final class RemovedWineVersions {
+
+    /** Folga ampla também para a carga inicial dos índices, que pode reindexar um vinho excluído durante a leitura. */
+    private static final Duration RETENTION = Duration.ofMinutes(10);
+
+    private static final int MAX_SIZE = 100_000;
+
+    private final long retentionNanos;
+
+    private final int maxSize;
+
+    private final LongSupplier nanoClock;
+
+    /** Em ordem de exclusão: os mais antigos, que expiram primeiro, ficam no início. */
+    private final Map<Long, Removal> removals = new LinkedHashMap<>();
+
+    public RemovedWineVersions() {
+        this(RETENTION, MAX_SIZE, System::nanoTime);
+    }
+
+    RemovedWineVersions(Duration retention, int maxSize, LongSupplier nanoClock) {
+        this.retentionNanos = retention.toNanos();
+        this.maxSize = maxSize;
+        this.nanoClock = nanoClock;
+    }
+
+    public void add(long id, long version) {
+        long now = nanoClock.getAsLong();
+        Removal previous = removals.remove(id);
+        removals.put(id, new Removal(previous == null ? version : Math.max(version, previous.version), now));
+        expire(now);
+    }
+
+    /** Nulo quando o vinho não foi excluído, ou foi há tempo suficiente para que nenhum evento dele esteja atrasado. */
+    public Long get(long id) {
+        expire(nanoClock.getAsLong());
+        Removal removal = removals.get(id);
+        return removal == null ? null : removal.version;
+    }
+
+    public int size() {
+        return removals.size();
+    }
+
+    private void expire(long now) {
+        Iterator<Removal> oldestFirst = removals.values().iterator();
+        while (oldestFirst.hasNext()) {
+            Removal oldest = oldestFirst.next();
+            if (removals.size() <= maxSize && now - oldest.removedAt < retentionNanos) {
+                return;
+            }
+            oldestFirst.remove();
+        }
+    }
+
+    private static final class Removal {
+
+        private final long version;
+
+        private final long removedAt;
+
+        private Removal(long version, long removedAt) {
+            this.version = version;
+            this.removedAt = removedAt;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.one.innovation.digital.winestock.event;
+
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class WineChangedEvent {
+    /**
+     * Publicado pelo WineService a cada escrita, com o estado do vinho antes e depois da operação.
+     * O before é nulo na criação e o after é nulo na exclusão. Quem precisa reagir às escritas
+     * (cache, índices, alertas) escuta este evento, sem que o serviço precise conhecê-los.
+     */
+
+    private final WineOperation operation;
+
+    private final WineDTO before;
+
+    private final WineDTO after;
+
+    /** Verdadeiro quando quem publicou já gravou o ledger e a outbox na própria transação (variante reativa,
+     que escreve pelo R2DBC): os gravadores JDBC ignoram o evento, e os demais ouvintes o tratam normalmente.
+     */
+    private final boolean changeLogged;
+
+    public WineChangedEvent(WineOperation operation, WineDTO before, WineDTO after) {
+        this(operation, before, after, false);
+    }
+
+    public WineChangedEvent(WineOperation operation, WineDTO before, WineDTO after, boolean changeLogged) {
+        this.operation = operation;
+        this.before = before;
+        this.after = after;
+        this.changeLogged = changeLogged;
+    }
+
+    public Long getWineId() {
+        return after != null ? after.getId() : before.getId();
+    }
+}
@@ -0,0 +1,12 @@
+package com.one.innovation.digital.winestock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSortException extends Exception {
+
+    public InvalidSortException(String property) {
+        super(String.format("Wines cannot be sorted by %s. Use one of id, name, brand, type, quantity or max.", property));
+    }
+}
@@ -0,0 +1,13 @@
+package com.one.innovation.digital.winestock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class WineChangesExpiredException extends Exception {
+
+    public WineChangesExpiredException(long since, long oldestSequence) {
+        super(String.format("Changes after sequence %s are no longer retained; the oldest one is %s. Read the full catalog again.",
+                since, oldestSequence));
+    }
+}
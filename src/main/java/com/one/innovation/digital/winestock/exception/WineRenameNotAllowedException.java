@@ -0,0 +1,12 @@
+package com.one.innovation.digital.winestock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class WineRenameNotAllowedException extends Exception {
+
+    public WineRenameNotAllowedException(Long id, String name) {
+        super(String.format("Wine with id %s cannot be renamed to %s: the name selects the shard where it is stored.", id, name));
+    }
+}
@@ -0,0 +1,12 @@
+package com.one.innovation.digital.winestock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class WineStockExceededException extends Exception {
+
+    public WineStockExceededException(Long id, int quantity) {
+        super(String.format("Wine with id %s cannot have its stock changed by %s: quantity must stay between 0 and max.", id, quantity));
+    }
+}
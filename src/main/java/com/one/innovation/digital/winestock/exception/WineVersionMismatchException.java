@@ -0,0 +1,12 @@
+package com.one.innovation.digital.winestock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class WineVersionMismatchException extends Exception {
+
+    public WineVersionMismatchException(Long id, Object expectedVersion) {
+        super(String.format("Wine with id %s was changed and no longer matches version %s.", id, expectedVersion));
+    }
+}
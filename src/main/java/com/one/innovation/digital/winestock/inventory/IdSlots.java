@@ -0,0 +1,106 @@
+package com.one.innovation.digital.winestock.inventory;
+
+import java.util.Arrays;
+
+/** Mapa id -> posição nos vetores do InventoryIndex, com chaves e valores em vetores primitivos
+ (endereçamento aberto, sondagem linear), sem um Long e um Integer por vinho como em um HashMap.
+ A remoção desloca as entradas seguintes para trás, em vez de deixar marcas de removido pelo caminho.
+ Não é thread-safe: o acesso é protegido pelo lock do InventoryIndex.
+ */
+final class IdSlots {
+
+    static final int ABSENT = -1;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int mask;
+
+    private int size;
+
+    IdSlots(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long id) {
+        for (int i = ideal(id); ; i = (i + 1) & mask) {
+            if (keys[i] == id) {
+                return values[i];
+            }
+            if (keys[i] == EMPTY) {
+                return ABSENT;
+            }
+        }
+    }
+
+    void put(long id, int slot) {
+        int i = ideal(id);
+        while (keys[i] != EMPTY && keys[i] != id) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == EMPTY) {
+            keys[i] = id;
+            size++;
+        }
+        values[i] = slot;
+        /** Mantém pelo menos metade das posições livres, para que as sondagens continuem curtas. */
+        if (size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    void remove(long id) {
+        int i = ideal(id);
+        while (keys[i] != id) {
+            if (keys[i] == EMPTY) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        /** Cada entrada seguinte do mesmo trecho ocupado volta para a posição liberada, a menos que a sua
+         posição ideal esteja entre a liberada e a atual (nesse caso ela já está no melhor lugar possível).
+         */
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = ideal(keys[j]);
+            boolean staysInPlace = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!staysInPlace) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = EMPTY;
+        size--;
+    }
+
+    private int ideal(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
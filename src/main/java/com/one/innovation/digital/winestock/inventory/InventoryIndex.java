@@ -0,0 +1,310 @@
+package com.one.innovation.digital.winestock.inventory;
+
+import com.one.innovation.digital.winestock.dto.InventoryLevelDTO;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.event.RemovedWineVersions;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+/** Índice em memória do estoque, em colunas: a posição i dos vetores ids, quantities, maxes e types
+ descreve o mesmo vinho. As consultas de ocupação e de maiores estoques percorrem esses vetores em um laço
+ simples, sem criar objetos por vinho (nem entidades, nem Integer), e guardam apenas as posições dos
+ melhores resultados em um heap limitado; só os vinhos retornados viram DTOs.
+ Uma exclusão move o último vinho para a posição liberada, para que os vetores continuem sem buracos.
+ É montado na inicialização (InventoryIndexLoader) e atualizado a cada alteração confirmada. As consultas
+ acontecem em paralelo entre si (read lock); as alterações esperam as consultas em andamento (write lock).
+ Os eventos AFTER_COMMIT de um mesmo vinho podem chegar fora de ordem (threads diferentes): cada posição guarda
+ a version do estado indexado, e um evento com version menor ou igual é ignorado. Um vinho excluído deixa a sua
+ última version em removedVersions, para que um evento atrasado não o traga de volta (os ids não são reutilizados);
+ o registro expira depois de alguns minutos, quando nenhum evento do vinho pode mais estar atrasado.
+ */
+public class InventoryIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final byte ALL_TYPES = -1;
+
+    private static final WineType[] WINE_TYPES = WineType.values();
+
+    /** Version de um DTO sem version: sem como ordenar, ele é sempre aplicado, e qualquer estado versionado o substitui. */
+    private static final long UNVERSIONED = -1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IdSlots slots = new IdSlots(INITIAL_CAPACITY);
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    private int[] quantities = new int[INITIAL_CAPACITY];
+
+    private int[] maxes = new int[INITIAL_CAPACITY];
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+
+    private long[] versions = new long[INITIAL_CAPACITY];
+
+    private final RemovedWineVersions removedVersions = new RemovedWineVersions();
+
+    private int size;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWineChanged(WineChangedEvent event) {
+        WineDTO after = event.getAfter();
+        if (after == null) {
+            remove(event.getWineId(), event.getBefore().getVersion());
+        } else {
+            put(after.getId(), after.getType(), after.getQuantity(), after.getMax(), after.getVersion());
+        }
+    }
+
+    /** Ignorado quando o índice já tem um estado igual ou mais novo do vinho, ou quando ele já foi excluído. */
+    public void put(long id, WineType type, int quantity, int max, Long wineVersion) {
+        long version = versionOf(wineVersion);
+        lock.writeLock().lock();
+        try {
+            int slot = slots.get(id);
+            if (slot != IdSlots.ABSENT && isStale(version, versions[slot])) {
+                return;
+            }
+            if (slot == IdSlots.ABSENT) {
+                Long removedVersion = removedVersions.get(id);
+                if (removedVersion != null && isStale(version, removedVersion)) {
+                    return;
+                }
+                if (size == ids.length) {
+                    grow();
+                }
+                slot = size++;
+                ids[slot] = id;
+                slots.put(id, slot);
+            }
+            quantities[slot] = quantity;
+            maxes[slot] = max;
+            types[slot] = (byte) type.ordinal();
+            versions[slot] = version;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** version é a do vinho no momento da exclusão. */
+    public void remove(long id, Long wineVersion) {
+        long version = versionOf(wineVersion);
+        lock.writeLock().lock();
+        try {
+            removedVersions.add(id, version);
+            int slot = slots.get(id);
+            if (slot == IdSlots.ABSENT) {
+                return;
+            }
+            slots.remove(id);
+            int last = --size;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                quantities[slot] = quantities[last];
+                maxes[slot] = maxes[last];
+                types[slot] = types[last];
+                versions[slot] = versions[last];
+                slots.put(ids[slot], slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Vinhos com ocupação abaixo de percent (do tipo informado, ou de todos quando type é nulo), do mais vazio
+     para o mais cheio. Mesmo critério do filtro belowFillPercent da listagem: quantity * 100 < max * percent.
+     */
+    public List<InventoryLevelDTO> belowFill(WineType type, int percent, int limit) {
+        if (limit < 1) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            byte wanted = type == null ? ALL_TYPES : (byte) type.ordinal();
+            /** Ocupação menor primeiro: qa / ma < qb / mb comparado como qa * mb < qb * ma, sem divisão. */
+            SlotHeap heap = new SlotHeap(limit, (a, b) -> {
+                int byFill = Long.compare((long) quantities[a] * maxes[b], (long) quantities[b] * maxes[a]);
+                return byFill != 0 ? byFill : Long.compare(ids[a], ids[b]);
+            });
+            /** Com o heap cheio, só interessa quem estiver mais vazio que o pior guardado (worstQuantity / worstMax). */
+            long worstQuantity = 1;
+            long worstMax = 0;
+            for (int i = 0; i < size; i++) {
+                if ((wanted == ALL_TYPES || types[i] == wanted)
+                        && quantities[i] * 100L < maxes[i] * (long) percent
+                        && quantities[i] * worstMax <= worstQuantity * maxes[i]) {
+                    heap.offer(i);
+                    if (heap.isFull()) {
+                        worstQuantity = quantities[heap.worst()];
+                        worstMax = maxes[heap.worst()];
+                    }
+                }
+            }
+            return toDTOs(heap.drainInOrder());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Vinhos com as maiores quantidades em estoque (do tipo informado, ou de todos quando type é nulo). */
+    public List<InventoryLevelDTO> topByQuantity(WineType type, int limit) {
+        if (limit < 1) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            byte wanted = type == null ? ALL_TYPES : (byte) type.ordinal();
+            SlotHeap heap = new SlotHeap(limit, (a, b) -> {
+                int byQuantity = Integer.compare(quantities[b], quantities[a]);
+                return byQuantity != 0 ? byQuantity : Long.compare(ids[a], ids[b]);
+            });
+            /** Com o heap cheio, só interessa quem tiver ao menos a quantidade do pior guardado. */
+            int worstQuantity = Integer.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                if (quantities[i] >= worstQuantity && (wanted == ALL_TYPES || types[i] == wanted)) {
+                    heap.offer(i);
+                    if (heap.isFull()) {
+                        worstQuantity = quantities[heap.worst()];
+                    }
+                }
+            }
+            return toDTOs(heap.drainInOrder());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<InventoryLevelDTO> toDTOs(int[] resultSlots) {
+        List<InventoryLevelDTO> levels = new ArrayList<>(resultSlots.length);
+        for (int slot : resultSlots) {
+            levels.add(InventoryLevelDTO.builder()
+                    .id(ids[slot])
+                    .type(WINE_TYPES[types[slot]])
+                    .quantity(quantities[slot])
+                    .max(maxes[slot])
+                    .fillRatio(maxes[slot] > 0 ? (double) quantities[slot] / maxes[slot] : 0)
+                    .build());
+        }
+        return levels;
+    }
+
+    private static long versionOf(Long wineVersion) {
+        return wineVersion != null ? wineVersion : UNVERSIONED;
+    }
+
+    private static boolean isStale(long version, long indexedVersion) {
+        return version != UNVERSIONED && version <= indexedVersion;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        maxes = Arrays.copyOf(maxes, capacity);
+        types = Arrays.copyOf(types, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+    }
+
+    /** Ordem do resultado entre duas posições dos vetores: negativo quando a primeira vem antes. */
+    private interface SlotOrder {
+        int compare(int a, int b);
+    }
+
+    /** Guarda as limit melhores posições vistas até agora. A raiz é a pior delas: uma posição nova só entra
+     se vier antes da raiz, que então sai. Cada consulta aloca apenas o vetor de limit posições.
+     */
+    private static final class SlotHeap {
+
+        private final int[] heap;
+
+        private final SlotOrder order;
+
+        private int count;
+
+        private SlotHeap(int limit, SlotOrder order) {
+            this.heap = new int[limit];
+            this.order = order;
+        }
+
+        private void offer(int slot) {
+            if (count < heap.length) {
+                heap[count] = slot;
+                siftUp(count++);
+            } else if (count > 0 && order.compare(slot, heap[0]) < 0) {
+                heap[0] = slot;
+                siftDown(0);
+            }
+        }
+
+        private boolean isFull() {
+            return count == heap.length;
+        }
+
+        private int worst() {
+            return heap[0];
+        }
+
+        /** Retira sempre a pior posição e preenche o resultado de trás para frente. */
+        private int[] drainInOrder() {
+            int[] result = new int[count];
+            for (int i = count - 1; i >= 0; i--) {
+                result[i] = heap[0];
+                heap[0] = heap[--count];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int index) {
+            int slot = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (order.compare(slot, heap[parent]) <= 0) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = slot;
+        }
+
+        private void siftDown(int index) {
+            if (count == 0) {
+                return;
+            }
+            int slot = heap[index];
+            int half = count >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                if (child + 1 < count && order.compare(heap[child + 1], heap[child]) > 0) {
+                    child++;
+                }
+                if (order.compare(heap[child], slot) <= 0) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = slot;
+        }
+    }
+}
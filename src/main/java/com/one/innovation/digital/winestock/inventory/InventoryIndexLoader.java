@@ -0,0 +1,27 @@
+package com.one.innovation.digital.winestock.inventory;
+
+import com.one.innovation.digital.winestock.service.WineService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Monta o InventoryIndex com o catálogo inteiro quando a aplicação inicia, lendo os vinhos em streaming pela exportação. */
+public class InventoryIndexLoader implements SmartInitializingSingleton {
+
+    private final WineService wineService;
+
+    private final InventoryIndex inventoryIndex;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        wineService.exportAll(wineDTO -> inventoryIndex.put(wineDTO.getId(), wineDTO.getType(),
+                wineDTO.getQuantity(), wineDTO.getMax(), wineDTO.getVersion()));
+        log.info("Inventory index built with {} wines in {} ms", inventoryIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
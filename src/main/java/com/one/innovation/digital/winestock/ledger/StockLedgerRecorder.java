@@ -0,0 +1,47 @@
+package com.one.innovation.digital.winestock.ledger;
+
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.entity.StockMovement;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.repository.StockMovementRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+
+@Component
+@ConditionalOnProperty(name = "winestock.sharding.enabled", havingValue = "false", matchIfMissing = true)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Registra no ledger cada alteração de quantidade de um vinho. O registro é feito antes do commit,
+ na mesma transação da escrita: a movimentação e a nova quantidade são confirmadas (ou desfeitas) juntas.
+ Os INSERTs ficam no contexto de persistência e saem em lotes JDBC no flush do commit
+ (hibernate.jdbc.batch_size), o que importa na importação em lote, que gera uma movimentação por vinho.
+ Como a outbox, não existe com os shards ligados: o UPDATE acontece no shard e a movimentação seria
+ gravada no banco principal, fora da transação da escrita.
+ */
+public class StockLedgerRecorder {
+
+    private final StockMovementRepository stockMovementRepository;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    /** A variante reativa grava as movimentações pelo R2DBC, na transação da escrita, e marca o evento. */
+    public void onWineChanged(WineChangedEvent event) {
+        if (event.isChangeLogged()) {
+            return;
+        }
+        int delta = quantityOf(event.getAfter()) - quantityOf(event.getBefore());
+        if (delta == 0) {
+            return;
+        }
+        stockMovementRepository.save(new StockMovement(null, event.getWineId(), delta, event.getOperation(), Instant.now()));
+    }
+
+    /** Antes do cadastro e depois da exclusão, o vinho não existe: a quantidade é zero. */
+    private int quantityOf(WineDTO wineDTO) {
+        return wineDTO == null || wineDTO.getQuantity() == null ? 0 : wineDTO.getQuantity();
+    }
+}
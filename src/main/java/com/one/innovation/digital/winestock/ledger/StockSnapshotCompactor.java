@@ -0,0 +1,78 @@
+package com.one.innovation.digital.winestock.ledger;
+
+import com.one.innovation.digital.winestock.config.LedgerProperties;
+import com.one.innovation.digital.winestock.entity.StockSnapshot;
+import com.one.innovation.digital.winestock.repository.StockMovementRepository;
+import com.one.innovation.digital.winestock.repository.StockMovementRepository.WineDelta;
+import com.one.innovation.digital.winestock.repository.StockSnapshotRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Compacta periodicamente o ledger em snapshots. Cada execução soma as movimentações registradas desde
+ a compactação anterior ao último snapshot de cada vinho alterado e grava um novo snapshot em asOf.
+ Assim, a consulta do estoque em uma data parte do snapshot mais próximo e soma apenas a cauda,
+ cujo tamanho é limitado pelo intervalo de compactação, e não pelo tamanho do ledger.
+ O limite de cada compactação é um instante, e não o id da movimentação: com a sequência em blocos
+ (allocationSize), os ids não seguem a ordem de commit.
+ Pensado para uma única instância da aplicação.
+ */
+public class StockSnapshotCompactor {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final StockMovementRepository stockMovementRepository;
+
+    private final StockSnapshotRepository stockSnapshotRepository;
+
+    private final LedgerProperties ledgerProperties;
+
+    @Scheduled(initialDelayString = "${winestock.ledger.snapshot-interval}",
+            fixedDelayString = "${winestock.ledger.snapshot-interval}")
+    @Transactional
+    public int compact() {
+        return compactUntil(Instant.now().minus(ledgerProperties.getSnapshotGrace()));
+    }
+
+    /** Retorna quantos snapshots foram gravados. Vinhos sem movimentação no período mantêm o snapshot anterior. */
+    @Transactional
+    public int compactUntil(Instant asOf) {
+        Instant from = stockSnapshotRepository.findLatestAsOf().orElse(Instant.EPOCH);
+        if (!asOf.isAfter(from)) {
+            return 0;
+        }
+        List<WineDelta> deltas = stockMovementRepository.sumDeltaByWine(from, asOf);
+        for (int start = 0; start < deltas.size(); start += CHUNK_SIZE) {
+            compactChunk(deltas.subList(start, Math.min(start + CHUNK_SIZE, deltas.size())), asOf);
+        }
+        return deltas.size();
+    }
+
+    private void compactChunk(List<WineDelta> deltas, Instant asOf) {
+        List<Long> wineIds = deltas.stream()
+                .map(WineDelta::getWineId)
+                .collect(Collectors.toList());
+        Map<Long, StockSnapshot> previousSnapshots = stockSnapshotRepository.findLatestByWineIdIn(wineIds)
+                .stream()
+                .collect(Collectors.toMap(StockSnapshot::getWineId, Function.identity()));
+        List<StockSnapshot> snapshots = new ArrayList<>(deltas.size());
+        for (WineDelta delta : deltas) {
+            StockSnapshot previousSnapshot = previousSnapshots.get(delta.getWineId());
+            int previousQuantity = previousSnapshot == null ? 0 : previousSnapshot.getQuantity();
+            snapshots.add(new StockSnapshot(null, delta.getWineId(),
+                    previousQuantity + delta.getDelta().intValue(), asOf));
+        }
+        stockSnapshotRepository.saveAll(snapshots);
+    }
+}
@@ -3,6 +3,8 @@ package com.one.innovation.digital.winestock.mapper;
 import com.one.innovation.digital.winestock.dto.WineDTO;
 import com.one.innovation.digital.winestock.entity.Wine;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
@@ -12,5 +14,18 @@ public interface WineMapper {
 
     Wine toModel(WineDTO wineDTO);
 
+    /** Para cadastros: o id vem da sequência e a versão começa em zero. Um corpo copiado de uma resposta
+     (com id e version preenchidos) faria o save() tratar o vinho como existente e chamar merge.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Wine toNewModel(WineDTO wineDTO);
+
     WineDTO toDTO(Wine wine);
+
+    WineDTO copy(WineDTO wineDTO);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    void updateModel(WineDTO wineDTO, @MappingTarget Wine wine);
 }
\ No newline at end of file
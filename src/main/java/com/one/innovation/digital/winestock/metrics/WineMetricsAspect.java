@@ -0,0 +1,67 @@
+package com.one.innovation.digital.winestock.metrics;
+
+import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Mede o tempo de cada chamada ao WineService e ao WineRepository, separando por método e resultado.
+ Assim é possível ver, por exemplo, quanto de um createWine lento é a verificação por nome e quanto é o INSERT.
+ Os percentis e o histograma são configurados em management.metrics.distribution, no application.properties.
+ */
+public class WineMetricsAspect {
+
+    public static final String SERVICE_TIMER = "winestock.service";
+
+    public static final String REPOSITORY_TIMER = "winestock.repository";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.one.innovation.digital.winestock.service.WineService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_TIMER, joinPoint);
+    }
+
+    @Around("this(com.one.innovation.digital.winestock.repository.WineRepository)")
+    /** O repositório é um proxy gerado pelo Spring Data, por isso o ponto de corte usa o tipo do proxy (this)
+     e não o da implementação, cobrindo também os métodos herdados do JpaRepository (save, findById...).
+     */
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_TIMER, joinPoint);
+    }
+
+    private Object time(String timerName, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable throwable) {
+            outcome = outcomeOf(throwable);
+            throw throwable;
+        } finally {
+            sample.stop(Timer.builder(timerName)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private String outcomeOf(Throwable throwable) {
+        if (throwable instanceof WineNotFoundException) {
+            return "not_found";
+        }
+        if (throwable instanceof WineAlreadyRegisteredException) {
+            return "already_registered";
+        }
+        return "error";
+    }
+}
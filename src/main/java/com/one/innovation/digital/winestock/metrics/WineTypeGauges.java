@@ -0,0 +1,33 @@
+package com.one.innovation.digital.winestock.metrics;
+
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.stats.WineTypeStatistics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Registra um gauge com a quantidade de vinhos cadastrados para cada WineType.
+ O valor é lido no momento da coleta (/actuator/metrics ou /actuator/prometheus), a partir dos
+ totais em memória do WineTypeStatistics, sem consultar o banco.
+ */
+public class WineTypeGauges implements MeterBinder {
+
+    public static final String WINES_GAUGE = "winestock.wines";
+
+    private final WineTypeStatistics wineTypeStatistics;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (WineType type : WineType.values()) {
+            Gauge.builder(WINES_GAUGE, wineTypeStatistics, statistics -> statistics.wines(type))
+                    .description("Number of registered wines of the given type")
+                    .tag("type", type.name())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.one.innovation.digital.winestock.replica;
+
+import java.time.Instant;
+
+/** Instante da última escrita confirmada do cliente da requisição atual, recebido no cookie READ_AFTER_COOKIE.
+ Enquanto nenhuma réplica estiver atualizada até esse instante, as leituras do cliente vão para o principal,
+ e ele sempre enxerga as próprias escritas.
+ */
+public final class ReadYourWrites {
+
+    public static final String READ_AFTER_COOKIE = "winestock-read-after";
+
+    private static final ThreadLocal<Instant> READ_AFTER = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /** Nulo quando o cliente não escreveu recentemente (ou fora de uma requisição). */
+    public static Instant current() {
+        return READ_AFTER.get();
+    }
+
+    static void set(Instant readAfter) {
+        READ_AFTER.set(readAfter);
+    }
+
+    static void clear() {
+        READ_AFTER.remove();
+    }
+}
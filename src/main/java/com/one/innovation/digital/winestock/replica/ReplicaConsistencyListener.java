@@ -0,0 +1,104 @@
+package com.one.innovation.digital.winestock.replica;
+
+import com.one.innovation.digital.winestock.config.CacheConfig;
+import com.one.innovation.digital.winestock.config.ReplicaProperties;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+@Component
+@ConditionalOnProperty(name = "winestock.replica.enabled", havingValue = "true")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Mantém a consistência das leituras vindas das réplicas depois de cada escrita confirmada:
+ - o cliente que escreveu recebe o cookie ReadYourWrites.READ_AFTER_COOKIE com o instante do commit, e suas
+ próximas leituras só vão para réplicas que já passaram desse instante (as demais vão para o principal);
+ - o cache winesByName é limpo de novo quando as réplicas alcançam a escrita. Entre o commit e esse momento,
+ outro cliente pode ter lido o valor antigo de uma réplica e guardado no cache; a segunda remoção o descarta.
+ */
+public class ReplicaConsistencyListener {
+
+    private final ReplicaLagTracker replicaLagTracker;
+
+    private final ReplicaProperties replicaProperties;
+
+    private final CacheManager cacheManager;
+
+    private final Queue<PendingEviction> pendingEvictions = new ConcurrentLinkedQueue<>();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWineChanged(WineChangedEvent event) {
+        Instant committedAt = Instant.now();
+        rememberClientWrite(committedAt);
+        List<String> names = new ArrayList<>(2);
+        addName(names, event.getBefore());
+        addName(names, event.getAfter());
+        pendingEvictions.add(new PendingEviction(committedAt, names));
+    }
+
+    @Scheduled(initialDelayString = "${winestock.replica.heartbeat-interval:PT1S}",
+            fixedDelayString = "${winestock.replica.heartbeat-interval:PT1S}")
+    public void evictCaughtUp() {
+        Instant caughtUpTo = replicaLagTracker.caughtUpTo();
+        Cache cache = cacheManager.getCache(CacheConfig.WINES_BY_NAME_CACHE);
+        PendingEviction pending;
+        while ((pending = pendingEvictions.peek()) != null && pending.committedAt.isBefore(caughtUpTo)) {
+            pendingEvictions.poll();
+            if (cache != null) {
+                pending.names.forEach(cache::evict);
+            }
+        }
+    }
+
+    /** Escritas fora de uma requisição HTTP (write-behind, tarefas agendadas) não têm para quem enviar o cookie.
+     Depois de maxLag o cookie expira: nenhuma réplica tão atrasada recebe leituras.
+     */
+    private void rememberClientWrite(Instant committedAt) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (!(requestAttributes instanceof ServletRequestAttributes)) {
+            return;
+        }
+        HttpServletResponse response = ((ServletRequestAttributes) requestAttributes).getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        Cookie cookie = new Cookie(ReadYourWrites.READ_AFTER_COOKIE, Long.toString(committedAt.toEpochMilli()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, replicaProperties.getMaxLag().getSeconds()));
+        response.addCookie(cookie);
+        /** Leituras seguintes na mesma requisição também precisam enxergar a escrita. */
+        ReadYourWrites.set(committedAt);
+    }
+
+    private void addName(List<String> names, WineDTO wineDTO) {
+        if (wineDTO != null) {
+            names.add(wineDTO.getName());
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class PendingEviction {
+
+        private final Instant committedAt;
+
+        private final List<String> names;
+    }
+}
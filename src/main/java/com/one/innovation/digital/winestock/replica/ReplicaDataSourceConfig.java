@@ -0,0 +1,78 @@
+package com.one.innovation.digital.winestock.replica;
+
+import com.one.innovation.digital.winestock.config.ReplicaProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "winestock.replica.enabled", havingValue = "true")
+/** Com as réplicas ligadas, o DataSource usado pelo JPA passa a ser um roteador entre o banco principal
+ (o pool primary, declarado aqui) e as réplicas. O LazyConnectionDataSourceProxy adia a obtenção da
+ conexão até o primeiro comando SQL, quando a transação já foi iniciada e já se sabe se é somente leitura.
+ */
+public class ReplicaDataSourceConfig {
+
+    /** Com o roteador declarado, o Spring Boot não cria o pool do banco principal. As propriedades
+     spring.datasource.hikari.* são aplicadas a esta configuração, e não a um bean DataSource: o pool principal
+     não pode ser um DataSource do contexto, senão o inicializador de scripts do Spring Boot, que procura o
+     DataSource principal (o roteador) ao receber qualquer DataSource, entraria em ciclo com o próprio roteador.
+     */
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariConfig primaryPoolConfig(DataSourceProperties dataSourceProperties) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("primary");
+        config.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        config.setJdbcUrl(dataSourceProperties.determineUrl());
+        config.setUsername(dataSourceProperties.determineUsername());
+        config.setPassword(dataSourceProperties.determinePassword());
+        return config;
+    }
+
+    @Bean
+    public ReplicaDataSources replicaDataSources(HikariConfig primaryPoolConfig, ReplicaProperties replicaProperties) {
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.getUrls().size(); i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setJdbcUrl(replicaProperties.getUrls().get(i));
+            dataSource.setUsername(replicaProperties.getUsername());
+            dataSource.setPassword(replicaProperties.getPassword());
+            dataSource.setMaximumPoolSize(replicaProperties.getPoolSize());
+            dataSource.setReadOnly(true);
+            /** Uma réplica fora do ar não impede a aplicação de subir; ela só não recebe leituras. */
+            dataSource.setInitializationFailTimeout(-1);
+            dataSources.add(dataSource);
+        }
+        return new ReplicaDataSources(new HikariDataSource(primaryPoolConfig), dataSources);
+    }
+
+    @Bean
+    @Primary
+    public DataSource routingDataSource(ReplicaDataSources replicaDataSources, ReplicaLagTracker replicaLagTracker) {
+        HikariDataSource primaryDataSource = replicaDataSources.primary();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            targets.put(i, replicaDataSources.all().get(i));
+        }
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(replicaLagTracker);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,38 @@
+package com.one.innovation.digital.winestock.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.Collections;
+import java.util.List;
+
+/** Pools de conexões do banco principal e das réplicas de leitura, estas na ordem de winestock.replica.urls. */
+public class ReplicaDataSources implements DisposableBean {
+
+    private final HikariDataSource primary;
+
+    private final List<HikariDataSource> dataSources;
+
+    public ReplicaDataSources(HikariDataSource primary, List<HikariDataSource> dataSources) {
+        this.primary = primary;
+        this.dataSources = Collections.unmodifiableList(dataSources);
+    }
+
+    public HikariDataSource primary() {
+        return primary;
+    }
+
+    public List<HikariDataSource> all() {
+        return dataSources;
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    @Override
+    public void destroy() {
+        dataSources.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
@@ -0,0 +1,167 @@
+package com.one.innovation.digital.winestock.replica;
+
+import com.one.innovation.digital.winestock.config.ReplicaProperties;
+import com.one.innovation.digital.winestock.entity.ReplicaHeartbeat;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "winestock.replica.enabled", havingValue = "true")
+/** Mede o atraso das réplicas. A cada heartbeatInterval, grava o instante atual na linha de ReplicaHeartbeat
+ do banco principal e lê a mesma linha em cada réplica: o valor lido é o instante até o qual a réplica está
+ atualizada (appliedUpTo), pois a replicação aplica os commits na ordem em que aconteceram.
+ Usa JDBC direto nos pools, e não o JPA, porque o próprio DataSource do JPA depende deste componente para rotear.
+ */
+public class ReplicaLagTracker implements MeterBinder {
+
+    public static final String LAG_GAUGE = "winestock.replica.lag";
+
+    private static final String UPDATE_HEARTBEAT = "update replica_heartbeat set written_at = ? where id = ?";
+
+    private static final String INSERT_HEARTBEAT = "insert into replica_heartbeat (id, written_at) values (?, ?)";
+
+    private static final String SELECT_HEARTBEAT = "select written_at from replica_heartbeat where id = ?";
+
+    private final ReplicaProperties replicaProperties;
+
+    private final JdbcTemplate primary;
+
+    private final TransactionTemplate primaryTransaction;
+
+    private final List<JdbcTemplate> replicas;
+
+    /** Nulo enquanto a réplica não foi lida com sucesso; ela não recebe leituras nesse estado. */
+    private final AtomicReferenceArray<Instant> appliedUpTo;
+
+    private final AtomicIntegerArray unavailable;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaLagTracker(ReplicaProperties replicaProperties,
+                             ReplicaDataSources replicaDataSources) {
+        this.replicaProperties = replicaProperties;
+        HikariDataSource primaryDataSource = replicaDataSources.primary();
+        this.primary = new JdbcTemplate(primaryDataSource);
+        /** O pool principal pode entregar conexões com auto-commit desligado (perfil prod). */
+        this.primaryTransaction = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.replicas = replicaDataSources.all().stream()
+                .map(JdbcTemplate::new)
+                .collect(Collectors.toList());
+        this.appliedUpTo = new AtomicReferenceArray<>(replicas.size());
+        this.unavailable = new AtomicIntegerArray(replicas.size());
+    }
+
+    @Scheduled(initialDelayString = "${winestock.replica.heartbeat-interval:PT1S}",
+            fixedDelayString = "${winestock.replica.heartbeat-interval:PT1S}")
+    public void heartbeat() {
+        pollReplicas();
+        writeHeartbeat();
+    }
+
+    public void writeHeartbeat() {
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            primaryTransaction.executeWithoutResult(status -> {
+                if (primary.update(UPDATE_HEARTBEAT, now, ReplicaHeartbeat.ID) == 0) {
+                    primary.update(INSERT_HEARTBEAT, ReplicaHeartbeat.ID, now);
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replica heartbeat: {}", e.getMessage());
+        }
+    }
+
+    public void pollReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try {
+                List<Timestamp> writtenAt = replicas.get(i).queryForList(SELECT_HEARTBEAT, Timestamp.class, ReplicaHeartbeat.ID);
+                appliedUpTo.set(i, writtenAt.isEmpty() ? null : writtenAt.get(0).toInstant());
+                if (unavailable.compareAndSet(i, 1, 0)) {
+                    log.info("Replica {} is available for reads again", i);
+                }
+            } catch (DataAccessException e) {
+                appliedUpTo.set(i, null);
+                /** Registrado só na mudança de estado, e não a cada heartbeat. */
+                if (unavailable.compareAndSet(i, 0, 1)) {
+                    log.warn("Replica {} is unavailable for reads: {}", i, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /** Índice de uma réplica atualizada até readAfter (quando informado) e com atraso de no máximo maxLag,
+     alternando entre as elegíveis; -1 quando nenhuma serve e a leitura deve ir para o principal.
+     */
+    public int selectReplica(Instant readAfter) {
+        Instant required = Instant.now().minus(replicaProperties.getMaxLag());
+        if (readAfter != null && readAfter.isAfter(required)) {
+            required = readAfter;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int offset = 0; offset < size; offset++) {
+            int replica = (start + offset) % size;
+            Instant replicaUpTo = appliedUpTo.get(replica);
+            if (replicaUpTo != null && replicaUpTo.isAfter(required)) {
+                return replica;
+            }
+        }
+        return -1;
+    }
+
+    /** Nenhuma réplica entrega, daqui em diante, um estado anterior a este instante: ou todas já passaram
+     dele, ou ele é mais antigo que maxLag, e uma réplica tão atrasada não recebe leituras.
+     */
+    public Instant caughtUpTo() {
+        Instant oldestServable = Instant.now().minus(replicaProperties.getMaxLag());
+        Instant slowest = null;
+        for (int i = 0; i < replicas.size(); i++) {
+            Instant replicaUpTo = appliedUpTo.get(i);
+            if (replicaUpTo == null) {
+                return oldestServable;
+            }
+            if (slowest == null || replicaUpTo.isBefore(slowest)) {
+                slowest = replicaUpTo;
+            }
+        }
+        return slowest != null && slowest.isAfter(oldestServable) ? slowest : oldestServable;
+    }
+
+    /** Atraso em segundos, ou NaN enquanto a réplica não responde. */
+    public double lagSeconds(int replica) {
+        Instant replicaUpTo = appliedUpTo.get(replica);
+        return replicaUpTo == null ? Double.NaN : Duration.between(replicaUpTo, Instant.now()).toMillis() / 1000.0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (int i = 0; i < replicas.size(); i++) {
+            int replica = i;
+            Gauge.builder(LAG_GAUGE, this, tracker -> tracker.lagSeconds(replica))
+                    .description("Seconds since the last primary heartbeat seen on the replica")
+                    .tag("replica", Integer.toString(replica))
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.one.innovation.digital.winestock.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Escolhe, a cada nova conexão, entre o banco principal e as réplicas. Transações somente leitura
+ (@Transactional(readOnly = true)) vão para uma réplica atualizada o suficiente para a requisição atual
+ (ver ReadYourWrites); todo o resto, e qualquer leitura sem réplica disponível, vai para o principal.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaLagTracker replicaLagTracker;
+
+    public ReplicaRoutingDataSource(ReplicaLagTracker replicaLagTracker) {
+        this.replicaLagTracker = replicaLagTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int replica = replicaLagTracker.selectReplica(ReadYourWrites.current());
+        return replica < 0 ? PRIMARY : replica;
+    }
+}
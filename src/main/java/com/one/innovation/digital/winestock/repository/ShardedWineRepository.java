@@ -0,0 +1,242 @@
+package com.one.innovation.digital.winestock.repository;
+
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.dto.WineTypeStatsDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.sharding.ShardRouter;
+import com.one.innovation.digital.winestock.sharding.ShardedDataSources;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Repository
+@ConditionalOnProperty(name = "winestock.sharding.enabled", havingValue = "true")
+/** Acesso por JDBC à tabela wine de cada shard. As operações por nome ou por id vão a um único shard,
+ escolhido pelo ShardRouter; as que leem o catálogo inteiro (listagem, exportação e totais por tipo)
+ consultam todos os shards ao mesmo tempo e juntam os resultados.
+ */
+public class ShardedWineRepository implements InitializingBean, DisposableBean {
+
+    private static final int EXPORT_BUFFER_SIZE = 1000;
+
+    private static final long EXPORT_POLL_MILLIS = 50;
+
+    private static final String COLUMNS = "id, name, brand, max, quantity, type, low_stock_threshold, version";
+
+    private static final RowMapper<WineDTO> WINE_ROW_MAPPER = (rs, rowNum) -> new WineDTO(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("brand"),
+            rs.getInt("max"),
+            rs.getInt("quantity"),
+            WineType.valueOf(rs.getString("type")),
+            (Integer) rs.getObject("low_stock_threshold"),
+            rs.getLong("version"));
+
+    private final ShardRouter shardRouter;
+
+    private final List<JdbcTemplate> shards;
+
+    /** Uma thread por shard em cada consulta espalhada; o limite real de concorrência é o pool de cada shard. */
+    private final ExecutorService fanOutExecutor = Executors.newCachedThreadPool(new CustomizableThreadFactory("shard-fan-out-"));
+
+    public ShardedWineRepository(ShardedDataSources shardedDataSources, ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+        this.shards = shardedDataSources.all().stream()
+                .map(dataSource -> {
+                    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+                    jdbcTemplate.setFetchSize(500);
+                    return jdbcTemplate;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /** O JPA só gera o schema do banco principal; nos shards a tabela e a sequence são criadas aqui,
+     com as mesmas colunas, índices e restrição unique do nome da entidade Wine. Como o nome decide o shard,
+     a restrição de cada shard já garante nomes únicos no catálogo inteiro.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        for (JdbcTemplate shard : shards) {
+            shard.execute("create table if not exists wine (id bigint not null primary key, "
+                    + "name varchar(255) not null, brand varchar(255) not null, max integer not null, "
+                    + "quantity integer not null, type varchar(255) not null, low_stock_threshold integer, "
+                    + "version bigint, constraint uk_wine_name unique (name))");
+            shard.execute("create index if not exists idx_wine_type_quantity on wine (type, quantity)");
+            shard.execute("create index if not exists idx_wine_brand on wine (brand)");
+            shard.execute("create sequence if not exists wine_sequence start with 1 increment by 1");
+        }
+    }
+
+    /** Grava o vinho no shard do seu nome, com o id global já calculado. Um nome repetido é recusado
+     pela restrição unique (DuplicateKeyException, uma DataIntegrityViolationException).
+     */
+    public WineDTO insert(WineDTO wineDTO) {
+        int shard = shardRouter.shardOf(wineDTO.getName());
+        JdbcTemplate jdbcTemplate = shards.get(shard);
+        Long localId = jdbcTemplate.queryForObject("select next value for wine_sequence", Long.class);
+        long id = shardRouter.globalId(shard, localId);
+        jdbcTemplate.update("insert into wine (" + COLUMNS + ") values (?, ?, ?, ?, ?, ?, ?, 0)",
+                id, wineDTO.getName(), wineDTO.getBrand(), wineDTO.getMax(), wineDTO.getQuantity(),
+                wineDTO.getType().name(), wineDTO.getLowStockThreshold());
+        return new WineDTO(id, wineDTO.getName(), wineDTO.getBrand(), wineDTO.getMax(), wineDTO.getQuantity(),
+                wineDTO.getType(), wineDTO.getLowStockThreshold(), 0L);
+    }
+
+    public Optional<WineDTO> findByName(String name) {
+        return shards.get(shardRouter.shardOf(name))
+                .query("select " + COLUMNS + " from wine where name = ?", WINE_ROW_MAPPER, name)
+                .stream()
+                .findFirst();
+    }
+
+    public Optional<WineDTO> findById(long id) {
+        return shardFor(id)
+                .query("select " + COLUMNS + " from wine where id = ?", WINE_ROW_MAPPER, id)
+                .stream()
+                .findFirst();
+    }
+
+    /** Mesmo lock otimista do @Version: retorna 0 quando a versão gravada não é mais a informada. */
+    public int update(WineDTO wineDTO) {
+        return shardFor(wineDTO.getId()).update("update wine set brand = ?, max = ?, quantity = ?, type = ?, "
+                        + "low_stock_threshold = ?, version = version + 1 where id = ? and version = ?",
+                wineDTO.getBrand(), wineDTO.getMax(), wineDTO.getQuantity(), wineDTO.getType().name(),
+                wineDTO.getLowStockThreshold(), wineDTO.getId(), wineDTO.getVersion());
+    }
+
+    /** Mesmo UPDATE condicional do WineRepository: retorna 0 quando o vinho não existe ou o limite seria ultrapassado. */
+    public int adjustQuantity(long id, int delta) {
+        return shardFor(id).update("update wine set quantity = quantity + ?, version = version + 1 "
+                + "where id = ? and quantity + ? between 0 and max", delta, id, delta);
+    }
+
+    public int deleteById(long id) {
+        return shardFor(id).update("delete from wine where id = ?", id);
+    }
+
+    /** Cada shard devolve os seus vinhos já ordenados pelo id; a ordenação da lista concatenada
+     (TimSort) reconhece essas sequências e apenas as intercala.
+     */
+    public List<WineDTO> findAll() {
+        List<WineDTO> wines = new ArrayList<>();
+        onAllShards(shard -> shard.query("select " + COLUMNS + " from wine order by id", WINE_ROW_MAPPER))
+                .forEach(wines::addAll);
+        wines.sort(Comparator.comparing(WineDTO::getId));
+        return wines;
+    }
+
+    /** Os shards são lidos em paralelo e as linhas passam por uma fila limitada até o consumidor, que roda
+     na thread que chamou. Quando o consumidor fica para trás (cliente lento), a fila enche e as leituras
+     esperam, sem acumular o catálogo em memória. Os vinhos chegam na ordem em que os shards os entregam.
+     */
+    public void streamAll(Consumer<WineDTO> consumer) {
+        BlockingQueue<WineDTO> queue = new ArrayBlockingQueue<>(EXPORT_BUFFER_SIZE);
+        List<Future<?>> readers = shards.stream()
+                .map(shard -> fanOutExecutor.submit(() -> shard.query("select " + COLUMNS + " from wine",
+                        (RowCallbackHandler) rs -> enqueue(queue, WINE_ROW_MAPPER.mapRow(rs, 0)))))
+                .collect(Collectors.toList());
+        try {
+            while (true) {
+                /** Verificado antes do poll: se todos já terminaram e a fila está vazia, não há mais linhas. */
+                boolean finished = readers.stream().allMatch(Future::isDone);
+                WineDTO wineDTO = queue.poll(EXPORT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (wineDTO != null) {
+                    consumer.accept(wineDTO);
+                } else if (finished) {
+                    break;
+                }
+            }
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the shards.", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } finally {
+            /** Se o consumidor falhar (cliente desconectado), as leituras ainda em andamento são interrompidas. */
+            readers.forEach(reader -> reader.cancel(true));
+        }
+    }
+
+    /** Soma, em paralelo, os totais de cada shard agrupados por tipo. Todos os tipos aparecem, mesmo sem vinhos. */
+    public List<WineTypeStatsDTO> sumByType() {
+        long[][] totals = new long[WineType.values().length][3];
+        List<List<WineTypeStatsDTO>> perShard = onAllShards(shard -> shard.query(
+                "select type, count(*), coalesce(sum(quantity), 0), coalesce(sum(max), 0) from wine group by type",
+                (rs, rowNum) -> WineTypeStatsDTO.of(WineType.valueOf(rs.getString(1)), rs.getLong(2), rs.getLong(3), rs.getLong(4))));
+        for (List<WineTypeStatsDTO> shardTotals : perShard) {
+            for (WineTypeStatsDTO typeTotals : shardTotals) {
+                long[] merged = totals[typeTotals.getType().ordinal()];
+                merged[0] += typeTotals.getWines();
+                merged[1] += typeTotals.getBottles();
+                merged[2] += typeTotals.getCapacity();
+            }
+        }
+        return Arrays.stream(WineType.values())
+                .map(type -> WineTypeStatsDTO.of(type, totals[type.ordinal()][0], totals[type.ordinal()][1], totals[type.ordinal()][2]))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void destroy() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    private JdbcTemplate shardFor(long id) {
+        return shards.get(shardRouter.shardOf(id));
+    }
+
+    private <T> List<T> onAllShards(Function<JdbcTemplate, T> query) {
+        List<CompletableFuture<T>> results = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), fanOutExecutor))
+                .collect(Collectors.toList());
+        try {
+            return results.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static void enqueue(BlockingQueue<WineDTO> queue, WineDTO wineDTO) {
+        try {
+            queue.put(wineDTO);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Shard read was cancelled.", e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        return cause instanceof RuntimeException
+                ? (RuntimeException) cause
+                : new IllegalStateException("Shard query failed.", cause);
+    }
+}
@@ -0,0 +1,33 @@
+package com.one.innovation.digital.winestock.repository;
+
+import com.one.innovation.digital.winestock.entity.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    /** Soma das variações de um vinho no intervalo (from, to], resolvida pelo índice (wine_id, occurred_at). */
+    @Query("select coalesce(sum(m.delta), 0) from StockMovement m " +
+            "where m.wineId = :wineId and m.occurredAt > :from and m.occurredAt <= :to")
+    long sumDelta(@Param("wineId") Long wineId, @Param("from") Instant from, @Param("to") Instant to);
+
+    /** Soma das variações de cada vinho alterado no intervalo (from, to], usada na compactação. */
+    @Query("select m.wineId as wineId, sum(m.delta) as delta from StockMovement m " +
+            "where m.occurredAt > :from and m.occurredAt <= :to group by m.wineId")
+    List<WineDelta> sumDeltaByWine(@Param("from") Instant from, @Param("to") Instant to);
+
+    boolean existsByWineIdAndOccurredAtLessThanEqual(Long wineId, Instant at);
+
+    interface WineDelta {
+
+        Long getWineId();
+
+        Long getDelta();
+    }
+}
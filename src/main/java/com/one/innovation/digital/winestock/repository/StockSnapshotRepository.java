@@ -0,0 +1,26 @@
+package com.one.innovation.digital.winestock.repository;
+
+import com.one.innovation.digital.winestock.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    Optional<StockSnapshot> findFirstByWineIdAndAsOfLessThanEqualOrderByAsOfDesc(Long wineId, Instant at);
+
+    /** Instante da última compactação. Todas as movimentações até ele já estão nos snapshots. */
+    @Query("select max(s.asOf) from StockSnapshot s")
+    Optional<Instant> findLatestAsOf();
+
+    @Query("select s from StockSnapshot s where s.wineId in :wineIds " +
+            "and s.asOf = (select max(l.asOf) from StockSnapshot l where l.wineId = s.wineId)")
+    List<StockSnapshot> findLatestByWineIdIn(@Param("wineIds") Collection<Long> wineIds);
+}
@@ -0,0 +1,35 @@
+package com.one.innovation.digital.winestock.repository;
+
+import com.one.innovation.digital.winestock.entity.WineChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WineChangeRepository extends JpaRepository<WineChange, Long> {
+
+    /** Alterações posteriores à posição informada, pelo índice único de sequence. */
+    List<WineChange> findBySequenceGreaterThanOrderBySequenceAsc(Long sequence, Pageable pageable);
+
+    /** Alterações já confirmadas que ainda aguardam uma posição. */
+    List<WineChange> findBySequenceIsNullOrderByIdAsc(Pageable pageable);
+
+    @Query("select max(c.sequence) from WineChange c")
+    Optional<Long> findMaxSequence();
+
+    @Query("select min(c.sequence) from WineChange c")
+    Optional<Long> findMinSequence();
+
+    /** A última alteração é sempre mantida: é dela que o sequenciador continua a numeração. */
+    @Modifying
+    @Query("delete from WineChange c where c.occurredAt < :before " +
+            "and c.sequence < (select max(l.sequence) from WineChange l)")
+    int deleteSequencedBefore(@Param("before") Instant before);
+}
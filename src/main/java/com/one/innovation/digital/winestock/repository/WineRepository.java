@@ -1,14 +1,28 @@
 package com.one.innovation.digital.winestock.repository;
 
 import com.one.innovation.digital.winestock.entity.Wine;
+import com.one.innovation.digital.winestock.enums.WineType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface WineRepository extends JpaRepository<Wine, Long> {
+public interface WineRepository extends JpaRepository<Wine, Long>, JpaSpecificationExecutor<Wine> {
     /**
      * Essa classe é um DAO, onde é implementado o padrão de arquitetura DTO, que terá a responsabilidade
      * de conversar com o banco de dados. Onde terá métodos comuns para inserção, exclusão, atualização e listagem
@@ -16,4 +30,48 @@ public interface WineRepository extends JpaRepository<Wine, Long> {
      */
 
     Optional<Wine> findByName(String name);
-}
\ No newline at end of file
+
+    List<Wine> findByNameIn(Collection<String> names);
+
+    /** Totais de cada tipo em uma única consulta agrupada, sem carregar as entidades.
+     Usado para montar as estatísticas em memória (WineTypeStatistics) na inicialização.
+     */
+    @Query("select w.type as type, count(w) as wines, sum(w.quantity) as bottles, sum(w.max) as capacity " +
+            "from Wine w group by w.type")
+    List<WineTypeTotals> sumByType();
+
+    /** Paginação por chave (keyset): busca a partir do último id visto, usando o índice da chave
+     primária, sem OFFSET. O Pageable é usado apenas para limitar a quantidade de linhas.
+     */
+    List<Wine> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /** Percorre a tabela inteira através de um cursor JDBC, trazendo as linhas em lotes do tamanho
+     do fetch size. Deve ser consumido dentro de uma transação somente leitura e fechado ao final.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select w from Wine w order by w.id")
+    Stream<Wine> streamAll();
+
+    /** Altera o estoque em um único UPDATE condicional, sem ler a entidade antes. O próprio banco
+     garante que a quantidade fique entre 0 e o máximo, então escritas concorrentes não se perdem.
+     Retorna 0 quando o vinho não existe ou quando o limite seria ultrapassado.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Wine w set w.quantity = w.quantity + :delta, w.version = w.version + 1 " +
+            "where w.id = :id and w.quantity + :delta between 0 and w.max")
+    int adjustQuantity(@Param("id") Long id, @Param("delta") int delta);
+
+    interface WineTypeTotals {
+
+        WineType getType();
+
+        Long getWines();
+
+        Long getBottles();
+
+        Long getCapacity();
+    }
+}
@@ -0,0 +1,60 @@
+package com.one.innovation.digital.winestock.repository;
+
+import com.one.innovation.digital.winestock.dto.WineFilterDTO;
+import com.one.innovation.digital.winestock.entity.Wine;
+import com.one.innovation.digital.winestock.enums.WineType;
+import org.springframework.data.jpa.domain.Specification;
+
+/** Critérios de busca de vinhos, usados pelo JpaSpecificationExecutor. Cada método retorna nulo
+ quando o filtro não foi informado, e o Specification ignora critérios nulos ao combiná-los.
+ */
+public final class WineSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private WineSpecifications() {
+    }
+
+    public static Specification<Wine> matching(WineFilterDTO filter) {
+        return Specification.where(hasType(filter.getType()))
+                .and(brandStartsWith(filter.getBrand()))
+                .and(quantityAtLeast(filter.getMinQuantity()))
+                .and(quantityAtMost(filter.getMaxQuantity()))
+                .and(fillBelowPercent(filter.getBelowFillPercent()));
+    }
+
+    public static Specification<Wine> hasType(WineType type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    /** Busca por prefixo (LIKE 'valor%'), que ainda consegue usar o índice da coluna brand. */
+    public static Specification<Wine> brandStartsWith(String brand) {
+        if (brand == null || brand.isEmpty()) {
+            return null;
+        }
+        String pattern = brand.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("brand"), pattern, LIKE_ESCAPE);
+    }
+
+    public static Specification<Wine> quantityAtLeast(Integer minQuantity) {
+        return minQuantity == null ? null
+                : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("quantity"), minQuantity);
+    }
+
+    public static Specification<Wine> quantityAtMost(Integer maxQuantity) {
+        return maxQuantity == null ? null
+                : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("quantity"), maxQuantity);
+    }
+
+    /** quantity / max < percent / 100, reescrito como quantity * 100 < max * percent
+     para evitar divisão (e divisão por zero) no banco.
+     */
+    public static Specification<Wine> fillBelowPercent(Integer percent) {
+        return percent == null ? null
+                : (root, query, cb) -> cb.lessThan(
+                        cb.prod(root.<Integer>get("quantity"), 100),
+                        cb.prod(root.<Integer>get("max"), percent));
+    }
+}
@@ -0,0 +1,230 @@
+package com.one.innovation.digital.winestock.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/** Lista de ids dos vinhos que contêm uma palavra, ordenada pelo tamanho do texto do vinho e pelo id.
+ Os mais curtos, que são os mais parecidos com a consulta, vêm primeiro, e como todas as listas seguem a
+ mesma ordem, a interseção de duas listas avança por saltos (seek) em vez de percorrê-las inteiras.
+ Guarda os ids em vetores primitivos, sem um objeto Long por entrada, junto com o slot de cada vinho (um número
+ denso atribuído pelo WineSearchIndex). Listas de palavras frequentes, com pelo menos 1/64 dos slots, mantêm também
+ um BitSet dos slots (members): a pertinência de um vinho é testada em tempo constante, sem percorrer a lista.
+ O BitSet ocupa no máximo 8 bytes por entrada, menos que os 16 bytes do id, do slot e do tamanho.
+ Não é thread-safe: o acesso é protegido pelo lock do WineSearchIndex.
+ */
+final class IdPostings {
+
+    /** A palavra do vocabulário, compartilhada por todos os vinhos que a contêm (uma única String em memória). */
+    private final String word;
+
+    private long[] ids = new long[4];
+
+    private int[] slots = new int[4];
+
+    private int[] lengths = new int[4];
+
+    private int size;
+
+    private BitSet members;
+
+    private boolean sorted = true;
+
+    IdPostings(String word) {
+        this.word = word;
+    }
+
+    String word() {
+        return word;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long idAt(int position) {
+        return ids[position];
+    }
+
+    int slotAt(int position) {
+        return slots[position];
+    }
+
+    int lengthAt(int position) {
+        return lengths[position];
+    }
+
+    boolean hasMembers() {
+        return members != null;
+    }
+
+    /** Só pode ser usado quando hasMembers(). */
+    boolean contains(int slot) {
+        return members.get(slot);
+    }
+
+    /** Cópia do BitSet, para ser reduzida por retainMembersIn na interseção de várias listas. */
+    BitSet copyOfMembers() {
+        return (BitSet) members.clone();
+    }
+
+    void retainMembersIn(BitSet slots) {
+        slots.and(members);
+    }
+
+    /** Cria o BitSet quando a lista passa a ter pelo menos 1/64 dos slots em uso. Uma vez criado, ele é mantido
+     enquanto a lista existir, para que a lista não alterne entre os dois modos a cada alteração.
+     */
+    void indexMembers(int slotCount) {
+        if (members != null || (long) size * 64 < slotCount) {
+            return;
+        }
+        members = new BitSet(slotCount);
+        for (int i = 0; i < size; i++) {
+            members.set(slots[i]);
+        }
+    }
+
+    /** Insere mantendo a ordem: desloca os maiores uma posição, custo linear apenas nas alterações. */
+    void add(long id, int slot, int length) {
+        ensureSorted();
+        ensureCapacity();
+        int position = seek(0, length, id);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        System.arraycopy(slots, position, slots, position + 1, size - position);
+        System.arraycopy(lengths, position, lengths, position + 1, size - position);
+        ids[position] = id;
+        slots[position] = slot;
+        lengths[position] = length;
+        size++;
+        if (members != null) {
+            members.set(slot);
+        }
+    }
+
+    /** Usado na carga inicial: anexa sem ordenar, e a lista é ordenada uma única vez em ensureSorted. */
+    void append(long id, int slot, int length) {
+        ensureCapacity();
+        if (size > 0 && compare(lengths[size - 1], ids[size - 1], length, id) > 0) {
+            sorted = false;
+        }
+        ids[size] = id;
+        slots[size] = slot;
+        lengths[size] = length;
+        size++;
+        if (members != null) {
+            members.set(slot);
+        }
+    }
+
+    void remove(long id, int length) {
+        ensureSorted();
+        int position = seek(0, length, id);
+        if (position < size && ids[position] == id) {
+            if (members != null) {
+                members.clear(slots[position]);
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+            System.arraycopy(lengths, position + 1, lengths, position, size - position - 1);
+            size--;
+        }
+    }
+
+    /** Primeira posição, a partir de from, com (tamanho, id) maior ou igual ao informado. Avança em saltos
+     que dobram de tamanho e termina com uma busca binária, então o custo depende da distância percorrida
+     e não do tamanho da lista.
+     */
+    int seek(int from, int length, long id) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < size && compare(lengths[high], ids[high], length, id) < 0) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, size);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(lengths[middle], ids[middle], length, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    void ensureSorted() {
+        if (sorted) {
+            return;
+        }
+        /** Ordena pares (tamanho, posição) codificados em um long, sem criar objetos por entrada;
+         depois ordena os ids dentro de cada grupo de mesmo tamanho.
+         */
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) lengths[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        long[] sortedIds = new long[ids.length];
+        int[] sortedSlots = new int[slots.length];
+        int[] sortedLengths = new int[lengths.length];
+        for (int i = 0; i < size; i++) {
+            int position = (int) order[i];
+            sortedIds[i] = ids[position];
+            sortedSlots[i] = slots[position];
+            sortedLengths[i] = lengths[position];
+        }
+        for (int start = 0, end; start < size; start = end) {
+            end = start + 1;
+            while (end < size && sortedLengths[end] == sortedLengths[start]) {
+                end++;
+            }
+            sortById(sortedIds, sortedSlots, start, end);
+        }
+        ids = sortedIds;
+        slots = sortedSlots;
+        lengths = sortedLengths;
+        sorted = true;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+            lengths = Arrays.copyOf(lengths, size * 2);
+        }
+    }
+
+    /** Os slots acompanham os ids: cada grupo de mesmo tamanho é ordenado por índice, e os dois vetores
+     são reescritos na nova ordem. Na carga inicial os ids costumam chegar em ordem crescente, e como a
+     ordenação por (tamanho, posição) preserva a ordem de chegada, o grupo normalmente já está ordenado.
+     */
+    private static void sortById(long[] ids, int[] slots, int start, int end) {
+        boolean groupSorted = true;
+        for (int i = start + 1; i < end && groupSorted; i++) {
+            groupSorted = ids[i - 1] <= ids[i];
+        }
+        if (groupSorted) {
+            return;
+        }
+        Integer[] order = new Integer[end - start];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = start + i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(ids[a], ids[b]));
+        long[] groupIds = new long[order.length];
+        int[] groupSlots = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            groupIds[i] = ids[order[i]];
+            groupSlots[i] = slots[order[i]];
+        }
+        System.arraycopy(groupIds, 0, ids, start, order.length);
+        System.arraycopy(groupSlots, 0, slots, start, order.length);
+    }
+
+    private static int compare(int length, long id, int otherLength, long otherId) {
+        return length != otherLength ? Integer.compare(length, otherLength) : Long.compare(id, otherId);
+    }
+}
@@ -0,0 +1,87 @@
+package com.one.innovation.digital.winestock.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/** Normalização de texto e extração de trigramas para o índice de busca. Cada palavra é cercada por
+ espaços antes de ser dividida ("malbec" gera " ma", "mal", "alb", "lbe", "bec", "ec "), para que o início
+ e o fim das palavras também contem na semelhança. Cada trigrama é codificado em um long (três chars de
+ 16 bits), sem criar uma String por trigrama.
+ */
+public final class Trigrams {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+
+    private static final long[] NO_KEYS = new long[0];
+
+    private Trigrams() {
+    }
+
+    /** Minúsculas, sem acentos e com as palavras separadas por um único espaço ("Château  d'Yquem" vira "chateau d yquem"). */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutMarks = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(withoutMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /** Trigramas distintos do texto já normalizado, em ordem crescente (para busca binária). */
+    public static long[] keysOf(String normalized) {
+        if (normalized.isEmpty()) {
+            return NO_KEYS;
+        }
+        long[] keys = new long[normalized.length()];
+        int count = 0;
+        int windows = normalized.length();
+        for (int i = 0; i < windows; i++) {
+            if (isTrigram(normalized, i)) {
+                keys[count++] = keyAt(normalized, i);
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || keys[distinct - 1] != keys[i]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    /** Quantos dos trigramas da consulta (ordenados) aparecem no texto normalizado. O vetor matched
+     evita contar duas vezes um trigrama repetido no texto.
+     */
+    static int countShared(String normalized, long[] queryKeys, boolean[] matched) {
+        Arrays.fill(matched, false);
+        int shared = 0;
+        int windows = normalized.length();
+        for (int i = 0; i < windows; i++) {
+            if (isTrigram(normalized, i)) {
+                int position = Arrays.binarySearch(queryKeys, keyAt(normalized, i));
+                if (position >= 0 && !matched[position]) {
+                    matched[position] = true;
+                    shared++;
+                }
+            }
+        }
+        return shared;
+    }
+
+    /** O trigrama de posição i é o char i com os seus vizinhos, como se o texto estivesse cercado por espaços.
+     Trigramas centrados em um espaço cruzariam duas palavras e são ignorados.
+     */
+    private static boolean isTrigram(String normalized, int i) {
+        return normalized.charAt(i) != ' ';
+    }
+
+    private static long keyAt(String normalized, int i) {
+        char first = i == 0 ? ' ' : normalized.charAt(i - 1);
+        char last = i == normalized.length() - 1 ? ' ' : normalized.charAt(i + 1);
+        return ((long) first << 32) | ((long) normalized.charAt(i) << 16) | last;
+    }
+}
@@ -0,0 +1,534 @@
+package com.one.innovation.digital.winestock.search;
+
+import com.one.innovation.digital.winestock.config.SearchProperties;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.event.RemovedWineVersions;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Índice invertido em memória do nome e da marca dos vinhos, para busca por trecho e com tolerância
+ a erros de digitação. Tem dois níveis:
+ - cada palavra do catálogo aponta para os vinhos que a contêm (IdPostings, do texto mais curto ao mais longo);
+ - cada trigrama aponta para as palavras do catálogo que o contêm. O vocabulário é muito menor que o catálogo,
+ e é nele que cada palavra da consulta é comparada por trigramas ("malbek" encontra "malbec", "sauv" encontra "sauvignon").
+ Um vinho é retornado quando contém uma correspondência para cada palavra da consulta. A pontuação soma a
+ semelhança de cada correspondência; o empate favorece o texto mais curto, que é o mais parecido com a consulta.
+ É montado na inicialização (WineSearchIndexLoader) e atualizado a cada alteração confirmada. As buscas
+ acontecem em paralelo entre si (read lock); as alterações, raras, esperam as buscas em andamento (write lock).
+ Como no InventoryIndex, cada vinho guarda a version do texto indexado e eventos fora de ordem (duas renomeações
+ confirmadas quase juntas) com version menor ou igual são ignorados, inclusive depois da exclusão (enquanto o
+ registro da exclusão em removedVersions não expira).
+ Cada vinho ocupa um slot (número denso, reaproveitado após a exclusão), usado pelos BitSets das palavras
+ frequentes (IdPostings.members) para testar a pertinência sem percorrer as listas.
+ */
+public class WineSearchIndex {
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble((Hit hit) -> hit.score).reversed()
+            .thenComparingInt(hit -> hit.length)
+            .thenComparingLong(hit -> hit.id);
+
+    private static final long UNVERSIONED = -1;
+
+    /** Posições da lista mais curta percorridas em bestMatches antes de recorrer à interseção dos BitSets. */
+    private static final int SCAN_BUDGET = 4096;
+
+    private final SearchProperties searchProperties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private final Map<String, IdPostings> wordPostings = new HashMap<>();
+
+    private final Map<Long, Set<String>> trigramWords = new HashMap<>();
+
+    private final RemovedWineVersions removedVersions = new RemovedWineVersions();
+
+    /** Slots de vinhos excluídos; os slots em uso são os dos documents, e os próximos vêm depois de todos eles. */
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    private final SlotTable slotTable = new SlotTable();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWineChanged(WineChangedEvent event) {
+        WineDTO after = event.getAfter();
+        if (after == null) {
+            remove(event.getWineId(), event.getBefore().getVersion());
+        } else if (event.getBefore() == null || !textOf(event.getBefore()).equals(textOf(after))) {
+            /** Movimentações de estoque não mudam nome nem marca e não tocam no índice (nem na version guardada,
+             para que uma renomeação anterior que chegue depois ainda seja aplicada).
+             */
+            put(after.getId(), after.getName(), after.getBrand(), after.getVersion());
+        }
+    }
+
+    public void put(Long id, String name, String brand, Long version) {
+        write(() -> put(id, name, brand, versionOf(version), false));
+    }
+
+    /** Carga inicial (WineSearchIndexLoader): os ids são anexados às listas sem ordenar, e cada lista é
+     ordenada uma única vez em finishBulkLoad, em vez de um deslocamento por vinho nas listas grandes.
+     */
+    public void bulkPut(Long id, String name, String brand, Long version) {
+        write(() -> put(id, name, brand, versionOf(version), true));
+    }
+
+    public void finishBulkLoad() {
+        write(() -> wordPostings.values().forEach(postings -> {
+            postings.ensureSorted();
+            postings.indexMembers(slotCount());
+        }));
+    }
+
+    /** version é a do vinho no momento da exclusão; os ids não são reutilizados. */
+    public void remove(Long id, Long version) {
+        write(() -> {
+            removedVersions.add(id, versionOf(version));
+            removeDocument(id);
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids dos vinhos mais parecidos com a consulta, do mais para o menos parecido. */
+    public List<Long> search(String query, int limit) {
+        String normalizedQuery = Trigrams.normalize(query);
+        if (normalizedQuery.isEmpty() || limit < 1) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<String, Double>> terms = new ArrayList<>();
+            for (String term : new HashSet<>(Arrays.asList(normalizedQuery.split(" ")))) {
+                Map<String, Double> matches = matchingWords(term);
+                if (matches.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                terms.add(matches);
+            }
+            List<Long> bestMatches = bestMatches(terms, limit);
+            return bestMatches.size() == limit ? bestMatches : scoreAll(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Vinhos que contêm a correspondência mais parecida de cada termo, ou seja, com a pontuação máxima.
+     A lista mais curta é percorrida em ordem (tamanho, id); os primeiros limit encontrados já são os mais
+     curtos, e a busca para ali. Nas listas com BitSet, a pertinência é testada pelo slot; nas demais, que são
+     curtas, a interseção é feita saltando (seek) até o vinho atual, e uma lista à frente faz a mais curta saltar.
+     Quando as palavras são frequentes mas raramente aparecem juntas nos textos curtos (em "sauv gauch", com um
+     milhão de vinhos, os 20 primeiros em comum estão depois de 60 mil posições), o percurso para em SCAN_BUDGET
+     posições e, se todas as listas têm BitSet, segue por bestMatchesByMembers.
+     */
+    private List<Long> bestMatches(List<Map<String, Double>> terms, int limit) {
+        List<IdPostings> lists = new ArrayList<>(terms.size());
+        for (Map<String, Double> matches : terms) {
+            lists.add(wordPostings.get(matches.keySet().iterator().next()));
+        }
+        lists.sort(Comparator.comparingInt(IdPostings::size));
+        IdPostings shortest = lists.get(0);
+        List<IdPostings> indexed = new ArrayList<>();
+        List<IdPostings> sequential = new ArrayList<>();
+        for (IdPostings list : lists.subList(1, lists.size())) {
+            (list.hasMembers() ? indexed : sequential).add(list);
+        }
+        int[] positions = new int[sequential.size()];
+        List<Long> ids = new ArrayList<>(limit);
+        int position = 0;
+        for (int scanned = 0; ids.size() < limit && position < shortest.size(); scanned++) {
+            if (scanned == SCAN_BUDGET && shortest.hasMembers() && sequential.isEmpty()) {
+                return bestMatchesByMembers(lists, limit);
+            }
+            if (!containsAll(indexed, shortest.slotAt(position))) {
+                position++;
+                continue;
+            }
+            int length = shortest.lengthAt(position);
+            long id = shortest.idAt(position);
+            boolean inAllLists = true;
+            for (int i = 0; i < sequential.size(); i++) {
+                IdPostings list = sequential.get(i);
+                positions[i] = list.seek(positions[i], length, id);
+                if (positions[i] == list.size()) {
+                    return ids;
+                }
+                if (list.idAt(positions[i]) != id) {
+                    /** Esta lista está à frente: a mais curta salta direto para o vinho atual dela. */
+                    position = shortest.seek(position, list.lengthAt(positions[i]), list.idAt(positions[i]));
+                    inAllLists = false;
+                    break;
+                }
+            }
+            if (inAllLists) {
+                ids.add(id);
+                position++;
+            }
+        }
+        return ids;
+    }
+
+    /** Interseção dos BitSets de todas as listas (um AND a cada 64 slots), seguida da escolha dos limit vinhos
+     mais curtos entre os slots em comum. O custo depende do número de vinhos no catálogo e dos vinhos em comum,
+     e não da posição deles nas listas.
+     */
+    private List<Long> bestMatchesByMembers(List<IdPostings> lists, int limit) {
+        BitSet common = lists.get(0).copyOfMembers();
+        for (IdPostings list : lists.subList(1, lists.size())) {
+            list.retainMembersIn(common);
+        }
+        /** Mantém apenas os limit mais curtos, com o mais longo deles no topo da fila. */
+        PriorityQueue<Integer> shortest = new PriorityQueue<>(limit + 1, slotTable.order().reversed());
+        for (int slot = common.nextSetBit(0); slot >= 0; slot = common.nextSetBit(slot + 1)) {
+            if (shortest.size() == limit && slotTable.order().compare(slot, shortest.peek()) >= 0) {
+                continue;
+            }
+            shortest.add(slot);
+            if (shortest.size() > limit) {
+                shortest.poll();
+            }
+        }
+        return shortest.stream()
+                .sorted(slotTable.order())
+                .map(slotTable::idAt)
+                .collect(Collectors.toList());
+    }
+
+    /** Usado quando há menos de limit vinhos com a pontuação máxima: pontua os vinhos que contêm alguma
+     correspondência do termo com menos ocorrências (o mais seletivo), percorrendo as correspondências da mais
+     para a menos parecida. Antes de pontuar, descarta pelo BitSet os vinhos sem correspondência de algum termo
+     cujas palavras são todas frequentes. E para quando nem a soma da semelhança da palavra atual com a máxima
+     dos outros termos alcança o pior dos limit melhores; como as listas seguem a ordem (tamanho, id), um empate
+     nessa soma também encerra a lista assim que o vinho atual passa do pior em tamanho e id.
+     O pior caso continua linear: uma consulta em que todos os termos têm correspondências pouco frequentes
+     (sem BitSet) e que juntas somam muitos vinhos ainda pontua cada um deles.
+     */
+    private List<Long> scoreAll(List<Map<String, Double>> terms, int limit) {
+        /** Do termo mais seletivo para o menos: o primeiro conduz a busca, e score() desiste mais cedo. */
+        List<Map<String, Double>> selectiveFirst = new ArrayList<>(terms);
+        selectiveFirst.sort(Comparator.comparingLong(this::occurrences));
+        Map<String, Double> driver = selectiveFirst.get(0);
+        List<List<IdPostings>> filters = new ArrayList<>();
+        List<Double> otherTermsMaxima = new ArrayList<>();
+        for (Map<String, Double> matches : selectiveFirst.subList(1, selectiveFirst.size())) {
+            otherTermsMaxima.add(matches.values().iterator().next());
+            List<IdPostings> filter = membersOf(matches);
+            if (filter != null) {
+                filters.add(filter);
+            }
+        }
+        /** Mantém apenas os limit melhores, com o pior deles no topo da fila. */
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        Set<Long> visited = new HashSet<>();
+        for (Map.Entry<String, Double> word : driver.entrySet()) {
+            /** Somado na mesma ordem de score(), para que o empate seja exato. */
+            double bound = word.getValue();
+            for (double maximum : otherTermsMaxima) {
+                bound += maximum;
+            }
+            if (best.size() == limit && bound < best.peek().score) {
+                break;
+            }
+            IdPostings postings = wordPostings.get(word.getKey());
+            for (int i = 0; i < postings.size(); i++) {
+                if (best.size() == limit && bound == best.peek().score && ranksAfter(postings, i, best.peek())) {
+                    break;
+                }
+                if (!passes(filters, postings.slotAt(i))) {
+                    continue;
+                }
+                long id = postings.idAt(i);
+                /** score() já considera todas as palavras do vinho: o mesmo vinho em outra lista não muda nada. */
+                if (!visited.add(id)) {
+                    continue;
+                }
+                Document document = documents.get(id);
+                double score = score(document, selectiveFirst);
+                if (score > 0) {
+                    best.add(new Hit(id, score, document.length));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+        }
+        return best.stream()
+                .sorted(RANKING)
+                .map(hit -> hit.id)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean ranksAfter(IdPostings postings, int position, Hit hit) {
+        int length = postings.lengthAt(position);
+        return length != hit.length ? length > hit.length : postings.idAt(position) > hit.id;
+    }
+
+    private static boolean containsAll(List<IdPostings> lists, int slot) {
+        for (IdPostings list : lists) {
+            if (!list.contains(slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** O vinho passa se, para cada termo filtrado, contém ao menos uma das correspondências. */
+    private static boolean passes(List<List<IdPostings>> filters, int slot) {
+        for (List<IdPostings> filter : filters) {
+            boolean found = false;
+            for (int i = 0; i < filter.size() && !found; i++) {
+                found = filter.get(i).contains(slot);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Listas das correspondências do termo, ou null se alguma não tiver BitSet (o termo fica só para score()). */
+    private List<IdPostings> membersOf(Map<String, Double> matches) {
+        List<IdPostings> lists = new ArrayList<>(matches.size());
+        for (String word : matches.keySet()) {
+            IdPostings postings = wordPostings.get(word);
+            if (!postings.hasMembers()) {
+                return null;
+            }
+            lists.add(postings);
+        }
+        return lists;
+    }
+
+    /** Palavras do vocabulário que contêm pelo menos minScore dos trigramas do termo, da mais para a menos
+     parecida (semelhança de Jaccard entre os trigramas; 1 para a própria palavra).
+     Uma palavra só alcança minShared trigramas de n se aparecer em pelo menos uma das n - minShared + 1
+     listas mais curtas; apenas essas listas são percorridas para reunir as candidatas.
+     */
+    private Map<String, Double> matchingWords(String term) {
+        long[] termKeys = Trigrams.keysOf(term);
+        int minShared = Math.max(1, (int) Math.ceil(searchProperties.getMinScore() * termKeys.length));
+        List<Set<String>> rarestFirst = new ArrayList<>(termKeys.length);
+        for (long key : termKeys) {
+            rarestFirst.add(trigramWords.getOrDefault(key, Collections.emptySet()));
+        }
+        rarestFirst.sort(Comparator.comparingInt(Set::size));
+        Set<String> candidates = new HashSet<>();
+        for (Set<String> words : rarestFirst.subList(0, termKeys.length - minShared + 1)) {
+            candidates.addAll(words);
+        }
+        Map<String, Double> similarities = new HashMap<>();
+        boolean[] matched = new boolean[termKeys.length];
+        for (String candidate : candidates) {
+            int shared = Trigrams.countShared(candidate, termKeys, matched);
+            if (shared >= minShared) {
+                /** Uma palavra de n letras tem n trigramas (um centrado em cada letra). */
+                similarities.put(candidate, candidate.equals(term)
+                        ? 1.0
+                        : (double) shared / (termKeys.length + candidate.length() - shared));
+            }
+        }
+        return similarities.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(searchProperties.getMaxExpansions())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    /** Soma, para cada termo da consulta, a maior semelhança entre as palavras do vinho. Zero se algum termo
+     não tiver correspondência no vinho.
+     */
+    private double score(Document document, List<Map<String, Double>> terms) {
+        double score = 0;
+        for (Map<String, Double> matches : terms) {
+            double termScore = 0;
+            for (String word : document.words) {
+                Double similarity = matches.get(word);
+                if (similarity != null && similarity > termScore) {
+                    termScore = similarity;
+                }
+            }
+            if (termScore == 0) {
+                return 0;
+            }
+            score += termScore;
+        }
+        return score;
+    }
+
+    private long occurrences(Map<String, Double> matches) {
+        long occurrences = 0;
+        for (String word : matches.keySet()) {
+            occurrences += wordPostings.get(word).size();
+        }
+        return occurrences;
+    }
+
+    private void put(Long id, String name, String brand, long version, boolean bulk) {
+        Document current = documents.get(id);
+        Long removedVersion = removedVersions.get(id);
+        if ((current != null && isStale(version, current.version)) || (removedVersion != null && isStale(version, removedVersion))) {
+            return;
+        }
+        removeDocument(id);
+        String text = Trigrams.normalize(name + " " + brand);
+        if (text.isEmpty()) {
+            return;
+        }
+        String[] words = Arrays.stream(text.split(" ")).distinct().toArray(String[]::new);
+        int slot = freeSlots.isEmpty() ? slotCount() : freeSlots.pop();
+        Document document = new Document(words, text.length(), version, slot);
+        slotTable.set(slot, id, document.length);
+        documents.put(id, document);
+        for (int i = 0; i < words.length; i++) {
+            IdPostings postings = wordPostings.get(words[i]);
+            if (postings == null) {
+                postings = new IdPostings(words[i]);
+                wordPostings.put(words[i], postings);
+                for (long key : Trigrams.keysOf(words[i])) {
+                    trigramWords.computeIfAbsent(key, k -> new HashSet<>()).add(words[i]);
+                }
+            } else {
+                words[i] = postings.word();
+            }
+            if (bulk) {
+                postings.append(id, slot, document.length);
+            } else {
+                postings.add(id, slot, document.length);
+                postings.indexMembers(slotCount());
+            }
+        }
+    }
+
+    private void removeDocument(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        freeSlots.push(document.slot);
+        for (String word : document.words) {
+            IdPostings postings = wordPostings.get(word);
+            postings.remove(id, document.length);
+            if (postings.size() == 0) {
+                wordPostings.remove(word);
+                for (long key : Trigrams.keysOf(word)) {
+                    Set<String> words = trigramWords.get(key);
+                    words.remove(word);
+                    if (words.isEmpty()) {
+                        trigramWords.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int slotCount() {
+        return documents.size() + freeSlots.size();
+    }
+
+    /** Um DTO sem version é sempre aplicado, e qualquer estado versionado o substitui. */
+    private static long versionOf(Long version) {
+        return version != null ? version : UNVERSIONED;
+    }
+
+    private static boolean isStale(long version, long indexedVersion) {
+        return version != UNVERSIONED && version <= indexedVersion;
+    }
+
+    private String textOf(WineDTO wineDTO) {
+        return Objects.toString(wineDTO.getName()) + " " + Objects.toString(wineDTO.getBrand());
+    }
+
+    @AllArgsConstructor
+    private static final class Document {
+
+        private final String[] words;
+
+        private final int length;
+
+        private final long version;
+
+        private final int slot;
+    }
+
+    /** Id e tamanho do texto de cada slot, em vetores primitivos: a interseção dos BitSets percorre os slots
+     em ordem crescente, e a leitura desses vetores acompanha essa ordem.
+     */
+    private static final class SlotTable {
+
+        private long[] ids = new long[16];
+
+        private int[] lengths = new int[16];
+
+        private final Comparator<Integer> order = (a, b) -> lengths[a] != lengths[b]
+                ? Integer.compare(lengths[a], lengths[b])
+                : Long.compare(ids[a], ids[b]);
+
+        void set(int slot, long id, int length) {
+            if (slot >= ids.length) {
+                int capacity = Math.max(ids.length * 2, slot + 1);
+                ids = Arrays.copyOf(ids, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            ids[slot] = id;
+            lengths[slot] = length;
+        }
+
+        long idAt(int slot) {
+            return ids[slot];
+        }
+
+        /** Mesma ordem das IdPostings: tamanho do texto e depois id. */
+        Comparator<Integer> order() {
+            return order;
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class Hit {
+
+        private final long id;
+
+        private final double score;
+
+        private final int length;
+    }
+}
@@ -0,0 +1,29 @@
+package com.one.innovation.digital.winestock.search;
+
+import com.one.innovation.digital.winestock.service.WineService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Monta o WineSearchIndex com o catálogo inteiro quando a aplicação inicia, antes de o servidor
+ começar a receber requisições. Os vinhos são lidos em streaming pela exportação, sem carregar a tabela em memória.
+ */
+public class WineSearchIndexLoader implements SmartInitializingSingleton {
+
+    private final WineService wineService;
+
+    private final WineSearchIndex wineSearchIndex;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        wineService.exportAll(wineDTO -> wineSearchIndex.bulkPut(wineDTO.getId(), wineDTO.getName(), wineDTO.getBrand(), wineDTO.getVersion()));
+        wineSearchIndex.finishBulkLoad();
+        log.info("Search index built with {} wines in {} ms", wineSearchIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,137 @@
+package com.one.innovation.digital.winestock.service;
+
+import com.one.innovation.digital.winestock.config.CacheConfig;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.dto.WineTypeStatsDTO;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineRenameNotAllowedException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import com.one.innovation.digital.winestock.exception.WineVersionMismatchException;
+import com.one.innovation.digital.winestock.mapper.WineMapper;
+import com.one.innovation.digital.winestock.repository.ShardedWineRepository;
+import com.one.innovation.digital.winestock.utils.UniqueViolationUtils;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+@Service
+@ConditionalOnProperty(name = "winestock.sharding.enabled", havingValue = "true")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Versão do WineService para o catálogo dividido em shards. Cada escrita acontece em um único shard,
+ então não há transação entre bancos. Os mesmos WineChangedEvent são publicados, para que o cache e
+ os alertas continuem recebendo as alterações; o ledger e a outbox, que precisariam da transação da escrita,
+ ficam desligados neste modo.
+ */
+public class ShardedWineService {
+
+    private final ShardedWineRepository shardedWineRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final WineMapper wineMapper = WineMapper.INSTANCE;
+
+    /** Como no WineService, o INSERT é enviado direto e a restrição unique do nome recusa o duplicado;
+     as demais violações de integridade seguem como erro. Como o nome não muda na atualização (ele escolhe
+     o shard), só o cadastro pode repetir um nome.
+     */
+    public WineDTO createWine(WineDTO wineDTO) throws WineAlreadyRegisteredException {
+        WineDTO savedWineDTO;
+        try {
+            savedWineDTO = shardedWineRepository.insert(wineDTO);
+        } catch (DataIntegrityViolationException e) {
+            if (!UniqueViolationUtils.isUniqueViolation(e)) {
+                throw e;
+            }
+            throw new WineAlreadyRegisteredException(wineDTO.getName());
+        }
+        eventPublisher.publishEvent(new WineChangedEvent(WineOperation.CREATE, null, savedWineDTO));
+        return savedWineDTO;
+    }
+
+    @Cacheable(cacheNames = CacheConfig.WINES_BY_NAME_CACHE, key = "#name")
+    public WineDTO findByName(String name) throws WineNotFoundException {
+        return shardedWineRepository.findByName(name)
+                .orElseThrow(() -> new WineNotFoundException(name));
+    }
+
+    public List<WineDTO> listAll() {
+        return shardedWineRepository.findAll();
+    }
+
+    public void exportAll(Consumer<WineDTO> consumer) {
+        shardedWineRepository.streamAll(consumer);
+    }
+
+    public List<WineTypeStatsDTO> stats() {
+        return shardedWineRepository.sumByType();
+    }
+
+    /** O nome decide o shard e o shard está no id, então um vinho não pode ser renomeado: com outro nome,
+     a busca por nome procuraria em outro banco. Para renomear, exclua e cadastre novamente.
+     */
+    public WineDTO update(Long id, WineDTO wineDTO)
+            throws WineNotFoundException, WineVersionMismatchException, WineRenameNotAllowedException {
+        WineDTO registeredWineDTO = verifyIfExists(id);
+        if (!registeredWineDTO.getName().equals(wineDTO.getName())) {
+            throw new WineRenameNotAllowedException(id, wineDTO.getName());
+        }
+        if (wineDTO.getVersion() != null && !wineDTO.getVersion().equals(registeredWineDTO.getVersion())) {
+            throw new WineVersionMismatchException(id, wineDTO.getVersion());
+        }
+        WineDTO updatedWineDTO = wineMapper.copy(wineDTO);
+        updatedWineDTO.setId(id);
+        updatedWineDTO.setVersion(registeredWineDTO.getVersion());
+        if (shardedWineRepository.update(updatedWineDTO) == 0) {
+            throw new WineVersionMismatchException(id, registeredWineDTO.getVersion());
+        }
+        updatedWineDTO.setVersion(registeredWineDTO.getVersion() + 1);
+        eventPublisher.publishEvent(new WineChangedEvent(WineOperation.UPDATE, registeredWineDTO, updatedWineDTO));
+        return updatedWineDTO;
+    }
+
+    public WineDTO increment(Long id, int quantityToIncrement) throws WineNotFoundException, WineStockExceededException {
+        return adjustQuantity(id, quantityToIncrement, WineOperation.INCREMENT);
+    }
+
+    public WineDTO decrement(Long id, int quantityToDecrement) throws WineNotFoundException, WineStockExceededException {
+        return adjustQuantity(id, -quantityToDecrement, WineOperation.DECREMENT);
+    }
+
+    public void deleteById(Long id) throws WineNotFoundException {
+        WineDTO deletedWineDTO = verifyIfExists(id);
+        if (shardedWineRepository.deleteById(id) == 0) {
+            throw new WineNotFoundException(id);
+        }
+        eventPublisher.publishEvent(new WineChangedEvent(WineOperation.DELETE, deletedWineDTO, null));
+    }
+
+    private WineDTO adjustQuantity(Long id, int delta, WineOperation operation)
+            throws WineNotFoundException, WineStockExceededException {
+        if (shardedWineRepository.adjustQuantity(id, delta) == 0) {
+            /** Nenhuma linha alterada: ou o vinho não existe, ou a quantidade sairia do intervalo permitido. */
+            verifyIfExists(id);
+            throw new WineStockExceededException(id, delta);
+        }
+        WineDTO adjustedWineDTO = verifyIfExists(id);
+        WineDTO previousWineDTO = wineMapper.copy(adjustedWineDTO);
+        previousWineDTO.setQuantity(adjustedWineDTO.getQuantity() - delta);
+        previousWineDTO.setVersion(adjustedWineDTO.getVersion() - 1);
+        eventPublisher.publishEvent(new WineChangedEvent(operation, previousWineDTO, adjustedWineDTO));
+        return adjustedWineDTO;
+    }
+
+    private WineDTO verifyIfExists(Long id) throws WineNotFoundException {
+        return shardedWineRepository.findById(id)
+                .orElseThrow(() -> new WineNotFoundException(id));
+    }
+}
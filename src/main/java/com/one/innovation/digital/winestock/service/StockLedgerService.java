@@ -0,0 +1,41 @@
+package com.one.innovation.digital.winestock.service;
+
+import com.one.innovation.digital.winestock.dto.StockLevelDTO;
+import com.one.innovation.digital.winestock.entity.StockSnapshot;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.repository.StockMovementRepository;
+import com.one.innovation.digital.winestock.repository.StockSnapshotRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Consultas de auditoria sobre o ledger de estoque. A quantidade atual continua em Wine.quantity;
+ aqui o estoque de um instante qualquer é reconstruído a partir do último snapshot até esse instante,
+ somando apenas as movimentações posteriores a ele (duas consultas pelo índice, sem varrer o ledger).
+ */
+public class StockLedgerService {
+
+    private final StockMovementRepository stockMovementRepository;
+
+    private final StockSnapshotRepository stockSnapshotRepository;
+
+    @Transactional(readOnly = true)
+    public StockLevelDTO stockAt(Long wineId, Instant at) throws WineNotFoundException {
+        Optional<StockSnapshot> snapshot = stockSnapshotRepository
+                .findFirstByWineIdAndAsOfLessThanEqualOrderByAsOfDesc(wineId, at);
+        if (!snapshot.isPresent() && !stockMovementRepository.existsByWineIdAndOccurredAtLessThanEqual(wineId, at)) {
+            /** Nenhum registro até o instante: o vinho ainda não existia (ou nunca existiu). */
+            throw new WineNotFoundException(wineId);
+        }
+        Instant from = snapshot.map(StockSnapshot::getAsOf).orElse(Instant.EPOCH);
+        int snapshotQuantity = snapshot.map(StockSnapshot::getQuantity).orElse(0);
+        long tail = stockMovementRepository.sumDelta(wineId, from, at);
+        return new StockLevelDTO(wineId, at, (int) (snapshotQuantity + tail), snapshot.map(StockSnapshot::getAsOf).orElse(null));
+    }
+}
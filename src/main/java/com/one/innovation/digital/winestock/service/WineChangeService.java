@@ -0,0 +1,116 @@
+package com.one.innovation.digital.winestock.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.one.innovation.digital.winestock.config.PaginationProperties;
+import com.one.innovation.digital.winestock.dto.WineChangeDTO;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.entity.WineChange;
+import com.one.innovation.digital.winestock.exception.WineChangesExpiredException;
+import com.one.innovation.digital.winestock.repository.WineChangeRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Leitura e sequenciamento da outbox de alterações do catálogo. As linhas são gravadas pelo
+ WineChangeRecorder junto com cada escrita; aqui elas recebem a sua posição e são entregues em ordem.
+ */
+public class WineChangeService {
+
+    private final WineChangeRepository wineChangeRepository;
+
+    private final PaginationProperties paginationProperties;
+
+    private final ObjectMapper objectMapper;
+
+    /** Dá posição às alterações já confirmadas que ainda não têm uma, na ordem do id, continuando a partir
+     da maior posição atribuída. Uma transação que confirma depois recebe uma posição maior, mesmo que o
+     seu id seja menor: quem lê a partir de uma posição nunca perde uma alteração que ainda não estava visível.
+     Só pode haver um sequenciador por vez (o WineChangeFeed, em uma única instância da aplicação).
+     */
+    @Transactional
+    public List<WineChangeDTO> assignSequences(int batchSize) {
+        List<WineChange> pendingChanges = wineChangeRepository.findBySequenceIsNullOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (pendingChanges.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long sequence = wineChangeRepository.findMaxSequence().orElse(0L);
+        List<WineChangeDTO> sequencedChanges = new ArrayList<>(pendingChanges.size());
+        for (WineChange wineChange : pendingChanges) {
+            wineChange.setSequence(++sequence);
+            sequencedChanges.add(toDTO(wineChange));
+        }
+        return sequencedChanges;
+    }
+
+    @Transactional(readOnly = true)
+    public List<WineChangeDTO> changesSince(long since, Integer limit) throws WineChangesExpiredException {
+        verifyIfRetained(since);
+        return wineChangeRepository.findBySequenceGreaterThanOrderBySequenceAsc(since, PageRequest.of(0, resolveLimit(limit)))
+                .stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /** Se as alterações logo depois de since já foram apagadas, quem lê a partir dali perderia algumas
+     sem perceber: o consumidor precisa ler o catálogo inteiro de novo.
+     */
+    @Transactional(readOnly = true)
+    public void verifyIfRetained(long since) throws WineChangesExpiredException {
+        Optional<Long> oldestSequence = wineChangeRepository.findMinSequence();
+        if (oldestSequence.isPresent() && since < oldestSequence.get() - 1) {
+            throw new WineChangesExpiredException(since, oldestSequence.get());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long lastSequence() {
+        return wineChangeRepository.findMaxSequence().orElse(0L);
+    }
+
+    @Transactional
+    public int purgeOlderThan(Instant before) {
+        return wineChangeRepository.deleteSequencedBefore(before);
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null || limit < 1) {
+            return paginationProperties.getDefaultSize();
+        }
+        return Math.min(limit, paginationProperties.getMaxSize());
+    }
+
+    private WineChangeDTO toDTO(WineChange wineChange) {
+        return WineChangeDTO.builder()
+                .sequence(wineChange.getSequence())
+                .wineId(wineChange.getWineId())
+                .operation(wineChange.getOperation())
+                .before(fromJson(wineChange.getBeforeJson()))
+                .after(fromJson(wineChange.getAfterJson()))
+                .occurredAt(wineChange.getOccurredAt())
+                .build();
+    }
+
+    private WineDTO fromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, WineDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
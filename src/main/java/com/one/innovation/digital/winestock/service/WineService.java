@@ -1,18 +1,55 @@
 package com.one.innovation.digital.winestock.service;
 
+import com.one.innovation.digital.winestock.config.CacheConfig;
+import com.one.innovation.digital.winestock.config.PaginationProperties;
+import com.one.innovation.digital.winestock.dto.InventoryLevelDTO;
+import com.one.innovation.digital.winestock.dto.WineBulkResultDTO;
 import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.dto.WineFilterDTO;
+import com.one.innovation.digital.winestock.dto.WinePageDTO;
 import com.one.innovation.digital.winestock.entity.Wine;
+import com.one.innovation.digital.winestock.enums.BulkItemStatus;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.exception.InvalidCursorException;
 import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
 import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import com.one.innovation.digital.winestock.exception.WineVersionMismatchException;
+import com.one.innovation.digital.winestock.inventory.InventoryIndex;
 import com.one.innovation.digital.winestock.mapper.WineMapper;
 import com.one.innovation.digital.winestock.repository.WineRepository;
+import com.one.innovation.digital.winestock.repository.WineSpecifications;
+import com.one.innovation.digital.winestock.search.WineSearchIndex;
+import com.one.innovation.digital.winestock.snapshot.CatalogSnapshotRestorer;
+import com.one.innovation.digital.winestock.utils.CursorUtils;
+import com.one.innovation.digital.winestock.utils.UniqueViolationUtils;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 /** @Serivce Marcamos beans com @Service para indicar que ele está mantendo a lógica de negócios.
@@ -27,23 +64,84 @@ pelo Spring. Permitindo também o uso do Autowired.
  */
 public class WineService {
 
+    private static final int BULK_CHUNK_SIZE = 1000;
+
     private final WineRepository wineRepository;
 
+    private final PaginationProperties paginationProperties;
+
+    private final EntityManager entityManager;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final WineSearchIndex wineSearchIndex;
+
+    private final InventoryIndex inventoryIndex;
+
+    /** Disponível apenas com winestock.snapshot.enabled=true. */
+    private final ObjectProvider<CatalogSnapshotRestorer> catalogSnapshotRestorer;
+
     private final WineMapper wineMapper = WineMapper.INSTANCE;
 
+    /** As escritas são transacionais para que a movimentação registrada no ledger (StockLedgerRecorder,
+     antes do commit) seja confirmada ou desfeita junto com a alteração do vinho.
+     O cadastro não consulta o nome antes: o INSERT é enviado direto (flush) e a restrição unique do nome
+     recusa o duplicado, inclusive quando dois cadastros do mesmo nome chegam ao mesmo tempo. A violação
+     vira WineAlreadyRegisteredException e a transação é desfeita (rollbackFor).
+     */
+    @Transactional(rollbackFor = WineAlreadyRegisteredException.class)
     public WineDTO createWine(WineDTO wineDTO) throws WineAlreadyRegisteredException {
-        verifyIfIsAlreadyRegistered(wineDTO.getName());
-        Wine wine = wineMapper.toModel(wineDTO);
-        Wine savedWine = wineRepository.save(wine);
-        return wineMapper.toDTO(savedWine);
+        Wine wine = wineMapper.toNewModel(wineDTO);
+        Wine savedWine;
+        try {
+            savedWine = wineRepository.saveAndFlush(wine);
+        } catch (DataIntegrityViolationException e) {
+            throw alreadyRegisteredOrRethrow(e, wineDTO.getName());
+        }
+        WineDTO savedWineDTO = wineMapper.toDTO(savedWine);
+        eventPublisher.publishEvent(new WineChangedEvent(WineOperation.CREATE, null, savedWineDTO));
+        return savedWineDTO;
     }
 
+    /** Cadastra ou atualiza (pelo nome) uma lista de vinhos. Os nomes já cadastrados são buscados
+     com uma única consulta IN por bloco e as escritas são enviadas em lotes JDBC no flush.
+     */
+    @Transactional
+    public List<WineBulkResultDTO> bulkCreateOrUpdate(List<WineDTO> wineDTOs) {
+        List<WineBulkResultDTO> results = new ArrayList<>(wineDTOs.size());
+        Set<String> seenNames = new HashSet<>();
+        for (int start = 0; start < wineDTOs.size(); start += BULK_CHUNK_SIZE) {
+            List<WineDTO> chunk = wineDTOs.subList(start, Math.min(start + BULK_CHUNK_SIZE, wineDTOs.size()));
+            results.addAll(bulkCreateOrUpdateChunk(chunk, seenNames));
+        }
+        return results;
+    }
+
+    @Cacheable(cacheNames = CacheConfig.WINES_BY_NAME_CACHE, key = "#name")
+    /** @Cacheable guarda o retorno no cache pelo nome. As próximas buscas pelo mesmo nome não
+     chegam ao banco até que uma escrita no vinho o remova do cache (ver WineCacheEvictionListener).
+     As leituras usam transações somente leitura: o Hibernate não guarda cópias das entidades para
+     comparar no flush, e o flush automático antes das consultas é desligado.
+     */
+    @Transactional(readOnly = true)
     public WineDTO findByName(String name) throws WineNotFoundException {
-        Wine foundWine = wineRepository.findByName(name)
+        Optional<Wine> foundWine = wineRepository.findByName(name);
+        if (foundWine.isPresent()) {
+            return wineMapper.toDTO(foundWine.get());
+        }
+        /** Logo após um reinício, enquanto o catálogo é restaurado do snapshot, o vinho pode ainda não estar no banco. */
+        CatalogSnapshotRestorer restorer = catalogSnapshotRestorer.getIfAvailable();
+        return Optional.ofNullable(restorer)
+                .flatMap(snapshotRestorer -> snapshotRestorer.findByName(name))
                 .orElseThrow(() -> new WineNotFoundException(name));
-        return wineMapper.toDTO(foundWine);
     }
 
+    @Transactional(readOnly = true)
+    public WineDTO findById(Long id) throws WineNotFoundException {
+        return wineMapper.toDTO(verifyIfExists(id));
+    }
+
+    @Transactional(readOnly = true)
     public List<WineDTO> listAll() {
         return wineRepository.findAll()
                 .stream()
@@ -51,24 +149,194 @@ public class WineService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<WineDTO> listAll(WineFilterDTO filter, Sort sort) {
+        return wineRepository.findAll(WineSpecifications.matching(filter), sort)
+                .stream()
+                .map(wineMapper::toDTO)
+                .collect(Collectors.toList());
+    }
 
-    public WineDTO update(Long id, WineDTO wineDTO) throws WineNotFoundException{
-        verifyIfExists(id);
+    @Transactional(readOnly = true)
+    public WinePageDTO listPage(String cursor, Integer size) throws InvalidCursorException {
+        Long afterId = cursor == null ? 0L : CursorUtils.decode(cursor);
+        int pageSize = resolvePageSize(size);
+        /** Buscamos uma linha a mais do que o tamanho da página apenas para saber se existe
+         uma próxima página, sem precisar de um COUNT na tabela inteira.
+         */
+        List<Wine> wines = wineRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = wines.size() > pageSize;
+        List<WineDTO> content = wines.stream()
+                .limit(pageSize)
+                .map(wineMapper::toDTO)
+                .collect(Collectors.toList());
+        String nextCursor = hasNext ? CursorUtils.encode(content.get(content.size() - 1).getId()) : null;
+        return new WinePageDTO(content, content.size(), nextCursor);
+    }
+
+    /** Busca por trecho do nome ou da marca, tolerando erros de digitação. O índice em memória ordena os ids
+     por semelhança; o banco é consultado apenas para carregar os vinhos encontrados, por chave primária.
+     */
+    @Transactional(readOnly = true)
+    public List<WineDTO> search(String query, Integer limit) {
+        List<Long> ids = wineSearchIndex.search(query, resolvePageSize(limit));
+        Map<Long, Wine> wines = wineRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Wine::getId, Function.identity()));
+        return ids.stream()
+                .map(wines::get)
+                .filter(Objects::nonNull)
+                .map(wineMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /** Respondidos pelo InventoryIndex, em memória, sem consultar o banco. */
+    public List<InventoryLevelDTO> listBelowFill(WineType type, int percent, Integer limit) {
+        return inventoryIndex.belowFill(type, percent, resolvePageSize(limit));
+    }
+
+    public List<InventoryLevelDTO> topByQuantity(WineType type, Integer limit) {
+        return inventoryIndex.topByQuantity(type, resolvePageSize(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<WineDTO> consumer) {
+        try (Stream<Wine> wines = wineRepository.streamAll()) {
+            /** Cada vinho é desanexado do contexto de persistência assim que é entregue,
+             para que a memória não cresça junto com o tamanho da tabela.
+             */
+            wines.forEach(wine -> {
+                consumer.accept(wineMapper.toDTO(wine));
+                entityManager.detach(wine);
+            });
+        }
+    }
+
+    /** Quando o WineDTO traz uma versão (do corpo ou do If-Match), ela precisa ser a versão atual do vinho.
+     Sem versão, a escrita vale sobre a última versão lida, e o @Version ainda protege contra
+     uma escrita concorrente entre a leitura e o UPDATE.
+     */
+    @Transactional(rollbackFor = {WineVersionMismatchException.class, WineAlreadyRegisteredException.class})
+    public WineDTO update(Long id, WineDTO wineDTO)
+            throws WineNotFoundException, WineVersionMismatchException, WineAlreadyRegisteredException {
+        Wine registeredWine = verifyIfExists(id);
+        verifyIfVersionMatches(registeredWine, wineDTO.getVersion());
+        WineDTO previousWineDTO = wineMapper.toDTO(registeredWine);
         Wine wine = wineMapper.toModel(wineDTO);
         wine.setId(id);
-        Wine updatedWine = wineRepository.save(wine);
-        return wineMapper.toDTO(updatedWine);
+        wine.setVersion(registeredWine.getVersion());
+        Wine updatedWine;
+        try {
+            updatedWine = wineRepository.save(wine);
+            /** Dentro da transação o UPDATE só sairia no commit; o flush antecipa o conflito de versão para cá. */
+            wineRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new WineVersionMismatchException(id, registeredWine.getVersion());
+        } catch (DataIntegrityViolationException e) {
+            /** Renomeado para o nome de outro vinho. */
+            throw alreadyRegisteredOrRethrow(e, wineDTO.getName());
+        }
+        WineDTO updatedWineDTO = wineMapper.toDTO(updatedWine);
+        eventPublisher.publishEvent(new WineChangedEvent(WineOperation.UPDATE, previousWineDTO, updatedWineDTO));
+        return updatedWineDTO;
     }
 
+    @Transactional
+    public WineDTO increment(Long id, int quantityToIncrement) throws WineNotFoundException, WineStockExceededException {
+        return adjustQuantity(id, quantityToIncrement, WineOperation.INCREMENT);
+    }
+
+    @Transactional
+    public WineDTO decrement(Long id, int quantityToDecrement) throws WineNotFoundException, WineStockExceededException {
+        return adjustQuantity(id, -quantityToDecrement, WineOperation.DECREMENT);
+    }
+
+    @Transactional
     public void deleteById(Long id) throws WineNotFoundException {
-        verifyIfExists(id);
+        WineDTO deletedWineDTO = wineMapper.toDTO(verifyIfExists(id));
         wineRepository.deleteById(id);
+        eventPublisher.publishEvent(new WineChangedEvent(WineOperation.DELETE, deletedWineDTO, null));
     }
 
-    private void verifyIfIsAlreadyRegistered(String name) throws WineAlreadyRegisteredException {
-        Optional<Wine> optSavedWine = wineRepository.findByName(name);
-        if (optSavedWine.isPresent()) {
-            throw new WineAlreadyRegisteredException(name);
+    private WineDTO adjustQuantity(Long id, int delta, WineOperation operation)
+            throws WineNotFoundException, WineStockExceededException {
+        if (wineRepository.adjustQuantity(id, delta) == 0) {
+            /** Nenhuma linha alterada: ou o vinho não existe, ou a quantidade sairia do intervalo permitido. */
+            verifyIfExists(id);
+            throw new WineStockExceededException(id, delta);
+        }
+        WineDTO adjustedWineDTO = wineMapper.toDTO(verifyIfExists(id));
+        /** O estado anterior não foi lido do banco; ele é deduzido do resultado menos a variação aplicada. */
+        WineDTO previousWineDTO = wineMapper.copy(adjustedWineDTO);
+        previousWineDTO.setQuantity(adjustedWineDTO.getQuantity() - delta);
+        if (adjustedWineDTO.getVersion() != null) {
+            previousWineDTO.setVersion(adjustedWineDTO.getVersion() - 1);
+        }
+        eventPublisher.publishEvent(new WineChangedEvent(operation, previousWineDTO, adjustedWineDTO));
+        return adjustedWineDTO;
+    }
+
+    private List<WineBulkResultDTO> bulkCreateOrUpdateChunk(List<WineDTO> chunk, Set<String> seenNames) {
+        List<String> names = chunk.stream()
+                .map(WineDTO::getName)
+                .collect(Collectors.toList());
+        Map<String, Wine> registeredWines = wineRepository.findByNameIn(names)
+                .stream()
+                .collect(Collectors.toMap(Wine::getName, Function.identity()));
+
+        List<Wine> newWines = new ArrayList<>();
+        List<BulkItemStatus> statuses = new ArrayList<>(chunk.size());
+        List<Wine> wines = new ArrayList<>(chunk.size());
+        List<WineDTO> previousWineDTOs = new ArrayList<>(chunk.size());
+        for (WineDTO wineDTO : chunk) {
+            Wine registeredWine = registeredWines.get(wineDTO.getName());
+            if (!seenNames.add(wineDTO.getName())) {
+                statuses.add(BulkItemStatus.DUPLICATED);
+                wines.add(null);
+                previousWineDTOs.add(null);
+            } else if (registeredWine != null) {
+                /** A entidade já está gerenciada, então o UPDATE sai no flush pelo dirty checking. */
+                previousWineDTOs.add(wineMapper.toDTO(registeredWine));
+                wineMapper.updateModel(wineDTO, registeredWine);
+                statuses.add(BulkItemStatus.UPDATED);
+                wines.add(registeredWine);
+            } else {
+                Wine newWine = wineMapper.toNewModel(wineDTO);
+                newWines.add(newWine);
+                statuses.add(BulkItemStatus.CREATED);
+                wines.add(newWine);
+                previousWineDTOs.add(null);
+            }
+        }
+        wineRepository.saveAll(newWines);
+        entityManager.flush();
+
+        List<WineBulkResultDTO> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Wine wine = wines.get(i);
+            WineDTO savedWineDTO = wine == null ? null : wineMapper.toDTO(wine);
+            results.add(new WineBulkResultDTO(chunk.get(i).getName(), statuses.get(i), savedWineDTO));
+            if (savedWineDTO != null) {
+                WineDTO previousWineDTO = previousWineDTOs.get(i);
+                WineOperation operation = previousWineDTO == null ? WineOperation.CREATE : WineOperation.UPDATE;
+                eventPublisher.publishEvent(new WineChangedEvent(operation, previousWineDTO, savedWineDTO));
+            }
+        }
+        /** Limpa o contexto de persistência para que a memória não cresça a cada bloco. */
+        entityManager.clear();
+        return results;
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size < 1) {
+            return paginationProperties.getDefaultSize();
+        }
+        return Math.min(size, paginationProperties.getMaxSize());
+    }
+
+    private void verifyIfVersionMatches(Wine wine, Long expectedVersion) throws WineVersionMismatchException {
+        if (expectedVersion != null && !expectedVersion.equals(wine.getVersion())) {
+            throw new WineVersionMismatchException(wine.getId(), expectedVersion);
         }
     }
 
@@ -76,4 +344,12 @@ public class WineService {
         return wineRepository.findById(id)
                 .orElseThrow(() -> new WineNotFoundException(id));
     }
+
+    /** Qualquer outra violação de integridade não é um nome repetido e segue como está. */
+    private WineAlreadyRegisteredException alreadyRegisteredOrRethrow(DataIntegrityViolationException e, String name) {
+        if (!UniqueViolationUtils.isUniqueViolation(e)) {
+            throw e;
+        }
+        return new WineAlreadyRegisteredException(name);
+    }
 }
\ No newline at end of file
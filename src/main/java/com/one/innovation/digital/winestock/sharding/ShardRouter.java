@@ -0,0 +1,44 @@
+package com.one.innovation.digital.winestock.sharding;
+
+/** Decide em qual shard fica cada vinho. O shard é escolhido pelo hash do nome no cadastro e fica gravado
+ no próprio id: id = valor da sequence do shard * quantidade de shards + número do shard. Assim a busca
+ pelo nome e as operações pelo id (atualização, estoque, exclusão) vão direto a um único banco, e os ids
+ continuam únicos entre todos os shards, mesmo com uma sequence independente em cada um.
+ */
+public class ShardRouter {
+
+    private final int shards;
+
+    public ShardRouter(int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("At least one shard is required.");
+        }
+        this.shards = shards;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    /** O hashCode de String é definido pela especificação do Java, então o mesmo nome vai para o mesmo
+     shard em qualquer JVM e depois de reinícios. A mistura de bits (finalizador do MurmurHash3) faz com que
+     nomes parecidos, que diferem só no fim, se espalhem entre os shards.
+     */
+    public int shardOf(String name) {
+        int hash = name.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shards);
+    }
+
+    public int shardOf(long id) {
+        return (int) Math.floorMod(id, (long) shards);
+    }
+
+    public long globalId(int shard, long localId) {
+        return localId * shards + shard;
+    }
+}
@@ -0,0 +1,30 @@
+package com.one.innovation.digital.winestock.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.Collections;
+import java.util.List;
+
+/** Pools de conexões dos shards, na ordem de winestock.sharding.urls (a posição é o número do shard). */
+public class ShardedDataSources implements DisposableBean {
+
+    private final List<HikariDataSource> dataSources;
+
+    public ShardedDataSources(List<HikariDataSource> dataSources) {
+        this.dataSources = Collections.unmodifiableList(dataSources);
+    }
+
+    public List<HikariDataSource> all() {
+        return dataSources;
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    @Override
+    public void destroy() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,41 @@
+package com.one.innovation.digital.winestock.sharding;
+
+import com.one.innovation.digital.winestock.config.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "winestock.sharding.enabled", havingValue = "true")
+/** Com o sharding ligado, os vinhos ficam nos bancos de winestock.sharding.urls, acessados por JDBC
+ pelo ShardedWineRepository. O banco principal (spring.datasource.*) continua guardando o ledger de estoque.
+ */
+public class ShardingConfig {
+
+    @Bean
+    public ShardedDataSources shardedDataSources(ShardingProperties shardingProperties) {
+        if (shardingProperties.getUrls().isEmpty()) {
+            throw new IllegalStateException("winestock.sharding.enabled=true requires at least one winestock.sharding.urls entry.");
+        }
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < shardingProperties.getUrls().size(); i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + i);
+            dataSource.setJdbcUrl(shardingProperties.getUrls().get(i));
+            dataSource.setUsername(shardingProperties.getUsername());
+            dataSource.setPassword(shardingProperties.getPassword());
+            dataSource.setMaximumPoolSize(shardingProperties.getPoolSize());
+            dataSources.add(dataSource);
+        }
+        return new ShardedDataSources(dataSources);
+    }
+
+    @Bean
+    public ShardRouter shardRouter(ShardedDataSources shardedDataSources) {
+        return new ShardRouter(shardedDataSources.size());
+    }
+}
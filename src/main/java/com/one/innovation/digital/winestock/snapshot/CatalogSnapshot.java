@@ -0,0 +1,322 @@
+package com.one.innovation.digital.winestock.snapshot;
+
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/** Cópia binária do catálogo em um arquivo mapeado em memória (fora do heap da JVM).
+ Layout: cabeçalho de 64 bytes, um registro de tamanho fixo por vinho (o tipo é gravado pelo ordinal),
+ os textos (nome e marca em UTF-8) e, no fim, uma tabela hash nome -> registro com endereçamento aberto.
+ Abrir o arquivo só mapeia as páginas; nada é lido ou copiado para objetos Java até a primeira consulta,
+ então o tempo de abertura não depende do tamanho do catálogo.
+ */
+public final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x57534E50;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+
+    /** id(8) version(8) nameOffset(4) brandOffset(4) max(4) quantity(4) lowStockThreshold(4)
+     nameLength(2) brandLength(2) type(1), completados até 48 bytes.
+     */
+    private static final int RECORD_SIZE = 48;
+
+    private static final int NO_LOW_STOCK_THRESHOLD = -1;
+
+    private static final int WRITE_BUFFER_RECORDS = 1024;
+
+    private static final WineType[] WINE_TYPES = WineType.values();
+
+    private final ByteBuffer buffer;
+
+    private final int recordCount;
+
+    private final int tableMask;
+
+    private final long maxId;
+
+    private final Instant createdAt;
+
+    private final int heapOffset;
+
+    private final int tableOffset;
+
+    private CatalogSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not a catalog snapshot (or written by an incompatible version).");
+        }
+        this.buffer = buffer;
+        this.recordCount = buffer.getInt(8);
+        this.tableMask = buffer.getInt(12) - 1;
+        this.maxId = buffer.getLong(16);
+        this.createdAt = Instant.ofEpochMilli(buffer.getLong(24));
+        this.heapOffset = (int) buffer.getLong(32);
+        this.tableOffset = (int) buffer.getLong(40);
+    }
+
+    /** O canal pode ser fechado logo após o map: o mapeamento continua válido até ser coletado pelo GC. */
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot is larger than 2 GB: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CatalogSnapshot(mapped);
+        }
+    }
+
+    public int size() {
+        return recordCount;
+    }
+
+    public long maxId() {
+        return maxId;
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    /** Segue a sondagem linear a partir do hash do nome. Os bytes do nome são comparados direto no arquivo,
+     sem criar uma String para cada registro visitado. Apenas leituras absolutas são feitas no buffer,
+     então várias threads podem consultar ao mesmo tempo.
+     */
+    public Optional<WineDTO> findByName(String name) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        for (int slot = hash(name) & tableMask; ; slot = (slot + 1) & tableMask) {
+            int entry = buffer.getInt(tableOffset + slot * Integer.BYTES);
+            if (entry == 0) {
+                return Optional.empty();
+            }
+            int record = recordPosition(entry - 1);
+            if (nameEquals(record, nameBytes)) {
+                return Optional.of(readRecord(record));
+            }
+        }
+    }
+
+    public void forEach(Consumer<WineDTO> consumer) {
+        for (int i = 0; i < recordCount; i++) {
+            consumer.accept(readRecord(recordPosition(i)));
+        }
+    }
+
+    /** Grava o catálogo entregue por source em um arquivo temporário e só então o move para path,
+     para que quem abrir path encontre sempre um snapshot completo (o anterior ou o novo).
+     Os registros vão direto para o arquivo; os textos passam por um segundo arquivo temporário,
+     pois o seu início só é conhecido depois do último registro. Retorna a quantidade de vinhos gravados.
+     */
+    public static int write(Path path, Consumer<Consumer<WineDTO>> source) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "catalog", ".snapshot.tmp");
+        Path heapFile = Files.createTempFile(directory, "catalog", ".heap.tmp");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+             OutputStream heap = new BufferedOutputStream(Files.newOutputStream(heapFile))) {
+            SnapshotWriter writer = new SnapshotWriter(channel, heap);
+            source.accept(writer);
+            writer.finish(heapFile);
+            channel.force(true);
+            Files.move(file, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return writer.count;
+        } catch (SnapshotWriteException e) {
+            throw (IOException) e.getCause();
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(heapFile);
+        }
+    }
+
+    /** Mesmo espalhamento do ShardRouter: nomes parecidos não caem em posições vizinhas da tabela. */
+    private static int hash(String name) {
+        int hash = name.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static int recordPosition(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private boolean nameEquals(int record, byte[] nameBytes) {
+        int length = Short.toUnsignedInt(buffer.getShort(record + 36));
+        if (length != nameBytes.length) {
+            return false;
+        }
+        int offset = heapOffset + buffer.getInt(record + 16);
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + i) != nameBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private WineDTO readRecord(int record) {
+        int lowStockThreshold = buffer.getInt(record + 32);
+        return new WineDTO(
+                buffer.getLong(record),
+                readString(buffer.getInt(record + 16), buffer.getShort(record + 36)),
+                readString(buffer.getInt(record + 20), buffer.getShort(record + 38)),
+                buffer.getInt(record + 24),
+                buffer.getInt(record + 28),
+                WINE_TYPES[buffer.get(record + 40)],
+                lowStockThreshold == NO_LOW_STOCK_THRESHOLD ? null : lowStockThreshold,
+                buffer.getLong(record + 8));
+    }
+
+    private String readString(int offset, short length) {
+        byte[] bytes = new byte[Short.toUnsignedInt(length)];
+        buffer.get(heapOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class SnapshotWriter implements Consumer<WineDTO> {
+
+        private final FileChannel channel;
+
+        private final OutputStream heap;
+
+        private final ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * WRITE_BUFFER_RECORDS);
+
+        private int[] hashes = new int[WRITE_BUFFER_RECORDS];
+
+        private int count;
+
+        private long heapSize;
+
+        private long maxId;
+
+        private SnapshotWriter(FileChannel channel, OutputStream heap) throws IOException {
+            this.channel = channel;
+            this.heap = heap;
+            channel.position(HEADER_SIZE);
+        }
+
+        @Override
+        public void accept(WineDTO wineDTO) {
+            try {
+                byte[] name = wineDTO.getName().getBytes(StandardCharsets.UTF_8);
+                byte[] brand = wineDTO.getBrand().getBytes(StandardCharsets.UTF_8);
+                int position = records.position();
+                records.putLong(wineDTO.getId());
+                records.putLong(wineDTO.getVersion() == null ? 0 : wineDTO.getVersion());
+                records.putInt(appendToHeap(name));
+                records.putInt(appendToHeap(brand));
+                records.putInt(wineDTO.getMax());
+                records.putInt(wineDTO.getQuantity());
+                records.putInt(wineDTO.getLowStockThreshold() == null ? NO_LOW_STOCK_THRESHOLD : wineDTO.getLowStockThreshold());
+                records.putShort((short) name.length);
+                records.putShort((short) brand.length);
+                records.put((byte) wineDTO.getType().ordinal());
+                records.position(position + RECORD_SIZE);
+                if (!records.hasRemaining()) {
+                    flushRecords();
+                }
+                if (count == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, count * 2);
+                }
+                hashes[count++] = hash(wineDTO.getName());
+                maxId = Math.max(maxId, wineDTO.getId());
+            } catch (IOException e) {
+                throw new SnapshotWriteException(e);
+            }
+        }
+
+        private int appendToHeap(byte[] bytes) throws IOException {
+            long offset = heapSize;
+            heap.write(bytes);
+            heapSize += bytes.length;
+            if (heapSize > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot text section is larger than 2 GB.");
+            }
+            return (int) offset;
+        }
+
+        private void flushRecords() throws IOException {
+            records.flip();
+            while (records.hasRemaining()) {
+                channel.write(records);
+            }
+            records.clear();
+        }
+
+        /** Completa o arquivo: textos, tabela hash (com pelo menos o dobro de posições que vinhos,
+         para que as sondagens sejam curtas) e, por último, o cabeçalho.
+         */
+        private void finish(Path heapFile) throws IOException {
+            flushRecords();
+            heap.flush();
+            long heapOffset = channel.position();
+            try (FileChannel heapChannel = FileChannel.open(heapFile, StandardOpenOption.READ)) {
+                long transferred = 0;
+                while (transferred < heapSize) {
+                    transferred += heapChannel.transferTo(transferred, heapSize - transferred, channel);
+                }
+            }
+            long tableOffset = heapOffset + heapSize;
+            int slots = Integer.highestOneBit(Math.max(2, count) * 2 - 1) << 1;
+            int[] table = new int[slots];
+            for (int i = 0; i < count; i++) {
+                int slot = hashes[i] & (slots - 1);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & (slots - 1);
+                }
+                table[slot] = i + 1;
+            }
+            if (tableOffset + (long) slots * Integer.BYTES > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot is larger than 2 GB.");
+            }
+            ByteBuffer tableBuffer = ByteBuffer.allocate(slots * Integer.BYTES);
+            tableBuffer.asIntBuffer().put(table);
+            writeFully(tableBuffer, tableOffset);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putInt(count)
+                    .putInt(slots)
+                    .putLong(maxId)
+                    .putLong(System.currentTimeMillis())
+                    .putLong(heapOffset)
+                    .putLong(tableOffset);
+            header.clear();
+            writeFully(header, 0);
+        }
+
+        private void writeFully(ByteBuffer source, long position) throws IOException {
+            while (source.hasRemaining()) {
+                position += channel.write(source, position);
+            }
+        }
+    }
+
+    /** Leva a IOException da gravação através do Consumer, que não pode lançar exceções verificadas. */
+    private static final class SnapshotWriteException extends RuntimeException {
+
+        private SnapshotWriteException(IOException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.one.innovation.digital.winestock.snapshot;
+
+import com.one.innovation.digital.winestock.cache.CatalogVersion;
+import com.one.innovation.digital.winestock.config.SnapshotProperties;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.inventory.InventoryIndex;
+import com.one.innovation.digital.winestock.search.WineSearchIndex;
+import com.one.innovation.digital.winestock.stats.WineTypeStatistics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "winestock.snapshot.enabled", havingValue = "true")
+/** Partida a quente a partir do snapshot. Se a tabela de vinhos estiver vazia ao iniciar (como no H2 em
+ memória depois de um reinício), o snapshot é mapeado antes de o servidor aceitar requisições e as buscas
+ por nome que não encontram o vinho no banco são respondidas por ele, enquanto uma thread copia os vinhos
+ para o banco em lotes. Terminada a cópia, o snapshot deixa de ser usado.
+ Se a cópia falhar no meio, o banco fica com parte do catálogo: o snapshot continua respondendo pelos vinhos
+ que faltam e não é regravado (o CatalogSnapshotWriter consulta isRestoring) até a aplicação ser reiniciada,
+ quando a cópia recomeça do zero.
+ Durante a cópia, alterações por id (atualização, estoque, exclusão) em um vinho que ainda não chegou
+ ao banco respondem 404, como se o vinho não existisse.
+ */
+public class CatalogSnapshotRestorer implements SmartInitializingSingleton {
+
+    /** O mesmo allocationSize da wine_sequence na entidade Wine. */
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    /** Um vinho cadastrado durante a cópia com o mesmo nome de um vinho do snapshot prevalece sobre ele. */
+    private static final String INSERT_IF_ABSENT = "insert into wine (id, name, brand, max, quantity, type, low_stock_threshold, version) "
+            + "select ?, ?, ?, ?, ?, ?, ?, ? where not exists (select 1 from wine where name = ?)";
+
+    private final SnapshotProperties snapshotProperties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Cada lote é gravado na sua própria transação: no perfil prod as conexões saem do pool com auto-commit
+     desligado, e um INSERT sem transação seria desfeito quando a conexão voltasse ao pool.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    private final WineSearchIndex wineSearchIndex;
+
+    private final InventoryIndex inventoryIndex;
+
+    private final WineTypeStatistics wineTypeStatistics;
+
+    private final CatalogVersion catalogVersion;
+
+    /** Nomes alterados desde a partida: para eles, o snapshot já pode estar desatualizado e só o banco vale. */
+    private final Set<String> changedNames = ConcurrentHashMap.newKeySet();
+
+    /** Diferente de nulo enquanto a cópia para o banco não terminou com sucesso (inclusive depois de uma falha). */
+    private volatile CatalogSnapshot snapshot;
+
+    private volatile boolean restoreFailed;
+
+    public CatalogSnapshotRestorer(SnapshotProperties snapshotProperties, JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   WineSearchIndex wineSearchIndex, InventoryIndex inventoryIndex,
+                                   WineTypeStatistics wineTypeStatistics, CatalogVersion catalogVersion) {
+        this.snapshotProperties = snapshotProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.wineSearchIndex = wineSearchIndex;
+        this.inventoryIndex = inventoryIndex;
+        this.wineTypeStatistics = wineTypeStatistics;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /** Só mapeia o arquivo e ajusta a sequence: o tempo gasto aqui não cresce com o catálogo. */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Path path = snapshotProperties.getPath();
+        if (!Files.exists(path)) {
+            log.info("No catalog snapshot found at {}", path);
+            return;
+        }
+        Long wines = jdbcTemplate.queryForObject("select count(*) from wine", Long.class);
+        if (wines != null && wines > 0) {
+            log.info("Wine table already has {} wines; catalog snapshot {} is not restored", wines, path);
+            return;
+        }
+        CatalogSnapshot opened;
+        try {
+            opened = CatalogSnapshot.open(path);
+        } catch (IOException e) {
+            log.warn("Could not open catalog snapshot {}: {}", path, e.getMessage());
+            return;
+        }
+        /** Os vinhos voltam com os ids do snapshot; os cadastros novos precisam receber ids depois do maior deles.
+         O Hibernate usa o valor lido da sequence como o último id do bloco reservado, daí a folga de um bloco.
+         */
+        jdbcTemplate.execute("alter sequence wine_sequence restart with " + (opened.maxId() + ID_ALLOCATION_SIZE));
+        snapshot = opened;
+        log.info("Serving {} wines from catalog snapshot {} (written at {}) while the database is restored",
+                opened.size(), path, opened.createdAt());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    /** Começa depois da inicialização completa, para não concorrer com a carga do índice de busca. */
+    public void startRestore() {
+        if (snapshot == null) {
+            return;
+        }
+        Thread restoreThread = new Thread(this::restore, "catalog-snapshot-restore");
+        restoreThread.setDaemon(true);
+        restoreThread.start();
+    }
+
+    public boolean isRestoring() {
+        return snapshot != null;
+    }
+
+    public boolean isRestoreFailed() {
+        return restoreFailed;
+    }
+
+    /** Consultado pelo WineService quando o vinho não está no banco. */
+    public Optional<WineDTO> findByName(String name) {
+        CatalogSnapshot current = snapshot;
+        if (current == null || changedNames.contains(name)) {
+            return Optional.empty();
+        }
+        return current.findByName(name);
+    }
+
+    @EventListener
+    /** Tratado na publicação, ainda dentro da transação da escrita, para que não haja um intervalo
+     em que o banco já mudou e o snapshot ainda responde pelo nome.
+     */
+    public void onWineChanged(WineChangedEvent event) {
+        if (snapshot == null) {
+            return;
+        }
+        if (event.getBefore() != null) {
+            changedNames.add(event.getBefore().getName());
+        }
+        if (event.getAfter() != null) {
+            changedNames.add(event.getAfter().getName());
+        }
+    }
+
+    void restore() {
+        CatalogSnapshot current = snapshot;
+        long start = System.nanoTime();
+        int batchSize = snapshotProperties.getRestoreBatchSize();
+        List<WineDTO> batch = new ArrayList<>(batchSize);
+        int[] restored = {0};
+        try {
+            current.forEach(wineDTO -> {
+                batch.add(wineDTO);
+                if (batch.size() == batchSize) {
+                    restored[0] += insertBatch(batch);
+                    batch.clear();
+                }
+            });
+            restored[0] += insertBatch(batch);
+        } catch (RuntimeException e) {
+            restoreFailed = true;
+            log.error("Catalog snapshot restore stopped after {} wines; the snapshot keeps serving the missing wines "
+                    + "and will not be overwritten until the application is restarted", restored[0], e);
+            return;
+        } finally {
+            /** As linhas copiadas não passam pelo WineService (nem publicam eventos): os totais são recontados. */
+            wineTypeStatistics.rebuild();
+            catalogVersion.advance();
+        }
+        snapshot = null;
+        changedNames.clear();
+        log.info("Restored {} of {} wines from the catalog snapshot in {} ms",
+                restored[0], current.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private int insertBatch(List<WineDTO> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<WineDTO> inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> insertAll(batch));
+        } catch (DataIntegrityViolationException e) {
+            /** Um cadastro com o mesmo nome entrou entre a verificação e o INSERT: o lote foi desfeito
+             e é repetido vinho a vinho, cada um na sua transação.
+             */
+            inserted = new ArrayList<>();
+            for (WineDTO wineDTO : batch) {
+                try {
+                    Integer count = transactionTemplate.execute(status -> jdbcTemplate.update(INSERT_IF_ABSENT, ps -> bind(ps, wineDTO)));
+                    if (count != null && count != 0) {
+                        inserted.add(wineDTO);
+                    }
+                } catch (DataIntegrityViolationException ignored) {
+                    log.debug("Wine {} was registered during the restore; the snapshot copy is skipped", wineDTO.getName());
+                }
+            }
+        }
+        /** Só depois do commit: um vinho indexado precisa existir no banco. */
+        inserted.forEach(this::index);
+        /** A listagem muda a cada lote; o ETag do catálogo precisa acompanhar. */
+        catalogVersion.advance();
+        return inserted.size();
+    }
+
+    private List<WineDTO> insertAll(List<WineDTO> batch) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, batch, batch.size(), this::bind);
+        List<WineDTO> inserted = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (counts[0][i] != 0) {
+                inserted.add(batch.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    /** Os índices em memória foram montados com o banco ainda vazio e recebem cada vinho restaurado. */
+    private void index(WineDTO wineDTO) {
+        wineSearchIndex.put(wineDTO.getId(), wineDTO.getName(), wineDTO.getBrand(), wineDTO.getVersion());
+        inventoryIndex.put(wineDTO.getId(), wineDTO.getType(), wineDTO.getQuantity(), wineDTO.getMax(), wineDTO.getVersion());
+    }
+
+    private void bind(PreparedStatement ps, WineDTO wineDTO) throws SQLException {
+        ps.setLong(1, wineDTO.getId());
+        ps.setString(2, wineDTO.getName());
+        ps.setString(3, wineDTO.getBrand());
+        ps.setInt(4, wineDTO.getMax());
+        ps.setInt(5, wineDTO.getQuantity());
+        ps.setString(6, wineDTO.getType().name());
+        if (wineDTO.getLowStockThreshold() == null) {
+            ps.setNull(7, Types.INTEGER);
+        } else {
+            ps.setInt(7, wineDTO.getLowStockThreshold());
+        }
+        ps.setLong(8, wineDTO.getVersion());
+        ps.setString(9, wineDTO.getName());
+    }
+}
@@ -0,0 +1,57 @@
+package com.one.innovation.digital.winestock.snapshot;
+
+import com.one.innovation.digital.winestock.config.SnapshotProperties;
+import com.one.innovation.digital.winestock.service.WineService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "winestock.snapshot.enabled", havingValue = "true")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Grava o snapshot do catálogo periodicamente e no desligamento da aplicação. */
+public class CatalogSnapshotWriter implements DisposableBean {
+
+    private final WineService wineService;
+
+    private final SnapshotProperties snapshotProperties;
+
+    private final CatalogSnapshotRestorer catalogSnapshotRestorer;
+
+    @Scheduled(fixedDelayString = "${winestock.snapshot.interval}", initialDelayString = "${winestock.snapshot.interval}")
+    /** Enquanto o banco ainda está sendo restaurado, ou se a restauração falhou, ele tem só parte do catálogo:
+     gravar agora substituiria o snapshot completo por um parcial.
+     */
+    public synchronized void writeSnapshot() {
+        if (catalogSnapshotRestorer.isRestoreFailed()) {
+            log.warn("Catalog snapshot not written: the restore from it failed and the database is incomplete");
+            return;
+        }
+        if (catalogSnapshotRestorer.isRestoring()) {
+            log.info("Catalog snapshot not written: the database is still being restored from it");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int wines = CatalogSnapshot.write(snapshotProperties.getPath(), wineService::exportAll);
+            log.info("Catalog snapshot with {} wines written to {} in {} ms",
+                    wines, snapshotProperties.getPath(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write the catalog snapshot to {}", snapshotProperties.getPath(), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (snapshotProperties.isWriteOnShutdown()) {
+            writeSnapshot();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.one.innovation.digital.winestock.stats;
+
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.dto.WineTypeStatsDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.repository.WineRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Totais por WineType (vinhos, garrafas e capacidade) mantidos em memória, para que as estatísticas sejam
+ lidas sem percorrer o catálogo. São calculados na inicialização com uma consulta agrupada e ajustados a cada
+ alteração confirmada. Os três totais de um tipo não são lidos de forma atômica entre si.
+ */
+public class WineTypeStatistics implements SmartInitializingSingleton {
+
+    private final WineRepository wineRepository;
+
+    /** Leitura: aplicação de alterações, que podem rodar juntas. Escrita: a recontagem, sozinha. */
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private volatile Map<WineType, Totals> totals = emptyTotals();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /** Recalcula os totais a partir do banco. Os leitores continuam vendo os totais antigos até a troca, e as
+     alterações confirmadas enquanto isso esperam e são aplicadas aos totais novos.
+     */
+    public void rebuild() {
+        Map<WineType, Totals> rebuiltTotals = emptyTotals();
+        rebuildLock.writeLock().lock();
+        try {
+            for (WineRepository.WineTypeTotals row : wineRepository.sumByType()) {
+                Totals typeTotals = rebuiltTotals.get(row.getType());
+                typeTotals.wines.add(row.getWines());
+                typeTotals.bottles.add(row.getBottles());
+                typeTotals.capacity.add(row.getCapacity());
+            }
+            totals = rebuiltTotals;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        log.info("Wine type statistics rebuilt: {} wines", rebuiltTotals.values().stream().mapToLong(t -> t.wines.sum()).sum());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    /** Cobre também a troca de tipo em uma atualização: o vinho sai dos totais de um tipo e entra nos do outro. */
+    public void onWineChanged(WineChangedEvent event) {
+        rebuildLock.readLock().lock();
+        try {
+            if (event.getBefore() != null) {
+                apply(event.getBefore(), -1);
+            }
+            if (event.getAfter() != null) {
+                apply(event.getAfter(), 1);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public long wines(WineType type) {
+        return totals.get(type).wines.sum();
+    }
+
+    /** Um item por WineType, inclusive os que não têm vinhos cadastrados. */
+    public List<WineTypeStatsDTO> all() {
+        return totals.entrySet().stream()
+                .map(entry -> entry.getValue().toDTO(entry.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    private void apply(WineDTO wineDTO, int sign) {
+        if (wineDTO.getType() == null) {
+            return;
+        }
+        Totals typeTotals = totals.get(wineDTO.getType());
+        typeTotals.wines.add(sign);
+        typeTotals.bottles.add((long) sign * valueOf(wineDTO.getQuantity()));
+        typeTotals.capacity.add((long) sign * valueOf(wineDTO.getMax()));
+    }
+
+    private static long valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static Map<WineType, Totals> emptyTotals() {
+        Map<WineType, Totals> totals = new EnumMap<>(WineType.class);
+        for (WineType type : WineType.values()) {
+            totals.put(type, new Totals());
+        }
+        return totals;
+    }
+
+    private static final class Totals {
+
+        private final LongAdder wines = new LongAdder();
+
+        private final LongAdder bottles = new LongAdder();
+
+        private final LongAdder capacity = new LongAdder();
+
+        private WineTypeStatsDTO toDTO(WineType type) {
+            return WineTypeStatsDTO.of(type, wines.sum(), bottles.sum(), capacity.sum());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.one.innovation.digital.winestock.utils;
+
+import com.one.innovation.digital.winestock.exception.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/** Codifica o último id de uma página em um token opaco (Base64 URL-safe), para que o cliente
+ não dependa do formato interno da paginação por chave (keyset).
+ */
+public final class CursorUtils {
+
+    private CursorUtils() {
+    }
+
+    public static String encode(Long lastId) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(lastId).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static Long decode(String cursor) throws InvalidCursorException {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != Long.BYTES) {
+                throw new InvalidCursorException(cursor);
+            }
+            return ByteBuffer.wrap(bytes).getLong();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.one.innovation.digital.winestock.utils;
+
+/** Converte a versão (@Version) de um vinho em ETag e vice-versa. O ETag é forte, pois muda
+ sempre que qualquer campo do vinho é alterado. Também gera os ETags fracos das listagens do catálogo.
+ */
+public final class ETagUtils {
+
+    private static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETagUtils() {
+    }
+
+    public static String toETag(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    public static String toWeakETag(String value) {
+        return "W/\"" + value + "\"";
+    }
+
+    /** Compara o If-None-Match (que pode trazer vários ETags separados por vírgula) com o ETag atual,
+     ignorando o prefixo W/ (comparação fraca), como definido para requisições GET.
+     */
+    public static boolean matchesAny(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = stripWeakPrefix(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (ANY.equals(value) || stripWeakPrefix(value).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Retorna nulo quando o cliente aceita qualquer versão (If-Match: *).
+     Lança NumberFormatException quando o ETag não foi gerado por esta API.
+     */
+    public static Long toVersion(String eTag) {
+        String value = eTag.trim();
+        if (ANY.equals(value)) {
+            return null;
+        }
+        return Long.valueOf(stripWeakPrefix(value).replace("\"", ""));
+    }
+
+    private static String stripWeakPrefix(String eTag) {
+        return eTag.startsWith(WEAK_PREFIX) ? eTag.substring(WEAK_PREFIX.length()) : eTag;
+    }
+}
@@ -0,0 +1,32 @@
+package com.one.innovation.digital.winestock.utils;
+
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.SQLException;
+
+/** Distingue, entre as violações de integridade, a de chave única (SQLState 23505): na tabela wine, a do nome,
+ já que o id vem da sequência. As outras (coluna nula, valor fora do tipo) não são um nome repetido e devem
+ seguir como erro.
+ */
+public final class UniqueViolationUtils {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private UniqueViolationUtils() {
+    }
+
+    /** O JdbcTemplate e o R2DBC já traduzem o 23505 em DuplicateKeyException; pelo JPA chega uma
+     DataIntegrityViolationException genérica, e o SQLState é lido da SQLException na cadeia de causas.
+     */
+    public static boolean isUniqueViolation(Throwable throwable) {
+        if (throwable instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && UNIQUE_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
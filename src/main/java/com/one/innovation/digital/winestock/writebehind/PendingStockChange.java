@@ -0,0 +1,20 @@
+package com.one.innovation.digital.winestock.writebehind;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+/** Variação líquida de estoque de um vinho retirada do buffer em um flush, e quantas variações aceitas ela soma. */
+public class PendingStockChange {
+
+    private final Long wineId;
+
+    private final long netDelta;
+
+    private final int count;
+}
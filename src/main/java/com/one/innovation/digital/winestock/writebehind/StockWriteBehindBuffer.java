@@ -0,0 +1,336 @@
+package com.one.innovation.digital.winestock.writebehind;
+
+import com.one.innovation.digital.winestock.config.WriteBehindProperties;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "winestock.write-behind.enabled", havingValue = "true")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Acumula em memória os incrementos e decrementos de estoque por vinho e os grava em lotes.
+ Em um vinho muito movimentado, milhares de requisições viram um único UPDATE por flush, com a soma das
+ variações, em vez de milhares de transações disputando o lock da mesma linha.
+ Cada variação é validada ao chegar contra a quantidade projetada do vinho (último estado confirmado mais as
+ variações ainda não gravadas): vinho inexistente ou estoque fora do intervalo respondem na hora, como no modo
+ síncrono. A soma gravada no flush só é recusada se uma escrita fora do buffer (atualização do vinho, escrita
+ síncrona) mudou a quantidade ou o máximo desde o último flush; nesse caso ela é descartada e o vinho relido.
+ O vinho sai do buffer um flush depois de ficar sem variações. Com maxPending variações pendentes, o buffer
+ recusa novas (enqueue retorna false) e o controller grava de forma síncrona.
+ As variações aceitas e ainda não gravadas existem apenas em memória: elas são gravadas no encerramento
+ normal da aplicação, mas se perdem se o processo for interrompido à força.
+ */
+public class StockWriteBehindBuffer implements SmartLifecycle {
+
+    public static final String PENDING_GAUGE = "winestock.writebehind.pending";
+    public static final String FLUSHED_COUNTER = "winestock.writebehind.flushed";
+    public static final String REJECTED_COUNTER = "winestock.writebehind.rejected";
+
+    private final WriteBehindProperties writeBehindProperties;
+
+    private final StockWriteBehindFlusher stockWriteBehindFlusher;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, PendingStock> pendingStocks = new ConcurrentHashMap<>();
+
+    /** Flushes seguidos em que o vinho falhou sozinho; só é acessado dentro do flush, que é sincronizado. */
+    private final Map<Long, Integer> failedFlushes = new HashMap<>();
+
+    private final AtomicLong pendingOperations = new AtomicLong();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public void start() {
+        Gauge.builder(PENDING_GAUGE, pendingOperations, AtomicLong::get)
+                .description("Stock changes accepted and not yet written to the database")
+                .register(meterRegistry);
+        long interval = writeBehindProperties.getFlushInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        running.set(true);
+    }
+
+    /** Retorna false, sem acumular, quando o buffer já tem maxPending variações pendentes. */
+    public boolean enqueue(Long id, int delta) throws WineNotFoundException, WineStockExceededException {
+        if (executor.isShutdown()) {
+            throw new IllegalStateException("The stock write-behind buffer is closed.");
+        }
+        if (pendingOperations.get() >= writeBehindProperties.getMaxPending()) {
+            return false;
+        }
+        while (!pendingStockOf(id).add(id, delta, stockWriteBehindFlusher)) {
+            /** O vinho saiu do buffer entre a leitura do mapa e o lock: tenta com uma entrada nova. */
+        }
+        /** Ao atingir o limite, antecipa o flush; a partir daí as novas variações são gravadas de forma síncrona. */
+        if (pendingOperations.incrementAndGet() == writeBehindProperties.getMaxPending()) {
+            executor.execute(this::flush);
+        }
+        return true;
+    }
+
+    public long pending() {
+        return pendingOperations.get();
+    }
+
+    /** Sincronizado para que o flush final do encerramento não concorra com um flush agendado.
+     As métricas flushed e rejected contam variações, na mesma unidade do gauge pending.
+     */
+    public synchronized void flush() {
+        List<PendingStockChange> drained = new ArrayList<>();
+        pendingStocks.forEach((id, pendingStock) -> {
+            int count;
+            long netDelta;
+            synchronized (pendingStock) {
+                count = pendingStock.count;
+                netDelta = pendingStock.netDelta;
+                if (count == 0 && pendingStock.inFlight == 0) {
+                    pendingStock.retired = true;
+                    pendingStocks.remove(id, pendingStock);
+                    return;
+                }
+                /** O contador cai exatamente pelo que foi retirado; o que chegar depois fica para o próximo flush. */
+                pendingOperations.addAndGet(-count);
+                pendingStock.inFlight += netDelta;
+                pendingStock.netDelta = 0;
+                pendingStock.count = 0;
+            }
+            if (netDelta != 0) {
+                drained.add(new PendingStockChange(id, netDelta, count));
+            } else {
+                /** Variações que se anulam não geram UPDATE, como se todas tivessem sido gravadas. */
+                meterRegistry.counter(FLUSHED_COUNTER).increment(count);
+            }
+        });
+        int batchSize = writeBehindProperties.getBatchSize();
+        for (int start = 0; start < drained.size(); start += batchSize) {
+            List<PendingStockChange> batch = drained.subList(start, Math.min(start + batchSize, drained.size()));
+            try {
+                applyBatch(batch);
+            } catch (RuntimeException e) {
+                if (isDatabaseUnavailable(e)) {
+                    /** Sem banco, todos os lotes falhariam: as variações deste e dos seguintes voltam para o próximo flush. */
+                    log.error("Could not flush buffered stock changes, retrying on the next flush", e);
+                    requeue(drained.subList(start, drained.size()));
+                    return;
+                }
+                if (!applyOneByOne(batch)) {
+                    requeue(drained.subList(Math.min(start + batchSize, drained.size()), drained.size()));
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Executado no encerramento, depois que o servidor parou de receber requisições (fase menor que a do
+     servidor web) e antes de os beans serem destruídos, enquanto o WineService e os ouvintes ainda funcionam.
+     */
+    @Override
+    public void stop() {
+        running.set(false);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (pendingOperations.get() > 0) {
+            log.error("{} buffered stock changes could not be written on shutdown", pendingOperations.get());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private PendingStock pendingStockOf(Long id) throws WineNotFoundException {
+        PendingStock pendingStock = pendingStocks.get(id);
+        if (pendingStock != null) {
+            return pendingStock;
+        }
+        WineDTO current = stockWriteBehindFlusher.currentStock(id);
+        PendingStock created = new PendingStock(current.getQuantity(), current.getMax());
+        PendingStock raced = pendingStocks.putIfAbsent(id, created);
+        return raced != null ? raced : created;
+    }
+
+    private void applyBatch(List<PendingStockChange> batch) {
+        Map<Long, WineDTO> applied = stockWriteBehindFlusher.applyBatch(batch);
+        int flushed = 0;
+        int rejected = 0;
+        for (PendingStockChange change : batch) {
+            failedFlushes.remove(change.getWineId());
+            WineDTO after = applied.get(change.getWineId());
+            settle(change, after);
+            if (after != null) {
+                flushed += change.getCount();
+            } else {
+                rejected += change.getCount();
+            }
+        }
+        meterRegistry.counter(FLUSHED_COUNTER).increment(flushed);
+        meterRegistry.counter(REJECTED_COUNTER).increment(rejected);
+    }
+
+    /** O lote foi desfeito por um erro que não é falta de banco: cada vinho é reaplicado na sua própria transação,
+     para que um vinho problemático não impeça a gravação dos outros. O vinho que falha sozinho volta para o
+     próximo flush até maxFailedFlushes vezes seguidas; depois disso a sua variação é descartada.
+     Retorna false se o banco ficou indisponível no meio, e então o restante do lote já foi devolvido.
+     */
+    private boolean applyOneByOne(List<PendingStockChange> batch) {
+        for (int index = 0; index < batch.size(); index++) {
+            PendingStockChange change = batch.get(index);
+            try {
+                applyBatch(List.of(change));
+            } catch (RuntimeException e) {
+                if (isDatabaseUnavailable(e)) {
+                    log.error("Could not flush buffered stock changes, retrying on the next flush", e);
+                    requeue(batch.subList(index, batch.size()));
+                    return false;
+                }
+                int failures = failedFlushes.merge(change.getWineId(), 1, Integer::sum);
+                if (failures < writeBehindProperties.getMaxFailedFlushes()) {
+                    log.error("Could not flush buffered stock changes for wine {}, retrying on the next flush",
+                            change.getWineId(), e);
+                    requeue(List.of(change));
+                } else {
+                    log.error("Discarding {} buffered stock changes for wine {} after {} failed flushes",
+                            change.getCount(), change.getWineId(), failures, e);
+                    failedFlushes.remove(change.getWineId());
+                    settle(change, null);
+                    meterRegistry.counter(REJECTED_COUNTER).increment(change.getCount());
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Falhas de conexão ou de início de transação atingem todos os vinhos igualmente e não contam como
+     falha do vinho: as variações esperam o banco voltar, sem limite de tentativas.
+     */
+    private static boolean isDatabaseUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    /** Com o vinho gravado, a quantidade confirmada passa a ser a do UPDATE, que também reflete as escritas
+     feitas fora do buffer. Sem ele (vinho recusado ou descartado), o vinho é relido na próxima variação.
+     */
+    private void settle(PendingStockChange change, WineDTO after) {
+        PendingStock pendingStock = pendingStocks.get(change.getWineId());
+        synchronized (pendingStock) {
+            pendingStock.inFlight -= change.getNetDelta();
+            if (after != null) {
+                pendingStock.quantity = after.getQuantity();
+                pendingStock.max = after.getMax();
+            } else {
+                pendingStock.reload = true;
+            }
+        }
+    }
+
+    /** A variação devolvida volta a ser pendente e a contar no gauge. O vinho continua no mapa enquanto há
+     variação em gravação (o flush só remove entradas sem variações, e os flushes não concorrem entre si).
+     */
+    private void requeue(List<PendingStockChange> changes) {
+        long operations = 0;
+        for (PendingStockChange change : changes) {
+            PendingStock pendingStock = pendingStocks.get(change.getWineId());
+            synchronized (pendingStock) {
+                pendingStock.inFlight -= change.getNetDelta();
+                pendingStock.netDelta += change.getNetDelta();
+                pendingStock.count += change.getCount();
+            }
+            operations += change.getCount();
+        }
+        pendingOperations.addAndGet(operations);
+    }
+
+    /** Estado de um vinho no buffer; todos os campos são acessados com o lock do próprio objeto. */
+    private static final class PendingStock {
+
+        /** Último estado confirmado conhecido: lido do banco na primeira variação e atualizado a cada flush. */
+        private int quantity;
+
+        private int max;
+
+        private boolean reload;
+
+        private long netDelta;
+
+        private int count;
+
+        /** Retirado pelo flush em andamento e ainda não confirmado. */
+        private long inFlight;
+
+        /** Removido do mapa: uma variação que chegue por esta referência precisa de uma entrada nova. */
+        private boolean retired;
+
+        private PendingStock(int quantity, int max) {
+            this.quantity = quantity;
+            this.max = max;
+        }
+
+        /** Retorna false se a entrada já saiu do mapa. A releitura acontece com o lock, mas só depois de
+         um flush recusado, que é raro.
+         */
+        private synchronized boolean add(Long id, int delta, StockWriteBehindFlusher flusher)
+                throws WineNotFoundException, WineStockExceededException {
+            if (retired) {
+                return false;
+            }
+            if (reload) {
+                WineDTO current = flusher.currentStock(id);
+                quantity = current.getQuantity();
+                max = current.getMax();
+                reload = false;
+            }
+            long projected = quantity + inFlight + netDelta + delta;
+            if (projected < 0 || projected > max) {
+                throw new WineStockExceededException(id, delta);
+            }
+            netDelta += delta;
+            count++;
+            return true;
+        }
+    }
+}
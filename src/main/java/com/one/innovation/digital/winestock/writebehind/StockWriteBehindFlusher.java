@@ -0,0 +1,54 @@
+package com.one.innovation.digital.winestock.writebehind;
+
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import com.one.innovation.digital.winestock.service.WineService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "winestock.write-behind.enabled", havingValue = "true")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Aplica um lote de variações acumuladas pelo StockWriteBehindBuffer em uma única transação.
+ Cada vinho recebe um só UPDATE com a variação líquida, pelo mesmo caminho do incremento e do decremento
+ síncronos: os eventos (ledger, cache, alertas) continuam sendo publicados.
+ */
+public class StockWriteBehindFlusher {
+
+    private final WineService wineService;
+
+    /** Estado confirmado do vinho, usado pelo buffer para validar as variações no momento em que chegam. */
+    public WineDTO currentStock(Long id) throws WineNotFoundException {
+        return wineService.findById(id);
+    }
+
+    /** Retorna o vinho como ficou depois do UPDATE, para cada vinho gravado. Vinho excluído ou quantidade
+     fora do intervalo permitido ficam de fora: esses erros não desfazem o lote (o UPDATE condicional recusado
+     não altera nada); qualquer outra exceção desfaz a transação inteira.
+     */
+    @Transactional
+    public Map<Long, WineDTO> applyBatch(List<PendingStockChange> batch) {
+        Map<Long, WineDTO> applied = new HashMap<>();
+        for (PendingStockChange change : batch) {
+            Long id = change.getWineId();
+            int delta = Math.toIntExact(change.getNetDelta());
+            try {
+                applied.put(id, delta > 0 ? wineService.increment(id, delta) : wineService.decrement(id, -delta));
+            } catch (WineNotFoundException | WineStockExceededException e) {
+                log.warn("Discarding {} buffered stock changes (net {}) for wine {}: {}",
+                        change.getCount(), delta, id, e.getMessage());
+            }
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,84 @@
+package com.one.innovation.digital.winestock.controller;
+
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+// O tipo da aplicação também vai aqui: o teste decide entre servlet e reativa antes de ler o perfil.
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+/** As escritas da variante reativa gravam o ledger e a outbox pelo R2DBC, na mesma transação do vinho. */
+public class ReactiveWineChangeLogTest {
+
+    private static final String WINE_API_URL_PATH = "/api/v1/wines";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void whenAWineIsCreatedAndIncrementedThenTheLedgerAndTheOutboxShouldHaveBothChanges() {
+        // given
+        String body = "{\"name\": \"Reactive Malbec\", \"brand\": \"Flux\", \"max\": 50, "
+                + "\"quantity\": 10, \"type\": \"REDWINE\"}";
+
+        // when
+        WineDTO createdWine = webTestClient.post().uri(WINE_API_URL_PATH)
+                .header("Content-Type", "application/json")
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(WineDTO.class)
+                .returnResult().getResponseBody();
+        webTestClient.patch().uri(WINE_API_URL_PATH + "/" + createdWine.getId() + "/increment")
+                .header("Content-Type", "application/json")
+                .bodyValue("{\"quantity\": 5}")
+                .exchange()
+                .expectStatus().isOk();
+
+        // then
+        assertThat(count("select count(*) from stock_movement where wine_id = ?", createdWine.getId()), is(2));
+        assertThat(count("select sum(delta) from stock_movement where wine_id = ?", createdWine.getId()), is(15));
+        assertThat(count("select count(*) from wine_change where wine_id = ?", createdWine.getId()), is(2));
+    }
+
+    @Test
+    void whenAnIncrementIsRejectedThenNothingShouldBeRecorded() {
+        // given
+        String body = "{\"name\": \"Reactive Syrah\", \"brand\": \"Flux\", \"max\": 10, "
+                + "\"quantity\": 10, \"type\": \"REDWINE\"}";
+        WineDTO createdWine = webTestClient.post().uri(WINE_API_URL_PATH)
+                .header("Content-Type", "application/json")
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(WineDTO.class)
+                .returnResult().getResponseBody();
+
+        // when
+        webTestClient.patch().uri(WINE_API_URL_PATH + "/" + createdWine.getId() + "/increment")
+                .header("Content-Type", "application/json")
+                .bodyValue("{\"quantity\": 5}")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        // then
+        assertThat(count("select count(*) from stock_movement where wine_id = ?", createdWine.getId()), is(1));
+        assertThat(count("select count(*) from wine_change where wine_id = ?", createdWine.getId()), is(1));
+    }
+
+    private int count(String sql, Long wineId) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, wineId);
+    }
+}
@@ -0,0 +1,169 @@
+package com.one.innovation.digital.winestock.service;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.changes.ReactiveChangeLog;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.entity.WineRecord;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import com.one.innovation.digital.winestock.mapper.WineRecordMapper;
+import com.one.innovation.digital.winestock.repository.ReactiveWineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveWineServiceTest {
+
+    @Mock
+    private ReactiveWineRepository reactiveWineRepository;
+
+    @Mock
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    @Mock
+    private ReactiveChangeLog reactiveChangeLog;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final WineRecordMapper wineRecordMapper = WineRecordMapper.INSTANCE;
+
+    @InjectMocks
+    private ReactiveWineService reactiveWineService;
+
+    /** Sem banco, a transação reativa só repassa o Mono que recebe. */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(reactiveChangeLog.record(any(WineChangedEvent.class))).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void whenWineInformedThenItShouldBeInsertedWithTheNextSequenceId() {
+        // given
+        WineDTO expectedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        WineRecord expectedSavedRecord = wineRecordMapper.toRecord(expectedWineDTO);
+
+        // when
+        when(reactiveWineRepository.existsByName(expectedWineDTO.getName())).thenReturn(Mono.just(false));
+        when(reactiveWineRepository.nextId()).thenReturn(Mono.just(expectedWineDTO.getId()));
+        when(r2dbcEntityTemplate.insert(any(WineRecord.class))).thenReturn(Mono.just(expectedSavedRecord));
+
+        // then
+        /** O StepVerifier assina o Mono e confere cada sinal emitido, na ordem. */
+        StepVerifier.create(reactiveWineService.createWine(expectedWineDTO))
+                .expectNext(expectedWineDTO)
+                .verifyComplete();
+        verify(reactiveChangeLog, times(1)).record(any(WineChangedEvent.class));
+        ArgumentCaptor<Object> publishedEvent = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(1)).publishEvent(publishedEvent.capture());
+        assertThat(((WineChangedEvent) publishedEvent.getValue()).isChangeLogged(), is(true));
+    }
+
+    @Test
+    void whenAlreadyRegisteredWineInformedThenAnErrorShouldBeEmittedWithoutInserting() {
+        // given
+        WineDTO duplicatedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+
+        // when
+        when(reactiveWineRepository.existsByName(duplicatedWineDTO.getName())).thenReturn(Mono.just(true));
+
+        // then
+        StepVerifier.create(reactiveWineService.createWine(duplicatedWineDTO))
+                .expectError(WineAlreadyRegisteredException.class)
+                .verify();
+        verify(r2dbcEntityTemplate, never()).insert(any(WineRecord.class));
+    }
+
+    @Test
+    void whenConcurrentInsertViolatesTheUniqueNameThenAlreadyRegisteredShouldBeEmitted() {
+        // given
+        WineDTO duplicatedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+
+        // when
+        when(reactiveWineRepository.existsByName(duplicatedWineDTO.getName())).thenReturn(Mono.just(false));
+        when(reactiveWineRepository.nextId()).thenReturn(Mono.just(duplicatedWineDTO.getId()));
+        when(r2dbcEntityTemplate.insert(any(WineRecord.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("unique")));
+
+        // then
+        StepVerifier.create(reactiveWineService.createWine(duplicatedWineDTO))
+                .expectError(WineAlreadyRegisteredException.class)
+                .verify();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void whenNotRegisteredWineNameIsGivenThenNotFoundShouldBeEmitted() {
+        // when
+        when(reactiveWineRepository.findByName("unknown")).thenReturn(Mono.empty());
+
+        // then
+        StepVerifier.create(reactiveWineService.findByName("unknown"))
+                .expectError(WineNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void whenDecrementIsGreaterThanStockThenStockExceededShouldBeEmitted() {
+        // given
+        WineDTO expectedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        WineRecord expectedRecord = wineRecordMapper.toRecord(expectedWineDTO);
+
+        // when
+        when(reactiveWineRepository.adjustQuantity(expectedWineDTO.getId(), -1000)).thenReturn(Mono.just(0));
+        when(reactiveWineRepository.findById(expectedWineDTO.getId())).thenReturn(Mono.just(expectedRecord));
+
+        // then
+        StepVerifier.create(reactiveWineService.decrement(expectedWineDTO.getId(), 1000))
+                .expectError(WineStockExceededException.class)
+                .verify();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void whenTheChangeLogFailsThenTheEventShouldNotBePublished() {
+        // given
+        WineDTO expectedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        WineRecord expectedRecord = wineRecordMapper.toRecord(expectedWineDTO);
+        IllegalStateException changeLogFailure = new IllegalStateException("outbox");
+
+        // when
+        when(reactiveWineRepository.adjustQuantity(expectedWineDTO.getId(), 1)).thenReturn(Mono.just(1));
+        when(reactiveWineRepository.findById(expectedWineDTO.getId())).thenReturn(Mono.just(expectedRecord));
+        when(reactiveChangeLog.record(any(WineChangedEvent.class))).thenReturn(Mono.error(changeLogFailure));
+
+        // then
+        StepVerifier.create(reactiveWineService.increment(expectedWineDTO.getId(), 1))
+                .expectErrorSatisfies(error -> assertThat(error, is(changeLogFailure)))
+                .verify();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
@@ -0,0 +1,77 @@
+package com.one.innovation.digital.winestock.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Equivalente reativo do StockLedgerRecorder e do WineChangeRecorder: grava a movimentação de estoque e a
+ alteração na outbox pelo R2DBC, para que o ReactiveWineService as inclua na mesma transação da escrita do vinho.
+ Os gravadores JDBC usam o JPA e bloqueariam a thread do reactor, fora dessa transação.
+ */
+public class ReactiveChangeLog {
+
+    private final DatabaseClient databaseClient;
+
+    private final ObjectMapper objectMapper;
+
+    public Mono<Void> record(WineChangedEvent event) {
+        return recordMovement(event).then(recordChange(event));
+    }
+
+    /** Os ids vêm das mesmas sequences do JPA, como no ReactiveWineRepository.nextId(). */
+    private Mono<Void> recordMovement(WineChangedEvent event) {
+        int delta = quantityOf(event.getAfter()) - quantityOf(event.getBefore());
+        if (delta == 0) {
+            return Mono.empty();
+        }
+        return databaseClient.sql("insert into stock_movement (id, wine_id, delta, reason, occurred_at) " +
+                        "values (next value for stock_movement_sequence, :wineId, :delta, :reason, :occurredAt)")
+                .bind("wineId", event.getWineId())
+                .bind("delta", delta)
+                .bind("reason", event.getOperation().name())
+                .bind("occurredAt", Instant.now())
+                .then();
+    }
+
+    /** A linha nasce sem sequence; o WineChangeFeed atribui a posição depois do commit, como nas escritas JDBC. */
+    private Mono<Void> recordChange(WineChangedEvent event) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql("insert into wine_change " +
+                        "(id, wine_id, operation, before_json, after_json, occurred_at) " +
+                        "values (next value for wine_change_sequence, :wineId, :operation, :beforeJson, :afterJson, :occurredAt)")
+                .bind("wineId", event.getWineId())
+                .bind("operation", event.getOperation().name())
+                .bind("occurredAt", Instant.now());
+        insert = bindJson(insert, "beforeJson", event.getBefore());
+        insert = bindJson(insert, "afterJson", event.getAfter());
+        return insert.then();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindJson(DatabaseClient.GenericExecuteSpec insert, String name, WineDTO wineDTO) {
+        if (wineDTO == null) {
+            return insert.bindNull(name, String.class);
+        }
+        try {
+            return insert.bind(name, objectMapper.writeValueAsString(wineDTO));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Antes do cadastro e depois da exclusão, o vinho não existe: a quantidade é zero. */
+    private int quantityOf(WineDTO wineDTO) {
+        return wineDTO == null || wineDTO.getQuantity() == null ? 0 : wineDTO.getQuantity();
+    }
+}
@@ -0,0 +1,41 @@
+package com.one.innovation.digital.winestock.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+/** O Spring Boot deixa de criar o DataSource JDBC quando encontra uma ConnectionFactory do R2DBC no classpath.
+ Como o JPA continua sendo usado (inclusive para criar o schema que a variante reativa lê), o DataSource é
+ declarado aqui, a partir das mesmas propriedades spring.datasource.*. Só faz parte do build com o perfil reactive.
+ */
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    @ConditionalOnProperty(name = "winestock.replica.enabled", havingValue = "false", matchIfMissing = true)
+    /** Com as réplicas ligadas, o pool do banco principal é criado pelo ReplicaDataSourceConfig. */
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    /** Com o R2DBC também existe um gerenciador de transações reativo. O do JPA é o principal, para que
+     os @Transactional sem qualificador (WineService e repositórios) continuem usando a conexão JDBC.
+     */
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
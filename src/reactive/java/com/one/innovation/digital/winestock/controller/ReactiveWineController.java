@@ -0,0 +1,68 @@
+package com.one.innovation.digital.winestock.controller;
+
+import com.one.innovation.digital.winestock.dto.QuantityDTO;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.service.ReactiveWineService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/v1/wines")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Variante reativa (WebFlux) do WineController, ativada com spring.main.web-application-type=reactive
+ (perfil reactive). Responde nos mesmos caminhos, mas cada requisição libera a thread enquanto espera pelo banco,
+ então poucas threads do event loop atendem muitas conexões simultâneas.
+ */
+public class ReactiveWineController {
+
+    private final ReactiveWineService reactiveWineService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<WineDTO> createWine(@RequestBody @Valid WineDTO wineDTO) {
+        return reactiveWineService.createWine(wineDTO);
+    }
+
+    @GetMapping("/{name}")
+    public Mono<WineDTO> findByName(@PathVariable String name) {
+        return reactiveWineService.findByName(name);
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    /** Com Accept: application/x-ndjson, cada vinho é escrito assim que sai do banco, e o ritmo de leitura
+     acompanha o do cliente (backpressure). Com application/json, a resposta é um array, como no WineController.
+     */
+    public Flux<WineDTO> listWines() {
+        return reactiveWineService.listAll();
+    }
+
+    @PutMapping("/{id}")
+    public Mono<WineDTO> update(@PathVariable Long id, @RequestBody @Valid WineDTO wineDTO) {
+        return reactiveWineService.update(id, wineDTO);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteById(@PathVariable Long id) {
+        return reactiveWineService.deleteById(id);
+    }
+
+    @PatchMapping("/{id}/increment")
+    public Mono<WineDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) {
+        return reactiveWineService.increment(id, quantityDTO.getQuantity());
+    }
+
+    @PatchMapping("/{id}/decrement")
+    public Mono<WineDTO> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) {
+        return reactiveWineService.decrement(id, quantityDTO.getQuantity());
+    }
+}
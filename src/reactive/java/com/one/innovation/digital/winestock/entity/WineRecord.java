@@ -0,0 +1,38 @@
+package com.one.innovation.digital.winestock.entity;
+
+import com.one.innovation.digital.winestock.enums.WineType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("wine")
+/** Mapeamento da mesma tabela wine para o R2DBC, usado pela variante reativa da API.
+ O R2DBC não cria tabelas: o schema continua sendo gerado pelo JPA a partir da entidade Wine.
+ As colunas seguem a mesma convenção de nomes (lowStockThreshold -> low_stock_threshold).
+ */
+public class WineRecord {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    private String brand;
+
+    private int max;
+
+    private int quantity;
+
+    private WineType type;
+
+    private Integer lowStockThreshold;
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,17 @@
+package com.one.innovation.digital.winestock.mapper;
+
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.entity.WineRecord;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+@Mapper
+/** Conversões do WineRecord (R2DBC), separadas do WineMapper porque só existem no build com o perfil reactive. */
+public interface WineRecordMapper {
+
+    WineRecordMapper INSTANCE = Mappers.getMapper(WineRecordMapper.class);
+
+    WineRecord toRecord(WineDTO wineDTO);
+
+    WineDTO toDTO(WineRecord wineRecord);
+}
@@ -0,0 +1,31 @@
+package com.one.innovation.digital.winestock.repository;
+
+import com.one.innovation.digital.winestock.entity.WineRecord;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+/** Equivalente reativo do WineRepository: as consultas não bloqueiam a thread que as chama e os resultados
+ chegam como Mono (um valor) ou Flux (vários valores, entregues conforme a demanda do consumidor).
+ */
+public interface ReactiveWineRepository extends R2dbcRepository<WineRecord, Long> {
+
+    Mono<WineRecord> findByName(String name);
+
+    Mono<Boolean> existsByName(String name);
+
+    /** Usa a mesma sequence do JPA. Cada valor lido aqui é usado como um único id, e os blocos reservados
+     pelo otimizador pooled do Hibernate ficam entre valores distintos da sequence, então os ids não se repetem.
+     */
+    @Query("select next value for wine_sequence")
+    Mono<Long> nextId();
+
+    /** Mesmo UPDATE condicional do WineRepository: retorna 0 quando o vinho não existe ou o limite seria ultrapassado. */
+    @Modifying
+    @Query("update wine set quantity = quantity + :delta, version = version + 1 " +
+            "where id = :id and quantity + :delta between 0 and max")
+    Mono<Integer> adjustQuantity(Long id, int delta);
+}
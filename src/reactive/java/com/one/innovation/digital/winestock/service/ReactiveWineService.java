@@ -0,0 +1,169 @@
+package com.one.innovation.digital.winestock.service;
+
+import com.one.innovation.digital.winestock.changes.ReactiveChangeLog;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.entity.WineRecord;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import com.one.innovation.digital.winestock.exception.WineVersionMismatchException;
+import com.one.innovation.digital.winestock.mapper.WineMapper;
+import com.one.innovation.digital.winestock.mapper.WineRecordMapper;
+import com.one.innovation.digital.winestock.repository.ReactiveWineRepository;
+import com.one.innovation.digital.winestock.utils.UniqueViolationUtils;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+/** Versão reativa do WineService. Nenhum método bloqueia: cada etapa (verificação, escrita, leitura)
+ é encadeada e só executa quando a anterior termina. Cada escrita, a sua movimentação no ledger e a sua
+ linha na outbox são gravadas pelo R2DBC em uma única transação reativa (TransactionalOperator).
+ Depois do commit, os mesmos WineChangedEvent são publicados, marcados como já registrados, para que o cache,
+ os alertas e os demais ouvintes continuem recebendo as alterações.
+ */
+public class ReactiveWineService {
+
+    private final ReactiveWineRepository reactiveWineRepository;
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    private final ReactiveChangeLog reactiveChangeLog;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final WineMapper wineMapper = WineMapper.INSTANCE;
+
+    private final WineRecordMapper wineRecordMapper = WineRecordMapper.INSTANCE;
+
+    /** A verificação por nome evita a maioria dos duplicados sem tentar o INSERT; se dois cadastros
+     do mesmo nome chegarem juntos, a restrição unique do banco recusa o segundo, que recebe o mesmo erro.
+ As demais violações de integridade seguem como erro.
+     */
+    public Mono<WineDTO> createWine(WineDTO wineDTO) {
+        return reactiveWineRepository.existsByName(wineDTO.getName())
+                .flatMap(exists -> exists
+                        ? Mono.<WineDTO>error(new WineAlreadyRegisteredException(wineDTO.getName()))
+                        : insert(wineDTO))
+                .map(createdWineDTO -> new WineChangedEvent(WineOperation.CREATE, null, createdWineDTO, true))
+                .flatMap(this::recordChange)
+                .as(transactionalOperator::transactional)
+                .onErrorMap(UniqueViolationUtils::isUniqueViolation,
+                        e -> new WineAlreadyRegisteredException(wineDTO.getName()))
+                .doOnNext(eventPublisher::publishEvent)
+                .map(WineChangedEvent::getAfter);
+    }
+
+    public Mono<WineDTO> findByName(String name) {
+        return reactiveWineRepository.findByName(name)
+                .switchIfEmpty(Mono.error(() -> new WineNotFoundException(name)))
+                .map(wineRecordMapper::toDTO);
+    }
+
+    /** As linhas são entregues conforme o consumidor as pede (backpressure), sem montar a lista inteira em memória. */
+    public Flux<WineDTO> listAll() {
+        return reactiveWineRepository.findAll(Sort.by("id"))
+                .map(wineRecordMapper::toDTO);
+    }
+
+    public Mono<WineDTO> update(Long id, WineDTO wineDTO) {
+        return verifyIfExists(id)
+                .flatMap(registeredWine -> {
+                    if (wineDTO.getVersion() != null && !wineDTO.getVersion().equals(registeredWine.getVersion())) {
+                        return Mono.error(new WineVersionMismatchException(id, wineDTO.getVersion()));
+                    }
+                    WineDTO previousWineDTO = wineRecordMapper.toDTO(registeredWine);
+                    WineRecord wineRecord = wineRecordMapper.toRecord(wineDTO);
+                    wineRecord.setId(id);
+                    wineRecord.setVersion(registeredWine.getVersion());
+                    return r2dbcEntityTemplate.update(wineRecord)
+                            .onErrorMap(OptimisticLockingFailureException.class,
+                                    e -> new WineVersionMismatchException(id, registeredWine.getVersion()))
+                            .map(updatedWineRecord -> new WineChangedEvent(WineOperation.UPDATE,
+                                    previousWineDTO, wineRecordMapper.toDTO(updatedWineRecord), true));
+                })
+                .flatMap(this::recordChange)
+                .as(transactionalOperator::transactional)
+                /** Renomeado para o nome de outro vinho. */
+                .onErrorMap(UniqueViolationUtils::isUniqueViolation,
+                        e -> new WineAlreadyRegisteredException(wineDTO.getName()))
+                .doOnNext(eventPublisher::publishEvent)
+                .map(WineChangedEvent::getAfter);
+    }
+
+    public Mono<WineDTO> increment(Long id, int quantityToIncrement) {
+        return adjustQuantity(id, quantityToIncrement, WineOperation.INCREMENT);
+    }
+
+    public Mono<WineDTO> decrement(Long id, int quantityToDecrement) {
+        return adjustQuantity(id, -quantityToDecrement, WineOperation.DECREMENT);
+    }
+
+    public Mono<Void> deleteById(Long id) {
+        return verifyIfExists(id)
+                .flatMap(registeredWine -> reactiveWineRepository.delete(registeredWine)
+                        .thenReturn(new WineChangedEvent(WineOperation.DELETE,
+                                wineRecordMapper.toDTO(registeredWine), null, true)))
+                .flatMap(this::recordChange)
+                .as(transactionalOperator::transactional)
+                .doOnNext(eventPublisher::publishEvent)
+                .then();
+    }
+
+    private Mono<WineDTO> insert(WineDTO wineDTO) {
+        return reactiveWineRepository.nextId()
+                .flatMap(id -> {
+                    WineRecord wineRecord = wineRecordMapper.toRecord(wineDTO);
+                    wineRecord.setId(id);
+                    wineRecord.setVersion(null);
+                    /** Com o id já preenchido, o save() faria um UPDATE; o insert() do template força o INSERT. */
+                    return r2dbcEntityTemplate.insert(wineRecord);
+                })
+                .map(wineRecordMapper::toDTO);
+    }
+
+    private Mono<WineDTO> adjustQuantity(Long id, int delta, WineOperation operation) {
+        /** Nenhuma linha alterada: ou o vinho não existe, ou a quantidade sairia do intervalo permitido. */
+        return reactiveWineRepository.adjustQuantity(id, delta)
+                .flatMap(updatedRows -> updatedRows == 0
+                        ? verifyIfExists(id).then(Mono.<WineRecord>error(new WineStockExceededException(id, delta)))
+                        : verifyIfExists(id))
+                .map(wineRecordMapper::toDTO)
+                .map(adjustedWineDTO -> {
+                    WineDTO previousWineDTO = wineMapper.copy(adjustedWineDTO);
+                    previousWineDTO.setQuantity(adjustedWineDTO.getQuantity() - delta);
+                    if (adjustedWineDTO.getVersion() != null) {
+                        previousWineDTO.setVersion(adjustedWineDTO.getVersion() - 1);
+                    }
+                    return new WineChangedEvent(operation, previousWineDTO, adjustedWineDTO, true);
+                })
+                .flatMap(this::recordChange)
+                .as(transactionalOperator::transactional)
+                .doOnNext(eventPublisher::publishEvent)
+                .map(WineChangedEvent::getAfter);
+    }
+
+    /** Grava o ledger e a outbox dentro da transação da escrita; o evento só é publicado depois do commit. */
+    private Mono<WineChangedEvent> recordChange(WineChangedEvent event) {
+        return reactiveChangeLog.record(event).thenReturn(event);
+    }
+
+    private Mono<WineRecord> verifyIfExists(Long id) {
+        return reactiveWineRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new WineNotFoundException(id)));
+    }
+}
@@ -0,0 +1,93 @@
+package com.one.innovation.digital.winestock.alert;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.config.StockAlertProperties;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.StockAlertType;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class StockAlertEngineTest {
+
+    @Mock
+    private StockAlertSink stockAlertSink;
+
+    @Spy
+    private StockAlertProperties stockAlertProperties = new StockAlertProperties();
+
+    @InjectMocks
+    private StockAlertEngine stockAlertEngine;
+
+    @Test
+    void whenStockDropsToTheDefaultThresholdThenALowStockAlertIsPublished() {
+        // given
+        /** Sem limite próprio, vale 20% do máximo: 20% de 50 = 10 garrafas. */
+        WineDTO before = WineDTOBuilder.builder().max(50).quantity(11).build().toWineDTO();
+        WineDTO after = WineDTOBuilder.builder().max(50).quantity(10).build().toWineDTO();
+        ArgumentCaptor<StockAlert> alertCaptor = ArgumentCaptor.forClass(StockAlert.class);
+
+        // when
+        stockAlertEngine.onWineChanged(new WineChangedEvent(WineOperation.DECREMENT, before, after));
+
+        // then
+        verify(stockAlertSink, times(1)).publish(alertCaptor.capture());
+        assertThat(alertCaptor.getValue().getType(), is(equalTo(StockAlertType.LOW_STOCK)));
+        assertThat(alertCaptor.getValue().getThreshold(), is(equalTo(10)));
+    }
+
+    @Test
+    void whenStockIsAlreadyLowThenNoNewAlertIsPublished() {
+        // given
+        WineDTO before = WineDTOBuilder.builder().max(50).quantity(8).build().toWineDTO();
+        WineDTO after = WineDTOBuilder.builder().max(50).quantity(7).build().toWineDTO();
+
+        // when
+        stockAlertEngine.onWineChanged(new WineChangedEvent(WineOperation.DECREMENT, before, after));
+
+        // then
+        verify(stockAlertSink, never()).publish(any());
+    }
+
+    @Test
+    void whenStockGoesAboveTheWineThresholdThenARestockedAlertIsPublished() {
+        // given
+        WineDTO before = WineDTOBuilder.builder().quantity(5).lowStockThreshold(5).build().toWineDTO();
+        WineDTO after = WineDTOBuilder.builder().quantity(25).lowStockThreshold(5).build().toWineDTO();
+        ArgumentCaptor<StockAlert> alertCaptor = ArgumentCaptor.forClass(StockAlert.class);
+
+        // when
+        stockAlertEngine.onWineChanged(new WineChangedEvent(WineOperation.INCREMENT, before, after));
+
+        // then
+        verify(stockAlertSink, times(1)).publish(alertCaptor.capture());
+        assertThat(alertCaptor.getValue().getType(), is(equalTo(StockAlertType.RESTOCKED)));
+    }
+
+    @Test
+    void whenWineIsDeletedThenNoAlertIsPublished() {
+        // given
+        WineDTO before = WineDTOBuilder.builder().quantity(1).build().toWineDTO();
+
+        // when
+        stockAlertEngine.onWineChanged(new WineChangedEvent(WineOperation.DELETE, before, null));
+
+        // then
+        verify(stockAlertSink, never()).publish(any());
+    }
+}
@@ -28,6 +28,12 @@ public class WineDTOBuilder {
     @Builder.Default
     private WineType type = WineType.REDWINE;
 
+    @Builder.Default
+    private Integer lowStockThreshold = null;
+
+    @Builder.Default
+    private Long version = null;
+
     public WineDTO toWineDTO() {
         return new WineDTO(
                 id,
@@ -35,6 +41,8 @@ public class WineDTOBuilder {
                 brand,
                 max,
                 quantity,
-                type);
+                type,
+                lowStockThreshold,
+                version);
     }
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.one.innovation.digital.winestock.changes;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.dto.WineChangeDTO;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.service.WineChangeService;
+import com.one.innovation.digital.winestock.service.WineService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:wine-changes;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "winestock.changes.poll-interval=PT1H",
+        "spring.cache.type=none"
+})
+/** O sequenciador é acionado pelo próprio teste (poll), e não pelo agendador, para que cada etapa seja determinística. */
+public class WineChangeFeedTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WineService wineService;
+
+    @Autowired
+    private WineChangeService wineChangeService;
+
+    @Autowired
+    private WineChangeFeed wineChangeFeed;
+
+    @Test
+    void whenWinesAreWrittenThenEachChangeIsSequencedWithTheWineBeforeAndAfter() throws Exception {
+        // given
+        wineChangeFeed.poll();
+        long since = wineChangeService.lastSequence();
+        WineDTO createdWine = wineService.createWine(wine("Outbox Malbec"));
+        createdWine.setBrand("Outbox Cellars");
+        wineService.update(createdWine.getId(), createdWine);
+        wineService.increment(createdWine.getId(), 2);
+        wineService.deleteById(createdWine.getId());
+
+        // when
+        assertThat(wineChangeService.changesSince(since, null), is(empty()));
+        wineChangeFeed.poll();
+
+        // then
+        List<WineChangeDTO> changes = wineChangeService.changesSince(since, null);
+        assertThat(changes.stream().map(WineChangeDTO::getOperation).collect(Collectors.toList()),
+                contains(WineOperation.CREATE, WineOperation.UPDATE, WineOperation.INCREMENT, WineOperation.DELETE));
+        assertThat(changes.stream().map(WineChangeDTO::getSequence).collect(Collectors.toList()),
+                contains(since + 1, since + 2, since + 3, since + 4));
+        assertThat(changes.get(0).getBefore(), is(nullValue()));
+        assertThat(changes.get(0).getAfter().getName(), is("Outbox Malbec"));
+        assertThat(changes.get(1).getBefore().getBrand(), is(changes.get(0).getAfter().getBrand()));
+        assertThat(changes.get(1).getAfter().getBrand(), is("Outbox Cellars"));
+        assertThat(changes.get(2).getAfter().getQuantity(), is(changes.get(2).getBefore().getQuantity() + 2));
+        assertThat(changes.get(3).getAfter(), is(nullValue()));
+    }
+
+    @Test
+    void whenTheWriteIsRolledBackThenItsChangeIsNotRecorded() throws Exception {
+        // given
+        wineService.createWine(wine("Outbox Rollback"));
+        wineChangeFeed.poll();
+        long since = wineChangeService.lastSequence();
+
+        // when
+        assertThrows(WineAlreadyRegisteredException.class, () -> wineService.createWine(wine("Outbox Rollback")));
+        wineChangeFeed.poll();
+
+        // then
+        assertThat(wineChangeService.changesSince(since, null), is(empty()));
+    }
+
+    @Test
+    void whenStreamIsOpenedThenItReceivesTheMissedChangesAndThenTheNewOnesInOrder() throws Exception {
+        // given
+        WineDTO missedWine = wineService.createWine(wine("Outbox Missed"));
+        wineChangeFeed.poll();
+        long since = wineChangeService.lastSequence() - 1;
+
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            // when
+            Iterator<String> events = openStream("?since=" + since, null);
+            WineDTO newWine = wineService.createWine(wine("Outbox New"));
+            wineChangeFeed.poll();
+
+            // then
+            assertThat(nextEventIds(events, 2), contains(String.valueOf(since + 1), String.valueOf(since + 2)));
+
+            /** Ao reconectar, o cliente SSE informa o último id recebido e recebe apenas o que veio depois. */
+            Iterator<String> resumedEvents = openStream("", String.valueOf(since + 1));
+            wineChangeFeed.poll();
+            List<String> resumedData = nextEventData(resumedEvents, 1);
+            assertThat(resumedData.get(0).contains("\"name\":\"" + newWine.getName() + "\""), is(true));
+            assertThat(resumedData.get(0).contains(missedWine.getName()), is(false));
+        });
+    }
+
+    @Test
+    void whenAStreamIsStuckOnTheNetworkThenTheSequencerAndTheOtherStreamsKeepGoing() throws Exception {
+        // given
+        wineChangeFeed.poll();
+        long since = wineChangeService.lastSequence();
+        CountDownLatch networkReleased = new CountDownLatch(1);
+        StuckEmitter stuckEmitter = new StuckEmitter(networkReleased);
+        wineChangeFeed.subscribe(since, stuckEmitter);
+
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+                Iterator<String> events = openStream("?since=" + since, null);
+
+                // when
+                wineService.createWine(wine("Outbox Stuck"));
+                wineChangeFeed.poll();
+                assertThat(stuckEmitter.sendStarted.await(10, TimeUnit.SECONDS), is(true));
+                wineService.createWine(wine("Outbox Flowing"));
+                wineChangeFeed.poll();
+
+                // then
+                assertThat(nextEventIds(events, 2), contains(String.valueOf(since + 1), String.valueOf(since + 2)));
+                assertThat(wineChangeService.lastSequence(), is(since + 2));
+            });
+        } finally {
+            networkReleased.countDown();
+        }
+    }
+
+    /** Simula um cliente que parou de ler: o primeiro envio de alteração fica preso até o teste liberar. */
+    private static final class StuckEmitter extends SseEmitter {
+
+        private final CountDownLatch networkReleased;
+
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+
+        private StuckEmitter(CountDownLatch networkReleased) {
+            this.networkReleased = networkReleased;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (builder.build().stream().anyMatch(part -> String.valueOf(part.getData()).contains("event:"))) {
+                sendStarted.countDown();
+                try {
+                    networkReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            super.send(builder);
+        }
+    }
+
+    private WineDTO wine(String name) {
+        WineDTO wineDTO = WineDTOBuilder.builder().name(name).build().toWineDTO();
+        wineDTO.setId(null);
+        return wineDTO;
+    }
+
+    private Iterator<String> openStream(String query, String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/wines/changes/stream" + query))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode(), is(200));
+        return response.body().iterator();
+    }
+
+    private List<String> nextEventIds(Iterator<String> lines, int count) {
+        return nextFields(lines, "id:", count);
+    }
+
+    private List<String> nextEventData(Iterator<String> lines, int count) {
+        return nextFields(lines, "data:", count);
+    }
+
+    private List<String> nextFields(Iterator<String> lines, String field, int count) {
+        List<String> values = new ArrayList<>();
+        while (values.size() < count && lines.hasNext()) {
+            String line = lines.next();
+            if (line.startsWith(field)) {
+                values.add(line.substring(field.length()));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,36 @@
+package com.one.innovation.digital.winestock.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class VirtualThreadConfigTest {
+
+    /** O WebApplicationContextRunner sobe apenas a configuração informada, sem o servidor embutido. */
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class);
+
+    @Test
+    void whenVirtualThreadsAreNotEnabledThenTheTomcatPoolIsKept() {
+        contextRunner.run(context ->
+                assertThat(context.getBeansOfType(TomcatProtocolHandlerCustomizer.class).isEmpty(), is(true)));
+    }
+
+    @Test
+    void whenVirtualThreadsAreEnabledThenTheyAreUsedOrTheStartupFailsOnOlderJdks() {
+        contextRunner
+                .withPropertyValues("winestock.threads.virtual=true")
+                .run(context -> {
+                    if (Runtime.version().feature() >= 21) {
+                        assertThat(context.getBean(TomcatProtocolHandlerCustomizer.class), is(notNullValue()));
+                    } else {
+                        assertThat(context.getStartupFailure().getMessage(), containsString("requires Java 21"));
+                    }
+                });
+    }
+}
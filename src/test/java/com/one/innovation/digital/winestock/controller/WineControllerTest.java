@@ -1,37 +1,77 @@
 package com.one.innovation.digital.winestock.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.cache.CatalogVersion;
+import com.one.innovation.digital.winestock.changes.WineChangeFeed;
+import com.one.innovation.digital.winestock.config.HttpCacheProperties;
+import com.one.innovation.digital.winestock.dto.InventoryLevelDTO;
 import com.one.innovation.digital.winestock.dto.QuantityDTO;
+import com.one.innovation.digital.winestock.dto.StockLevelDTO;
+import com.one.innovation.digital.winestock.dto.WineBulkRequestDTO;
+import com.one.innovation.digital.winestock.dto.WineBulkResultDTO;
+import com.one.innovation.digital.winestock.dto.WineChangeDTO;
 import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.dto.WineFilterDTO;
+import com.one.innovation.digital.winestock.dto.WinePageDTO;
+import com.one.innovation.digital.winestock.dto.WineTypeStatsDTO;
 import com.one.innovation.digital.winestock.entity.Wine;
+import com.one.innovation.digital.winestock.enums.BulkItemStatus;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.exception.InvalidCursorException;
+import com.one.innovation.digital.winestock.exception.WineChangesExpiredException;
 import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import com.one.innovation.digital.winestock.exception.WineVersionMismatchException;
+import com.one.innovation.digital.winestock.service.StockLedgerService;
+import com.one.innovation.digital.winestock.service.WineChangeService;
 import com.one.innovation.digital.winestock.service.WineService;
+import com.one.innovation.digital.winestock.stats.WineTypeStatistics;
+import com.one.innovation.digital.winestock.writebehind.StockWriteBehindBuffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.SortHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import java.time.Instant;
 import java.util.Collections;
+import java.util.function.Consumer;
 
 
 import static com.one.innovation.digital.winestock.utils.JsonConvertionUtils.asJsonString;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,6 +88,34 @@ public class WineControllerTest {
     @Mock
     private WineService wineService;
 
+    @Mock
+    private StockLedgerService stockLedgerService;
+
+    @Mock
+    private WineTypeStatistics wineTypeStatistics;
+
+    @Mock
+    private WineChangeService wineChangeService;
+
+    @Mock
+    private WineChangeFeed wineChangeFeed;
+
+    /** Sem stub, getIfAvailable() retorna null: o modo write-behind fica desligado. */
+    @Mock
+    private ObjectProvider<StockWriteBehindBuffer> stockWriteBehindBufferProvider;
+
+    @Mock
+    private StockWriteBehindBuffer stockWriteBehindBuffer;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+
+    @Spy
+    private HttpCacheProperties httpCacheProperties = new HttpCacheProperties();
+
     @InjectMocks
     private WineController wineController;
 
@@ -57,7 +125,7 @@ public class WineControllerTest {
          * Ele é responsável por transformar o mock em Jackson
          */
         mockMvc = MockMvcBuilders.standaloneSetup(wineController)
-                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver(), new SortHandlerMethodArgumentResolver())
                 .setViewResolvers((s, locale) -> new MappingJackson2JsonView())
                 .build();
     }
@@ -133,7 +201,7 @@ public class WineControllerTest {
         WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
 
         //when
-        when(wineService.listAll()).thenReturn(Collections.singletonList(wineDTO));
+        when(wineService.listAll(new WineFilterDTO(), Sort.by("id"))).thenReturn(Collections.singletonList(wineDTO));
 
         // then
         mockMvc.perform(get(WINE_API_URL_PATH)
@@ -141,7 +209,36 @@ public class WineControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name", is(wineDTO.getName())))
                 .andExpect(jsonPath("$[0].brand", is(wineDTO.getBrand())))
-                .andExpect(jsonPath("$[0].type", is(wineDTO.getType().toString())));
+                .andExpect(jsonPath("$[0].type", is(wineDTO.getType().toString())))
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.eTag()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=0, must-revalidate, public"));
+    }
+
+    @Test
+    void whenGETListIsCalledWithTheCurrentCatalogETagThenNotModifiedStatusIsReturned() throws Exception {
+        // then
+        /** O catálogo não mudou desde o ETag enviado: a resposta é 304, sem consultar o serviço. */
+        mockMvc.perform(get(WINE_API_URL_PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, catalogVersion.eTag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.eTag()));
+        verify(wineService, never()).listAll(any(), any());
+    }
+
+    @Test
+    void whenGETListIsCalledWithAnOldCatalogETagThenOkStatusIsReturned() throws Exception {
+        // given
+        String oldETag = catalogVersion.eTag();
+        catalogVersion.onWineChanged(null);
+
+        // when
+        when(wineService.listAll(new WineFilterDTO(), Sort.by("id"))).thenReturn(Collections.emptyList());
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, oldETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.eTag()));
     }
 
     @Test
@@ -150,7 +247,7 @@ public class WineControllerTest {
         WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
 
         //when
-        when(wineService.listAll()).thenReturn(Collections.singletonList(wineDTO));
+        when(wineService.listAll(new WineFilterDTO(), Sort.by("id"))).thenReturn(Collections.singletonList(wineDTO));
 
         // then
         mockMvc.perform(get(WINE_API_URL_PATH)
@@ -212,4 +309,469 @@ public class WineControllerTest {
                 .content(asJsonString(wineDTO)))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void whenGETPageIsCalledThenOkStatusAndNextCursorAreReturned() throws Exception {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        WinePageDTO winePageDTO = new WinePageDTO(Collections.singletonList(wineDTO), 1, "next");
+
+        // when
+        when(wineService.listPage(null, 1)).thenReturn(winePageDTO);
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/page")
+                .param("size", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name", is(wineDTO.getName())))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+    }
+
+    @Test
+    void whenGETPageIsCalledWithInvalidCursorThenBadRequestStatusIsReturned() throws Exception {
+        // when
+        when(wineService.listPage("invalid", null)).thenThrow(InvalidCursorException.class);
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/page")
+                .param("cursor", "invalid")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenGETExportIsCalledThenWinesAreStreamedAsNdjson() throws Exception {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+
+        // when
+        doAnswer(invocation -> {
+            Consumer<WineDTO> consumer = invocation.getArgument(0);
+            consumer.accept(wineDTO);
+            consumer.accept(wineDTO);
+            return null;
+        }).when(wineService).exportAll(any());
+
+        // then
+        /** A exportação é assíncrona, então primeiro verificamos que ela começou
+         * e depois despachamos a requisição para ler o corpo completo.
+         */
+        MvcResult mvcResult = mockMvc.perform(get(WINE_API_URL_PATH + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String line = asJsonString(wineDTO) + "\n";
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + line));
+    }
+
+    @Test
+    void whenPATCHIsCalledToIncrementThenOKStatusIsReturned() throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        wineDTO.setQuantity(wineDTO.getQuantity() + quantityDTO.getQuantity());
+
+        // when
+        when(wineService.increment(VALID_WINE_ID, quantityDTO.getQuantity())).thenReturn(wineDTO);
+
+        // then
+        mockMvc.perform(patch(WINE_API_URL_PATH + "/" + VALID_WINE_ID + WINE_API_SUBPATH_INCREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is(wineDTO.getName())))
+                .andExpect(jsonPath("$.quantity", is(wineDTO.getQuantity())));
+    }
+
+    @Test
+    void whenPATCHIsCalledToIncrementWithoutPositiveQuantityThenBadRequestStatusIsReturned() throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(0)
+                .build();
+
+        // then
+        mockMvc.perform(patch(WINE_API_URL_PATH + "/" + VALID_WINE_ID + WINE_API_SUBPATH_INCREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementBelowZeroThenBadRequestStatusIsReturned() throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(60)
+                .build();
+
+        // when
+        when(wineService.decrement(VALID_WINE_ID, quantityDTO.getQuantity())).thenThrow(WineStockExceededException.class);
+
+        // then
+        mockMvc.perform(patch(WINE_API_URL_PATH + "/" + VALID_WINE_ID + WINE_API_SUBPATH_DECREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementWithInvalidIdThenNotFoundStatusIsReturned() throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(5)
+                .build();
+
+        // when
+        when(wineService.decrement(INVALID_WINE_ID, quantityDTO.getQuantity())).thenThrow(WineNotFoundException.class);
+
+        // then
+        mockMvc.perform(patch(WINE_API_URL_PATH + "/" + INVALID_WINE_ID + WINE_API_SUBPATH_DECREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenPOSTBulkIsCalledThenResultOfEachWineIsReturned() throws Exception {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        WineBulkRequestDTO wineBulkRequestDTO = new WineBulkRequestDTO(Collections.singletonList(wineDTO));
+        WineBulkResultDTO wineBulkResultDTO = new WineBulkResultDTO(wineDTO.getName(), BulkItemStatus.CREATED, wineDTO);
+
+        // when
+        when(wineService.bulkCreateOrUpdate(wineBulkRequestDTO.getWines()))
+                .thenReturn(Collections.singletonList(wineBulkResultDTO));
+
+        // then
+        mockMvc.perform(post(WINE_API_URL_PATH + "/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(wineBulkRequestDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(wineDTO.getName())))
+                .andExpect(jsonPath("$[0].status", is(BulkItemStatus.CREATED.toString())));
+    }
+
+    @Test
+    void whenPOSTBulkIsCalledWithAnInvalidWineThenAnErrorIsReturned() throws Exception {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        wineDTO.setBrand(null);
+        WineBulkRequestDTO wineBulkRequestDTO = new WineBulkRequestDTO(Collections.singletonList(wineDTO));
+
+        // then
+        mockMvc.perform(post(WINE_API_URL_PATH + "/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(wineBulkRequestDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenGETIsCalledThenTheWineVersionIsReturnedAsETag() throws Exception {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().version(3L).build().toWineDTO();
+
+        // when
+        when(wineService.findByName(wineDTO.getName())).thenReturn(wineDTO);
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + wineDTO.getName())
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    void whenGETIsCalledWithTheCurrentETagThenNotModifiedStatusIsReturned() throws Exception {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().version(3L).build().toWineDTO();
+
+        // when
+        when(wineService.findByName(wineDTO.getName())).thenReturn(wineDTO);
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + wineDTO.getName())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void whenUPDATEIsCalledWithIfMatchThenTheVersionIsSentToTheService() throws Exception {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        WineDTO expectedWineDTO = WineDTOBuilder.builder().version(3L).build().toWineDTO();
+        WineDTO updatedWineDTO = WineDTOBuilder.builder().version(4L).build().toWineDTO();
+
+        // when
+        when(wineService.update(VALID_WINE_ID, expectedWineDTO)).thenReturn(updatedWineDTO);
+
+        // then
+        mockMvc.perform(put(WINE_API_URL_PATH + "/" + VALID_WINE_ID)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(wineDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void whenUPDATEIsCalledWithAnOutdatedIfMatchThenPreconditionFailedStatusIsReturned() throws Exception {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        WineDTO expectedWineDTO = WineDTOBuilder.builder().version(2L).build().toWineDTO();
+
+        // when
+        when(wineService.update(VALID_WINE_ID, expectedWineDTO)).thenThrow(WineVersionMismatchException.class);
+
+        // then
+        mockMvc.perform(put(WINE_API_URL_PATH + "/" + VALID_WINE_ID)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(wineDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void whenGETListIsCalledWithFiltersThenTheyAreSentToTheService() throws Exception {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        WineFilterDTO expectedFilter = WineFilterDTO.builder()
+                .type(WineType.REDWINE)
+                .brand("Villa")
+                .belowFillPercent(30)
+                .build();
+
+        //when
+        when(wineService.listAll(expectedFilter, Sort.by(Sort.Direction.DESC, "quantity")))
+                .thenReturn(Collections.singletonList(wineDTO));
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH)
+                .param("type", "REDWINE")
+                .param("brand", "Villa")
+                .param("belowFillPercent", "30")
+                .param("sort", "quantity,desc")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(wineDTO.getName())));
+    }
+
+    @Test
+    void whenGETListIsCalledWithAnUnsupportedSortPropertyThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(get(WINE_API_URL_PATH)
+                .param("sort", "foo,desc")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get(WINE_API_URL_PATH)
+                .param("sort", "lowStockThreshold")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(wineService, never()).listAll(any(), any());
+    }
+
+    @Test
+    void whenGETListIsCalledWithAnInvalidFilterThenBadRequestStatusIsReturned() throws Exception {
+        mockMvc.perform(get(WINE_API_URL_PATH)
+                .param("belowFillPercent", "150")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenGETStockIsCalledWithAnInstantThenTheStockAtThatInstantIsReturned() throws Exception {
+        // given
+        Instant at = Instant.parse("2021-03-18T10:15:30Z");
+        StockLevelDTO stockLevelDTO = new StockLevelDTO(VALID_WINE_ID, at, 7, null);
+
+        // when
+        when(stockLedgerService.stockAt(VALID_WINE_ID, at)).thenReturn(stockLevelDTO);
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + VALID_WINE_ID + "/stock")
+                .param("at", "2021-03-18T10:15:30Z")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.wineId", is((int) VALID_WINE_ID)))
+                .andExpect(jsonPath("$.quantity", is(7)));
+    }
+
+    @Test
+    void whenGETStockIsCalledForAWineWithoutMovementsThenNotFoundStatusIsReturned() throws Exception {
+        // when
+        when(stockLedgerService.stockAt(any(), any())).thenThrow(WineNotFoundException.class);
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + INVALID_WINE_ID + "/stock")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementInWriteBehindModeThenTheChangeIsBufferedAndAcceptedStatusIsReturned() throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(5)
+                .build();
+
+        // when
+        when(stockWriteBehindBufferProvider.getIfAvailable()).thenReturn(stockWriteBehindBuffer);
+        when(stockWriteBehindBuffer.enqueue(VALID_WINE_ID, -5)).thenReturn(true);
+
+        // then
+        mockMvc.perform(patch(WINE_API_URL_PATH + "/" + VALID_WINE_ID + WINE_API_SUBPATH_DECREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isAccepted());
+        verify(wineService, never()).decrement(anyLong(), anyInt());
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementWithTheWriteBehindBufferFullThenTheChangeIsWrittenSynchronously() throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(5)
+                .build();
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        wineDTO.setQuantity(wineDTO.getQuantity() - quantityDTO.getQuantity());
+
+        // when
+        when(stockWriteBehindBufferProvider.getIfAvailable()).thenReturn(stockWriteBehindBuffer);
+        when(stockWriteBehindBuffer.enqueue(VALID_WINE_ID, -5)).thenReturn(false);
+        when(wineService.decrement(VALID_WINE_ID, 5)).thenReturn(wineDTO);
+
+        // then
+        mockMvc.perform(patch(WINE_API_URL_PATH + "/" + VALID_WINE_ID + WINE_API_SUBPATH_DECREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(wineDTO.getQuantity())));
+    }
+
+    @Test
+    void whenPATCHIsCalledToDecrementInWriteBehindModeBeyondTheProjectedStockThenBadRequestStatusIsReturned()
+            throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(5)
+                .build();
+
+        // when
+        when(stockWriteBehindBufferProvider.getIfAvailable()).thenReturn(stockWriteBehindBuffer);
+        when(stockWriteBehindBuffer.enqueue(VALID_WINE_ID, -5)).thenThrow(new WineStockExceededException(VALID_WINE_ID, -5));
+
+        // then
+        mockMvc.perform(patch(WINE_API_URL_PATH + "/" + VALID_WINE_ID + WINE_API_SUBPATH_DECREMENT_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(quantityDTO)))
+                .andExpect(status().isBadRequest());
+        verify(wineService, never()).decrement(anyLong(), anyInt());
+    }
+
+    @Test
+    void whenGETSearchIsCalledThenTheMatchingWinesAreReturned() throws Exception {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+
+        // when
+        when(wineService.search("cabernet", 10)).thenReturn(Collections.singletonList(wineDTO));
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/search")
+                .param("q", "cabernet")
+                .param("limit", "10")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(wineDTO.getName())));
+    }
+
+    @Test
+    void whenGETStatsIsCalledThenTheTotalsOfEachTypeAreReturned() throws Exception {
+        // given
+        WineTypeStatsDTO redWineStats = WineTypeStatsDTO.builder()
+                .type(WineType.REDWINE)
+                .wines(2)
+                .bottles(50)
+                .capacity(100)
+                .fillRatio(0.5)
+                .build();
+
+        // when
+        when(wineTypeStatistics.all()).thenReturn(Collections.singletonList(redWineStats));
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/stats")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type", is("REDWINE")))
+                .andExpect(jsonPath("$[0].bottles", is(50)))
+                .andExpect(jsonPath("$[0].fillRatio", is(0.5)));
+    }
+
+    @Test
+    void whenGETBelowFillIsCalledWithATypeThenTheIndexedLevelsAreReturned() throws Exception {
+        // given
+        InventoryLevelDTO emptyRedWine = InventoryLevelDTO.builder()
+                .id(VALID_WINE_ID)
+                .type(WineType.REDWINE)
+                .quantity(5)
+                .max(50)
+                .fillRatio(0.1)
+                .build();
+
+        // when
+        when(wineService.listBelowFill(WineType.REDWINE, 20, null)).thenReturn(Collections.singletonList(emptyRedWine));
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/inventory/below-fill")
+                .param("percent", "20")
+                .param("type", "REDWINE")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is((int) VALID_WINE_ID)))
+                .andExpect(jsonPath("$[0].quantity", is(5)))
+                .andExpect(jsonPath("$[0].fillRatio", is(0.1)));
+    }
+
+    @Test
+    void whenGETChangesIsCalledThenTheChangesAfterTheSequenceAreReturned() throws Exception {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        WineChangeDTO wineChangeDTO = WineChangeDTO.builder()
+                .sequence(4L)
+                .wineId(wineDTO.getId())
+                .operation(WineOperation.CREATE)
+                .after(wineDTO)
+                .build();
+
+        // when
+        when(wineChangeService.changesSince(3L, null)).thenReturn(Collections.singletonList(wineChangeDTO));
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/changes")
+                .param("since", "3")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sequence", is(4)))
+                .andExpect(jsonPath("$[0].operation", is("CREATE")))
+                .andExpect(jsonPath("$[0].after.name", is(wineDTO.getName())));
+    }
+
+    @Test
+    void whenGETChangesIsCalledWithAPurgedSequenceThenGoneStatusIsReturned() throws Exception {
+        // when
+        when(wineChangeService.changesSince(0L, null)).thenThrow(new WineChangesExpiredException(0L, 10L));
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/changes")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isGone());
+    }
 }
@@ -0,0 +1,74 @@
+package com.one.innovation.digital.winestock.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+/** Um corpo copiado de uma resposta (com id e version) enviado ao cadastro, passando pelo banco,
+ pelo ledger, pela outbox e pelos índices em memória de verdade.
+ */
+public class WineCreationEchoedBodyTest {
+
+    private static final String WINE_API_URL_PATH = "/api/v1/wines";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void whenPOSTIsCalledWithIdAndVersionThenAWineIsCreatedWithANewId() throws Exception {
+        // given
+        String body = "{\"id\": 987654, \"name\": \"Echoed Carmenere\", \"brand\": \"Echo\", \"max\": 50, "
+                + "\"quantity\": 10, \"type\": \"REDWINE\", \"version\": 0}";
+
+        // when
+        String response = mockMvc.perform(post(WINE_API_URL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.version", is(0)))
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        JsonNode createdWine = objectMapper.readTree(response);
+        assertThat(createdWine.get("id").asLong(), is(not(987654L)));
+        mockMvc.perform(get(WINE_API_URL_PATH + "/Echoed Carmenere"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(createdWine.get("id").intValue())));
+    }
+
+    @Test
+    void whenBulkIsCalledWithVersionedNewWinesThenTheyAreCreatedWithIds() throws Exception {
+        // given
+        String body = "{\"wines\": [{\"name\": \"Echoed Bulk Syrah\", \"brand\": \"Echo\", \"max\": 50, "
+                + "\"quantity\": 10, \"type\": \"REDWINE\", \"version\": 0}]}";
+
+        // when
+        String response = mockMvc.perform(post(WINE_API_URL_PATH + "/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        assertThat(objectMapper.readTree(response).get(0).get("wine").get("id").isNull(), is(false));
+    }
+}
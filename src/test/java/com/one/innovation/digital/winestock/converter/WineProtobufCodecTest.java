@@ -0,0 +1,53 @@
+package com.one.innovation.digital.winestock.converter;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class WineProtobufCodecTest {
+
+    @Test
+    void whenWineListIsWrittenThenItShouldBeReadBackWithNullsPreserved() throws IOException {
+        // given
+        List<WineDTO> expectedWines = Arrays.asList(
+                WineDTOBuilder.builder().id(1L).version(3L).lowStockThreshold(5).build().toWineDTO(),
+                WineDTOBuilder.builder().id(2L).name("Rosé d'Anjou").type(WineType.ROSEWINE).build().toWineDTO());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+
+        // when
+        WineProtobufCodec.writeWineList(expectedWines, output);
+        output.flush();
+        List<WineDTO> readWines = WineProtobufCodec.readWineList(CodedInputStream.newInstance(bytes.toByteArray()));
+
+        // then
+        assertThat(readWines, is(equalTo(expectedWines)));
+        assertThat(readWines.get(1).getVersion(), is(nullValue()));
+    }
+
+    @Test
+    void whenWineTypeIsUnknownThenItShouldBeReadAsNull() throws IOException {
+        // given
+        /** Campo 6 (type) com o valor 42, que não existe no enum. */
+        byte[] message = {0x30, 42};
+
+        // when
+        WineDTO readWine = WineProtobufCodec.readWine(CodedInputStream.newInstance(message));
+
+        // then
+        assertThat(readWine.getType(), is(nullValue()));
+    }
+}
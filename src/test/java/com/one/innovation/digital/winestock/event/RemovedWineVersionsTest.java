@@ -0,0 +1,57 @@
+package com.one.innovation.digital.winestock.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class RemovedWineVersionsTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final RemovedWineVersions removedWineVersions = new RemovedWineVersions(Duration.ofSeconds(10), 3, now::get);
+
+    @Test
+    void whenAWineIsRemovedTwiceThenTheHighestVersionIsKept() {
+        // when
+        removedWineVersions.add(1L, 5);
+        removedWineVersions.add(1L, 3);
+
+        // then
+        assertThat(removedWineVersions.get(1L), is(5L));
+        assertThat(removedWineVersions.size(), is(1));
+    }
+
+    @Test
+    void whenTheRetentionPassesThenTheRemovalIsForgotten() {
+        // given
+        removedWineVersions.add(1L, 5);
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        removedWineVersions.add(2L, 7);
+
+        // when
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        // then
+        assertThat(removedWineVersions.get(1L), is(nullValue()));
+        assertThat(removedWineVersions.get(2L), is(7L));
+        assertThat(removedWineVersions.size(), is(1));
+    }
+
+    @Test
+    void whenMoreWinesThanTheLimitAreRemovedThenTheOldestRemovalsAreForgotten() {
+        // when
+        for (long id = 1; id <= 5; id++) {
+            removedWineVersions.add(id, id);
+        }
+
+        // then
+        assertThat(removedWineVersions.size(), is(3));
+        assertThat(removedWineVersions.get(2L), is(nullValue()));
+        assertThat(removedWineVersions.get(3L), is(3L));
+    }
+}
@@ -0,0 +1,133 @@
+package com.one.innovation.digital.winestock.inventory;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.dto.InventoryLevelDTO;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class InventoryIndexTest {
+
+    private final InventoryIndex inventoryIndex = new InventoryIndex();
+
+    @Test
+    void whenBelowFillIsQueriedThenOnlyWinesUnderThePercentAreReturnedEmptiestFirst() {
+        // given
+        inventoryIndex.put(1L, WineType.REDWINE, 10, 50, 0L);
+        inventoryIndex.put(2L, WineType.REDWINE, 2, 50, 0L);
+        inventoryIndex.put(3L, WineType.WHITEWINE, 1, 50, 0L);
+        inventoryIndex.put(4L, WineType.REDWINE, 30, 50, 0L);
+        inventoryIndex.put(5L, WineType.REDWINE, 5, 10, 0L);
+
+        // when
+        List<InventoryLevelDTO> redWines = inventoryIndex.belowFill(WineType.REDWINE, 50, 10);
+        List<InventoryLevelDTO> allWines = inventoryIndex.belowFill(null, 20, 2);
+
+        // then
+        assertThat(ids(redWines), contains(2L, 1L));
+        assertThat(redWines.get(0).getFillRatio(), is(0.04));
+        assertThat(ids(allWines), contains(3L, 2L));
+    }
+
+    @Test
+    void whenTopByQuantityIsQueriedThenTheLargestStocksOfTheTypeAreReturned() {
+        // given
+        inventoryIndex.put(1L, WineType.REDWINE, 10, 50, 0L);
+        inventoryIndex.put(2L, WineType.REDWINE, 40, 50, 0L);
+        inventoryIndex.put(3L, WineType.WHITEWINE, 45, 50, 0L);
+        inventoryIndex.put(4L, WineType.REDWINE, 40, 50, 0L);
+        inventoryIndex.put(5L, WineType.REDWINE, 20, 50, 0L);
+
+        // then
+        assertThat(ids(inventoryIndex.topByQuantity(WineType.REDWINE, 3)), contains(2L, 4L, 5L));
+        assertThat(ids(inventoryIndex.topByQuantity(null, 1)), contains(3L));
+        assertThat(inventoryIndex.topByQuantity(WineType.SPARKLING, 3), is(empty()));
+    }
+
+    @Test
+    void whenWinesChangeThenTheIndexFollowsTheCommittedEvents() {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().id(7L).quantity(10).build().toWineDTO();
+        WineDTO decrementedWineDTO = WineDTOBuilder.builder().id(7L).quantity(1).build().toWineDTO();
+        inventoryIndex.onWineChanged(new WineChangedEvent(WineOperation.CREATE, null, wineDTO));
+
+        // when
+        inventoryIndex.onWineChanged(new WineChangedEvent(WineOperation.DECREMENT, wineDTO, decrementedWineDTO));
+
+        // then
+        assertThat(inventoryIndex.topByQuantity(null, 1).get(0).getQuantity(), is(1));
+        inventoryIndex.onWineChanged(new WineChangedEvent(WineOperation.DELETE, decrementedWineDTO, null));
+        assertThat(inventoryIndex.size(), is(0));
+    }
+
+    @Test
+    void whenCommittedEventsArriveOutOfOrderThenTheNewestVersionIsKept() {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().id(7L).quantity(10).version(0L).build().toWineDTO();
+        WineDTO firstDecrementDTO = WineDTOBuilder.builder().id(7L).quantity(8).version(1L).build().toWineDTO();
+        WineDTO secondDecrementDTO = WineDTOBuilder.builder().id(7L).quantity(5).version(2L).build().toWineDTO();
+        inventoryIndex.onWineChanged(new WineChangedEvent(WineOperation.CREATE, null, wineDTO));
+
+        // when
+        inventoryIndex.onWineChanged(new WineChangedEvent(WineOperation.DECREMENT, firstDecrementDTO, secondDecrementDTO));
+        inventoryIndex.onWineChanged(new WineChangedEvent(WineOperation.DECREMENT, wineDTO, firstDecrementDTO));
+
+        // then
+        assertThat(inventoryIndex.topByQuantity(null, 1).get(0).getQuantity(), is(5));
+
+        // when
+        inventoryIndex.onWineChanged(new WineChangedEvent(WineOperation.DELETE, secondDecrementDTO, null));
+        inventoryIndex.onWineChanged(new WineChangedEvent(WineOperation.DECREMENT, wineDTO, firstDecrementDTO));
+
+        // then
+        assertThat(inventoryIndex.size(), is(0));
+    }
+
+    @Test
+    void whenManyWinesAreAddedAndRemovedThenQueriesMatchAFullScan() {
+        // given
+        Random random = new Random(42);
+        int[] quantities = new int[20_000];
+        boolean[] removed = new boolean[quantities.length];
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] = random.nextInt(101);
+            inventoryIndex.put(i + 1L, WineType.values()[i % WineType.values().length], quantities[i], 100, 0L);
+        }
+        for (int i = 0; i < quantities.length; i += 3) {
+            inventoryIndex.remove(i + 1L, 0L);
+            removed[i] = true;
+        }
+
+        // when
+        List<InventoryLevelDTO> top = inventoryIndex.topByQuantity(WineType.REDWINE, 25);
+
+        // then
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < quantities.length; i++) {
+            if (!removed[i] && WineType.values()[i % WineType.values().length] == WineType.REDWINE) {
+                expected.add(i + 1L);
+            }
+        }
+        expected.sort((a, b) -> quantities[(int) (b - 1)] != quantities[(int) (a - 1)]
+                ? Integer.compare(quantities[(int) (b - 1)], quantities[(int) (a - 1)])
+                : Long.compare(a, b));
+        assertThat(ids(top), is(expected.subList(0, 25)));
+        assertThat(inventoryIndex.size(), is(quantities.length - (quantities.length + 2) / 3));
+    }
+
+    private List<Long> ids(List<InventoryLevelDTO> levels) {
+        return levels.stream().map(InventoryLevelDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,97 @@
+package com.one.innovation.digital.winestock.ledger;
+
+import com.one.innovation.digital.winestock.config.LedgerProperties;
+import com.one.innovation.digital.winestock.entity.StockMovement;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.repository.StockMovementRepository;
+import com.one.innovation.digital.winestock.repository.StockSnapshotRepository;
+import com.one.innovation.digital.winestock.service.StockLedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import({StockSnapshotCompactor.class, StockLedgerService.class, LedgerProperties.class})
+/** Compactação e consulta do estoque em uma data contra as consultas reais do ledger no H2. */
+public class StockLedgerTest {
+
+    private static final Long WINE_ID = 1L;
+    private static final Instant T1 = Instant.parse("2021-03-18T10:00:00Z");
+    private static final Instant T2 = Instant.parse("2021-03-18T11:00:00Z");
+    private static final Instant T3 = Instant.parse("2021-03-18T12:00:00Z");
+    private static final Instant T4 = Instant.parse("2021-03-18T13:00:00Z");
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private StockSnapshotCompactor stockSnapshotCompactor;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @BeforeEach
+    void setUp() {
+        record(WINE_ID, 10, WineOperation.CREATE, T1);
+        record(WINE_ID, -3, WineOperation.DECREMENT, T2);
+        record(2L, 5, WineOperation.CREATE, T2);
+        record(WINE_ID, 4, WineOperation.INCREMENT, T3);
+    }
+
+    @Test
+    void whenNoSnapshotExistsThenTheStockIsRebuiltFromAllMovements() throws WineNotFoundException {
+        assertThat(stockLedgerService.stockAt(WINE_ID, T2).getQuantity(), is(7));
+        assertThat(stockLedgerService.stockAt(WINE_ID, T4).getQuantity(), is(11));
+        assertThat(stockLedgerService.stockAt(WINE_ID, T4).getSnapshotAsOf(), is(nullValue()));
+    }
+
+    @Test
+    void whenLedgerIsCompactedThenTheStockStartsFromTheSnapshotAndAddsOnlyTheTail() throws WineNotFoundException {
+        // when
+        int snapshots = stockSnapshotCompactor.compactUntil(T2);
+
+        // then
+        assertThat(snapshots, is(2));
+        assertThat(stockLedgerService.stockAt(WINE_ID, T1).getQuantity(), is(10));
+        assertThat(stockLedgerService.stockAt(WINE_ID, T2).getSnapshotAsOf(), is(T2));
+        assertThat(stockLedgerService.stockAt(WINE_ID, T4).getQuantity(), is(11));
+        assertThat(stockLedgerService.stockAt(2L, T4).getQuantity(), is(5));
+    }
+
+    @Test
+    void whenLedgerIsCompactedTwiceThenOnlyTheWinesChangedSinceTheLastSnapshotGetANewOne() throws WineNotFoundException {
+        // when
+        stockSnapshotCompactor.compactUntil(T2);
+        int snapshots = stockSnapshotCompactor.compactUntil(T4);
+
+        // then
+        assertThat(snapshots, is(1));
+        assertThat(stockSnapshotRepository.count(), is(3L));
+        assertThat(stockLedgerService.stockAt(WINE_ID, T4).getQuantity(), is(11));
+        assertThat(stockLedgerService.stockAt(WINE_ID, T4).getSnapshotAsOf(), is(T4));
+        assertThat(stockLedgerService.stockAt(2L, T4).getSnapshotAsOf(), is(T2));
+    }
+
+    @Test
+    void whenNoMovementExistsUpToTheInstantThenNotFoundShouldBeThrown() {
+        assertThrows(WineNotFoundException.class, () -> stockLedgerService.stockAt(WINE_ID, T1.minusSeconds(1)));
+        assertThrows(WineNotFoundException.class, () -> stockLedgerService.stockAt(99L, T4));
+    }
+
+    private void record(Long wineId, int delta, WineOperation reason, Instant occurredAt) {
+        stockMovementRepository.save(new StockMovement(null, wineId, delta, reason, occurredAt));
+    }
+}
@@ -0,0 +1,76 @@
+package com.one.innovation.digital.winestock.metrics;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.service.WineService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class WineMetricsAspectTest {
+
+    @Mock
+    private WineService wineService;
+
+    private MeterRegistry meterRegistry;
+
+    private WineService timedWineService;
+
+    @BeforeEach
+    void setUp() {
+        /** O AspectJProxyFactory aplica o aspecto sobre o mock da mesma forma que o Spring faria no contexto. */
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(wineService);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new WineMetricsAspect(meterRegistry));
+        timedWineService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void whenServiceCallSucceedsThenItIsTimedWithSuccessOutcome() throws WineNotFoundException {
+        // given
+        WineDTO expectedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        when(wineService.findByName(expectedWineDTO.getName())).thenReturn(expectedWineDTO);
+
+        // when
+        timedWineService.findByName(expectedWineDTO.getName());
+
+        // then
+        Timer timer = meterRegistry.find(WineMetricsAspect.SERVICE_TIMER)
+                .tags("method", "findByName", "outcome", "success")
+                .timer();
+        assertThat(timer, is(notNullValue()));
+        assertThat(timer.count(), is(equalTo(1L)));
+    }
+
+    @Test
+    void whenWineIsNotFoundThenItIsTimedWithNotFoundOutcome() throws WineNotFoundException {
+        // given
+        when(wineService.findByName("unknown")).thenThrow(new WineNotFoundException("unknown"));
+
+        // when
+        assertThrows(WineNotFoundException.class, () -> timedWineService.findByName("unknown"));
+
+        // then
+        Timer timer = meterRegistry.find(WineMetricsAspect.SERVICE_TIMER)
+                .tags("method", "findByName", "outcome", "not_found")
+                .timer();
+        assertThat(timer, is(notNullValue()));
+        assertThat(timer.count(), is(equalTo(1L)));
+    }
+}
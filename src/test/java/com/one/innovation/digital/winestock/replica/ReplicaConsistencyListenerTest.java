@@ -0,0 +1,62 @@
+package com.one.innovation.digital.winestock.replica;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.config.CacheConfig;
+import com.one.innovation.digital.winestock.config.ReplicaProperties;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Instant;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaConsistencyListenerTest {
+
+    @Mock
+    private ReplicaLagTracker replicaLagTracker;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.WINES_BY_NAME_CACHE);
+
+    private ReplicaConsistencyListener replicaConsistencyListener;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        replicaConsistencyListener = new ReplicaConsistencyListener(replicaLagTracker, new ReplicaProperties(), cacheManager);
+        cache = cacheManager.getCache(CacheConfig.WINES_BY_NAME_CACHE);
+    }
+
+    @Test
+    void whenAStaleValueIsCachedFromABehindReplicaThenItIsEvictedOnceTheReplicaCatchesUp() {
+        // given
+        WineDTO wineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        Instant beforeTheWrite = Instant.now().minusSeconds(1);
+        replicaConsistencyListener.onWineChanged(new WineChangedEvent(WineOperation.UPDATE, wineDTO, wineDTO));
+        /** Outro cliente leu o valor antigo de uma réplica atrasada depois da primeira remoção. */
+        cache.put(wineDTO.getName(), wineDTO);
+
+        // when
+        when(replicaLagTracker.caughtUpTo()).thenReturn(beforeTheWrite);
+        replicaConsistencyListener.evictCaughtUp();
+
+        // then
+        assertThat(cache.get(wineDTO.getName()), notNullValue());
+
+        when(replicaLagTracker.caughtUpTo()).thenReturn(Instant.now().plusMillis(1));
+        replicaConsistencyListener.evictCaughtUp();
+        assertThat(cache.get(wineDTO.getName()), nullValue());
+    }
+}
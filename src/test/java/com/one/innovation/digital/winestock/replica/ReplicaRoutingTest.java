@@ -0,0 +1,137 @@
+package com.one.innovation.digital.winestock.replica;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.service.WineService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.servlet.http.Cookie;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "winestock.replica.enabled=true",
+        "winestock.replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "winestock.replica.username=sa",
+        "winestock.replica.password=",
+        "winestock.replica.heartbeat-interval=PT1H",
+        "spring.cache.type=none"
+})
+@AutoConfigureMockMvc
+/** Dois H2 em memória fazem o papel do banco principal e da réplica. A replicação é simulada copiando
+ o principal inteiro para a réplica (SCRIPT / RUNSCRIPT), e o heartbeat é acionado pelo próprio teste,
+ para que se saiba exatamente até onde a réplica está atualizada em cada etapa.
+ */
+public class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    private static final String WINE_API_URL_PATH = "/api/v1/wines";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WineService wineService;
+
+    @Autowired
+    private ReplicaLagTracker replicaLagTracker;
+
+    @Autowired
+    private ReplicaDataSources replicaDataSources;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    private WineDTO wineDTO;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        wineDTO = wineService.createWine(WineDTOBuilder.builder()
+                .id(null)
+                .name("Replicated " + UUID.randomUUID())
+                .quantity(10)
+                .build()
+                .toWineDTO());
+        replicate();
+    }
+
+    @Test
+    void whenTheReplicaIsBehindThenReadsAreServedByItAndWritesGoToThePrimary() throws Exception {
+        // given
+        new JdbcTemplate(replicaDataSources.primary()).update("update wine set quantity = 20 where id = ?", wineDTO.getId());
+
+        // then
+        /** A alteração feita direto no principal ainda não chegou à réplica, que responde a leitura. */
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + wineDTO.getName()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(10)));
+
+        replicate();
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + wineDTO.getName()))
+                .andExpect(jsonPath("$.quantity", is(20)));
+    }
+
+    @Test
+    void whenTheClientHasJustWrittenThenItReadsItsOwnWriteUntilTheReplicaCatchesUp() throws Exception {
+        // when
+        Cookie readAfter = mockMvc.perform(patch(WINE_API_URL_PATH + "/" + wineDTO.getId() + "/increment")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\": 5}"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWrites.READ_AFTER_COOKIE))
+                .andReturn()
+                .getResponse()
+                .getCookie(ReadYourWrites.READ_AFTER_COOKIE);
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + wineDTO.getName()).cookie(readAfter))
+                .andExpect(jsonPath("$.quantity", is(15)));
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + wineDTO.getName()))
+                .andExpect(jsonPath("$.quantity", is(10)));
+
+        replicate();
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + wineDTO.getName()).cookie(readAfter))
+                .andExpect(jsonPath("$.quantity", is(15)));
+    }
+
+    @Test
+    void whenTheReplicaIsUnavailableThenReadsFallBackToThePrimary() throws Exception {
+        // given
+        replica.execute("drop all objects");
+        replicaLagTracker.pollReplicas();
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + wineDTO.getName()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(10)));
+    }
+
+    /** Grava um heartbeat no principal, copia o principal para a réplica e lê o heartbeat copiado:
+     a réplica passa a estar atualizada até esse heartbeat.
+     */
+    private void replicate() throws InterruptedException {
+        replicaLagTracker.writeHeartbeat();
+        List<String> script = new JdbcTemplate(replicaDataSources.primary()).queryForList("script", String.class);
+        replica.execute("drop all objects");
+        script.forEach(replica::execute);
+        replicaLagTracker.pollReplicas();
+        /** O cookie guarda milissegundos; a réplica só é elegível para escritas anteriores ao heartbeat. */
+        Thread.sleep(2);
+    }
+}
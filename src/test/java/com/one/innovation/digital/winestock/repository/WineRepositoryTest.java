@@ -0,0 +1,105 @@
+package com.one.innovation.digital.winestock.repository;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.dto.WineFilterDTO;
+import com.one.innovation.digital.winestock.entity.Wine;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.mapper.WineMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+@DataJpaTest
+/** @DataJpaTest Sobe apenas a camada JPA com um banco H2 em memória, para testar
+ as consultas do repositório contra um banco de verdade. Cada teste é desfeito (rollback) ao final.
+ */
+public class WineRepositoryTest {
+
+    @Autowired
+    private WineRepository wineRepository;
+
+    private final WineMapper wineMapper = WineMapper.INSTANCE;
+
+    @BeforeEach
+    void setUp() {
+        save("Cabernet Sauvignon", "Villa Lobos", 50, 10, WineType.REDWINE);
+        save("Malbec", "Villa_Nova", 50, 40, WineType.REDWINE);
+        save("Sauvignon Blanc", "Urmeneta", 20, 2, WineType.WHITEWINE);
+    }
+
+    @Test
+    void whenTypeAndBrandPrefixAreGivenThenOnlyMatchingWinesAreReturned() {
+        WineFilterDTO filter = WineFilterDTO.builder()
+                .type(WineType.REDWINE)
+                .brand("Villa")
+                .build();
+
+        assertThat(namesOf(wineRepository.findAll(WineSpecifications.matching(filter), Sort.by("name"))),
+                contains("Cabernet Sauvignon", "Malbec"));
+    }
+
+    @Test
+    void whenBrandPrefixHasWildcardsThenTheyAreMatchedLiterally() {
+        WineFilterDTO filter = WineFilterDTO.builder()
+                .brand("Villa_")
+                .build();
+
+        assertThat(namesOf(wineRepository.findAll(WineSpecifications.matching(filter), Sort.by("name"))),
+                contains("Malbec"));
+    }
+
+    @Test
+    void whenQuantityRangeAndFillPercentAreGivenThenOnlyLowStockWinesAreReturned() {
+        WineFilterDTO filter = WineFilterDTO.builder()
+                .minQuantity(1)
+                .maxQuantity(30)
+                .belowFillPercent(25)
+                .build();
+
+        assertThat(namesOf(wineRepository.findAll(WineSpecifications.matching(filter), Sort.by(Sort.Direction.DESC, "quantity"))),
+                contains("Cabernet Sauvignon", "Sauvignon Blanc"));
+    }
+
+    @Test
+    void whenTotalsByTypeAreRequestedThenWinesBottlesAndCapacityAreSummedPerType() {
+        List<WineRepository.WineTypeTotals> totals = wineRepository.sumByType().stream()
+                .sorted(Comparator.comparing(WineRepository.WineTypeTotals::getType))
+                .collect(Collectors.toList());
+
+        assertThat(totals.stream().map(WineRepository.WineTypeTotals::getType).collect(Collectors.toList()),
+                contains(WineType.WHITEWINE, WineType.REDWINE));
+        assertThat(totals.get(0).getBottles(), is(2L));
+        assertThat(totals.get(1).getWines(), is(2L));
+        assertThat(totals.get(1).getBottles(), is(50L));
+        assertThat(totals.get(1).getCapacity(), is(100L));
+    }
+
+    private void save(String name, String brand, int max, int quantity, WineType type) {
+        Wine wine = wineMapper.toModel(WineDTOBuilder.builder()
+                .id(null)
+                .name(name)
+                .brand(brand)
+                .max(max)
+                .quantity(quantity)
+                .type(type)
+                .build()
+                .toWineDTO());
+        wineRepository.save(wine);
+    }
+
+    private List<String> namesOf(List<Wine> wines) {
+        return wines.stream()
+                .map(Wine::getName)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,128 @@
+package com.one.innovation.digital.winestock.search;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.config.SearchProperties;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.mapper.WineMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class WineSearchIndexTest {
+
+    private WineSearchIndex wineSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        wineSearchIndex = new WineSearchIndex(new SearchProperties());
+        wineSearchIndex.put(1L, "Cabernet Sauvignon", "Villa Lobos", 0L);
+        wineSearchIndex.put(2L, "Sauvignon Blanc", "Urmeneta", 0L);
+        wineSearchIndex.put(3L, "Malbec", "Villa Nova", 0L);
+        wineSearchIndex.put(4L, "Château d'Yquem", "Lur-Saluces", 0L);
+    }
+
+    @Test
+    void whenPartOfTheNameIsGivenThenWinesContainingItAreReturnedShortestFirst() {
+        assertThat(wineSearchIndex.search("sauvignon", 10), contains(2L, 1L));
+    }
+
+    @Test
+    void whenTheQueryHasATypoThenTheWineIsStillFound() {
+        assertThat(wineSearchIndex.search("cabrenet", 10), contains(1L));
+        assertThat(wineSearchIndex.search("malbek", 10), contains(3L));
+    }
+
+    @Test
+    void whenTheQueryMatchesTheBrandIgnoringCaseAndAccentsThenTheWineIsFound() {
+        assertThat(wineSearchIndex.search("URMENETA", 10), contains(2L));
+        assertThat(wineSearchIndex.search("chateau yquem", 10), contains(4L));
+    }
+
+    @Test
+    void whenTheLimitIsSmallerThanTheMatchesThenOnlyTheBestAreReturned() {
+        assertThat(wineSearchIndex.search("villa", 1), contains(3L));
+    }
+
+    @Test
+    void whenFrequentWordsRarelyAppearTogetherThenTheShortestWinesWithBothAreReturned() {
+        // given
+        /** Milhares de vinhos curtos com só uma das palavras vêm antes, nas listas, dos poucos que têm as duas. */
+        WineSearchIndex largeIndex = new WineSearchIndex(new SearchProperties());
+        long id = 1;
+        for (int i = 0; i < 6000; i++) {
+            largeIndex.bulkPut(id++, "Gaucha " + i, "B", 0L);
+            largeIndex.bulkPut(id++, "Sauvignon " + i, "B", 0L);
+        }
+        largeIndex.bulkPut(20001L, "Sauvignon Serra Gaucha", "Reserva Especial", 0L);
+        largeIndex.bulkPut(20002L, "Sauvignon Serra Gaucha", "Reserva", 0L);
+        largeIndex.bulkPut(20003L, "Sauvignon Serra Gaucha", "Gran Reserva Especial", 0L);
+        largeIndex.finishBulkLoad();
+
+        // then
+        assertThat(largeIndex.search("sauvignon gaucha", 2), contains(20002L, 20001L));
+        assertThat(largeIndex.search("sauvignon gaucha", 5), contains(20002L, 20001L, 20003L));
+
+        // when
+        largeIndex.remove(20002L, 0L);
+        largeIndex.put(20004L, "Sauvignon Gaucha", "Reserva", 0L);
+
+        // then
+        assertThat(largeIndex.search("sauvignon gaucha", 2), contains(20004L, 20001L));
+        assertThat(largeIndex.search("sauvignon gaucha", 5), contains(20004L, 20001L, 20003L));
+    }
+
+    @Test
+    void whenAWineIsRenamedOrDeletedThenTheIndexFollowsTheChange() {
+        // given
+        WineDTO before = WineDTOBuilder.builder().id(3L).name("Malbec").brand("Villa Nova").build().toWineDTO();
+        WineDTO after = WineMapper.INSTANCE.copy(before);
+        after.setName("Merlot");
+
+        // when
+        wineSearchIndex.onWineChanged(new WineChangedEvent(WineOperation.UPDATE, before, after));
+
+        // then
+        assertThat(wineSearchIndex.search("malbec", 10), is(empty()));
+        assertThat(wineSearchIndex.search("merlot", 10), contains(3L));
+
+        // when
+        wineSearchIndex.onWineChanged(new WineChangedEvent(WineOperation.DELETE, after, null));
+
+        // then
+        assertThat(wineSearchIndex.search("merlot", 10), is(empty()));
+        assertThat(wineSearchIndex.size(), is(3));
+    }
+
+    @Test
+    void whenTwoRenamesArriveOutOfOrderThenTheNewestNameIsKept() {
+        // given
+        WineDTO original = WineDTOBuilder.builder().id(3L).name("Malbec").brand("Villa Nova").version(0L).build().toWineDTO();
+        WineDTO firstRename = WineMapper.INSTANCE.copy(original);
+        firstRename.setName("Merlot");
+        firstRename.setVersion(1L);
+        WineDTO secondRename = WineMapper.INSTANCE.copy(firstRename);
+        secondRename.setName("Carmenere");
+        secondRename.setVersion(2L);
+
+        // when
+        wineSearchIndex.onWineChanged(new WineChangedEvent(WineOperation.UPDATE, firstRename, secondRename));
+        wineSearchIndex.onWineChanged(new WineChangedEvent(WineOperation.UPDATE, original, firstRename));
+
+        // then
+        assertThat(wineSearchIndex.search("carmenere", 10), contains(3L));
+        assertThat(wineSearchIndex.search("merlot", 10), is(empty()));
+
+        // when
+        wineSearchIndex.onWineChanged(new WineChangedEvent(WineOperation.DELETE, secondRename, null));
+        wineSearchIndex.onWineChanged(new WineChangedEvent(WineOperation.UPDATE, original, firstRename));
+
+        // then
+        assertThat(wineSearchIndex.search("merlot", 10), is(empty()));
+    }
+}
@@ -0,0 +1,93 @@
+package com.one.innovation.digital.winestock.service;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.repository.WineRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+/** Sobe a aplicação completa com o H2 em memória, para que os cadastros simultâneos disputem
+ a restrição unique do nome em um banco de verdade, cada um na sua transação. A renomeação para um nome
+ já cadastrado também esbarra na mesma restrição.
+ */
+public class WineServiceConcurrencyTest {
+
+    private static final int CONCURRENT_CREATES = 8;
+
+    @Autowired
+    private WineService wineService;
+
+    @Autowired
+    private WineRepository wineRepository;
+
+    @Test
+    void whenTheSameWineIsCreatedConcurrentlyThenOnlyOneIsRegisteredAndTheOthersAreRejected() throws Exception {
+        // given
+        String name = "Concurrent " + UUID.randomUUID();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CREATES);
+        Callable<WineDTO> create = () -> {
+            start.await();
+            return wineService.createWine(WineDTOBuilder.builder().id(null).name(name).build().toWineDTO());
+        };
+
+        // when
+        List<Future<WineDTO>> results = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_CREATES; i++) {
+            results.add(executor.submit(create));
+        }
+        start.countDown();
+
+        // then
+        int created = 0;
+        int rejected = 0;
+        for (Future<WineDTO> result : results) {
+            try {
+                result.get(30, TimeUnit.SECONDS);
+                created++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(WineAlreadyRegisteredException.class));
+                rejected++;
+            }
+        }
+        executor.shutdown();
+        assertThat(created, is(1));
+        assertThat(rejected, is(CONCURRENT_CREATES - 1));
+        assertThat(wineRepository.findByName(name).isPresent(), is(true));
+    }
+
+    @Test
+    void whenAWineIsRenamedToARegisteredNameThenItIsRejectedAndKeepsItsName() throws Exception {
+        // given
+        String registeredName = "Registered " + UUID.randomUUID();
+        wineService.createWine(WineDTOBuilder.builder().id(null).name(registeredName).build().toWineDTO());
+        WineDTO wineDTO = wineService.createWine(WineDTOBuilder.builder().id(null).name("Renamed " + UUID.randomUUID()).build().toWineDTO());
+        String originalName = wineDTO.getName();
+
+        // when
+        wineDTO.setName(registeredName);
+
+        // then
+        assertThrows(WineAlreadyRegisteredException.class, () -> wineService.update(wineDTO.getId(), wineDTO));
+        assertThat(wineRepository.findById(wineDTO.getId()).get().getName(), is(originalName));
+    }
+}
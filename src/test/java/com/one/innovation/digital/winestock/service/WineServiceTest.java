@@ -1,30 +1,59 @@
 package com.one.innovation.digital.winestock.service;
 
 import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.config.PaginationProperties;
+import com.one.innovation.digital.winestock.dto.WineBulkResultDTO;
 import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.dto.WinePageDTO;
 import com.one.innovation.digital.winestock.entity.Wine;
+import com.one.innovation.digital.winestock.enums.BulkItemStatus;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.exception.InvalidCursorException;
 import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
 import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import com.one.innovation.digital.winestock.exception.WineVersionMismatchException;
 import com.one.innovation.digital.winestock.mapper.WineMapper;
 import com.one.innovation.digital.winestock.repository.WineRepository;
+import com.one.innovation.digital.winestock.search.WineSearchIndex;
+import com.one.innovation.digital.winestock.snapshot.CatalogSnapshotRestorer;
+import com.one.innovation.digital.winestock.utils.CursorUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import javax.persistence.EntityManager;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 
 @ExtendWith(MockitoExtension.class)
 /** @ExtendWith Diz a classe que você a quer criar e extender
@@ -41,6 +70,21 @@ public class WineServiceTest {
      */
     private WineRepository wineRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private WineSearchIndex wineSearchIndex;
+
+    @Mock
+    private ObjectProvider<CatalogSnapshotRestorer> catalogSnapshotRestorer;
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
     private WineMapper wineMapper = WineMapper.INSTANCE;
     /**
      * Essa instância não é recebe a anotação
@@ -66,8 +110,7 @@ public class WineServiceTest {
         Wine expectedSavedWine = wineMapper.toModel(expectedWineDTO);
 
         // when
-        when(wineRepository.findByName(expectedWineDTO.getName())).thenReturn(Optional.empty());
-        when(wineRepository.save(expectedSavedWine)).thenReturn(expectedSavedWine);
+        when(wineRepository.saveAndFlush(wineMapper.toNewModel(expectedWineDTO))).thenReturn(expectedSavedWine);
 
         //then
         WineDTO createdWineDTO = wineService.createWine(expectedWineDTO);
@@ -75,19 +118,53 @@ public class WineServiceTest {
         assertThat(createdWineDTO.getId(), is(equalTo(expectedWineDTO.getId())));
         assertThat(createdWineDTO.getName(), is(equalTo(expectedWineDTO.getName())));
         assertThat(createdWineDTO.getQuantity(), is(equalTo(expectedWineDTO.getQuantity())));
+        verify(wineRepository, never()).findByName(expectedWineDTO.getName());
+    }
+
+    @Test
+    void whenWineWithIdAndVersionIsInformedThenItShouldBeInsertedAsANewWine() throws WineAlreadyRegisteredException {
+        // given
+        WineDTO echoedWineDTO = WineDTOBuilder.builder().version(0L).build().toWineDTO();
+        Wine expectedSavedWine = wineMapper.toModel(echoedWineDTO);
+
+        // when
+        when(wineRepository.saveAndFlush(any(Wine.class))).thenReturn(expectedSavedWine);
+
+        // then
+        wineService.createWine(echoedWineDTO);
+        /** Sem id e sem versão, o save() faz persist, e não merge de uma cópia. */
+        verify(wineRepository).saveAndFlush(argThat(wine -> wine.getId() == null && wine.getVersion() == null));
     }
 
     @Test
     void whenAlreadyRegisteredWineInformedThenAnExceptionShouldBeThrown() {
         // given
         WineDTO expectedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
-        Wine duplicatedWine = wineMapper.toModel(expectedWineDTO);
+        Wine duplicatedWine = wineMapper.toNewModel(expectedWineDTO);
 
         // when
-        when(wineRepository.findByName(expectedWineDTO.getName())).thenReturn(Optional.of(duplicatedWine));
+        when(wineRepository.saveAndFlush(duplicatedWine)).thenThrow(
+                new DataIntegrityViolationException("unique", new SQLException("Unique index violation", "23505")));
 
         // then
         assertThrows(WineAlreadyRegisteredException.class, () -> wineService.createWine(expectedWineDTO));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void whenCreationViolatesAnotherConstraintThenTheErrorIsNotReportedAsADuplicatedName() {
+        // given
+        WineDTO expectedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        Wine invalidWine = wineMapper.toNewModel(expectedWineDTO);
+
+        // when
+        /** 23502: coluna NOT NULL recebendo nulo. */
+        when(wineRepository.saveAndFlush(invalidWine)).thenThrow(
+                new DataIntegrityViolationException("not null", new SQLException("NULL not allowed", "23502")));
+
+        // then
+        assertThrows(DataIntegrityViolationException.class, () -> wineService.createWine(expectedWineDTO));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -165,7 +242,8 @@ public class WineServiceTest {
     }
 
     @Test
-    void whenUpdateWineIsCalledWithAValidIdThenAWineShouldBeUpdated() throws WineNotFoundException {
+    void whenUpdateWineIsCalledWithAValidIdThenAWineShouldBeUpdated()
+            throws WineNotFoundException, WineVersionMismatchException, WineAlreadyRegisteredException {
         // given
         WineDTO expectedUpdatedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
         Wine expectedUpdateWine = wineMapper.toModel(expectedUpdatedWineDTO);
@@ -191,4 +269,239 @@ public class WineServiceTest {
                 expectedUpdatedWineDTO));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenPageIsRequestedWithMoreWinesThanSizeThenNextCursorIsReturned() throws InvalidCursorException {
+        // given
+        Wine firstWine = wineMapper.toModel(WineDTOBuilder.builder().id(1L).name("Malbec").build().toWineDTO());
+        Wine secondWine = wineMapper.toModel(WineDTOBuilder.builder().id(2L).name("Merlot").build().toWineDTO());
+
+        // when
+        when(wineRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(firstWine, secondWine));
+
+        // then
+        WinePageDTO page = wineService.listPage(null, 1);
+
+        assertThat(page.getContent(), hasSize(1));
+        assertThat(page.getContent().get(0).getName(), is(equalTo(firstWine.getName())));
+        assertThat(page.getNextCursor(), is(equalTo(CursorUtils.encode(firstWine.getId()))));
+    }
+
+    @Test
+    void whenLastPageIsRequestedThenNoCursorIsReturned() throws InvalidCursorException {
+        // given
+        Wine lastWine = wineMapper.toModel(WineDTOBuilder.builder().id(2L).build().toWineDTO());
+        int maxSize = paginationProperties.getMaxSize();
+
+        // when
+        when(wineRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, maxSize + 1)))
+                .thenReturn(Collections.singletonList(lastWine));
+
+        // then
+        /** Um tamanho acima do limite é reduzido para o maxSize configurado. */
+        WinePageDTO page = wineService.listPage(CursorUtils.encode(1L), maxSize * 10);
+
+        assertThat(page.getContent(), hasSize(1));
+        assertThat(page.getNextCursor(), is(nullValue()));
+    }
+
+    @Test
+    void whenInvalidCursorIsGivenThenThrowAnException() {
+        assertThrows(InvalidCursorException.class, () -> wineService.listPage("not-a-cursor", 10));
+    }
+
+    @Test
+    void whenExportIsCalledThenEveryWineIsDeliveredAndDetached() {
+        // given
+        WineDTO expectedExportedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        Wine expectedExportedWine = wineMapper.toModel(expectedExportedWineDTO);
+        List<WineDTO> exportedWines = new ArrayList<>();
+
+        // when
+        when(wineRepository.streamAll()).thenReturn(Stream.of(expectedExportedWine));
+
+        // then
+        wineService.exportAll(exportedWines::add);
+
+        assertThat(exportedWines, contains(expectedExportedWineDTO));
+        verify(entityManager, times(1)).detach(expectedExportedWine);
+    }
+
+    @Test
+    void whenIncrementIsCalledThenIncrementWineStock() throws WineNotFoundException, WineStockExceededException {
+        // given
+        WineDTO expectedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        Wine expectedIncrementedWine = wineMapper.toModel(expectedWineDTO);
+        int quantityToIncrement = 10;
+        expectedIncrementedWine.setQuantity(expectedWineDTO.getQuantity() + quantityToIncrement);
+
+        // when
+        when(wineRepository.adjustQuantity(expectedWineDTO.getId(), quantityToIncrement)).thenReturn(1);
+        when(wineRepository.findById(expectedWineDTO.getId())).thenReturn(Optional.of(expectedIncrementedWine));
+
+        // then
+        WineDTO incrementedWineDTO = wineService.increment(expectedWineDTO.getId(), quantityToIncrement);
+
+        assertThat(incrementedWineDTO.getQuantity(), is(equalTo(expectedWineDTO.getQuantity() + quantityToIncrement)));
+    }
+
+    @Test
+    void whenIncrementIsGreaterThanMaxThenThrowException() {
+        // given
+        WineDTO expectedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        Wine expectedWine = wineMapper.toModel(expectedWineDTO);
+        int quantityToIncrement = 80;
+
+        // when
+        /** O UPDATE condicional não altera nenhuma linha quando o máximo seria ultrapassado. */
+        when(wineRepository.adjustQuantity(expectedWineDTO.getId(), quantityToIncrement)).thenReturn(0);
+        when(wineRepository.findById(expectedWineDTO.getId())).thenReturn(Optional.of(expectedWine));
+
+        // then
+        assertThrows(WineStockExceededException.class, () -> wineService.increment(expectedWineDTO.getId(), quantityToIncrement));
+    }
+
+    @Test
+    void whenDecrementIsLowerThanZeroThenThrowException() {
+        // given
+        WineDTO expectedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        Wine expectedWine = wineMapper.toModel(expectedWineDTO);
+        int quantityToDecrement = 80;
+
+        // when
+        when(wineRepository.adjustQuantity(expectedWineDTO.getId(), -quantityToDecrement)).thenReturn(0);
+        when(wineRepository.findById(expectedWineDTO.getId())).thenReturn(Optional.of(expectedWine));
+
+        // then
+        assertThrows(WineStockExceededException.class, () -> wineService.decrement(expectedWineDTO.getId(), quantityToDecrement));
+    }
+
+    @Test
+    void whenIncrementIsCalledWithInvalidIdThenThrowException() {
+        // given
+        int quantityToIncrement = 10;
+
+        // when
+        when(wineRepository.adjustQuantity(INVALID_WINE_ID, quantityToIncrement)).thenReturn(0);
+        when(wineRepository.findById(INVALID_WINE_ID)).thenReturn(Optional.empty());
+
+        // then
+        assertThrows(WineNotFoundException.class, () -> wineService.increment(INVALID_WINE_ID, quantityToIncrement));
+    }
+
+    @Test
+    void whenBulkIsCalledThenNewWinesAreCreatedAndRegisteredWinesAreUpdated() {
+        // given
+        WineDTO registeredWineDTO = WineDTOBuilder.builder().id(1L).name("Malbec").quantity(5).build().toWineDTO();
+        WineDTO newWineDTO = WineDTOBuilder.builder().id(null).name("Merlot").build().toWineDTO();
+        WineDTO duplicatedWineDTO = WineDTOBuilder.builder().id(null).name("Merlot").build().toWineDTO();
+        Wine registeredWine = wineMapper.toModel(registeredWineDTO);
+        registeredWine.setQuantity(1);
+
+        // when
+        when(wineRepository.findByNameIn(Arrays.asList("Malbec", "Merlot", "Merlot")))
+                .thenReturn(Collections.singletonList(registeredWine));
+
+        // then
+        List<WineBulkResultDTO> results = wineService.bulkCreateOrUpdate(
+                Arrays.asList(registeredWineDTO, newWineDTO, duplicatedWineDTO));
+
+        assertThat(results, hasSize(3));
+        assertThat(results.get(0).getStatus(), is(equalTo(BulkItemStatus.UPDATED)));
+        assertThat(results.get(0).getWine().getQuantity(), is(equalTo(registeredWineDTO.getQuantity())));
+        assertThat(results.get(1).getStatus(), is(equalTo(BulkItemStatus.CREATED)));
+        assertThat(results.get(2).getStatus(), is(equalTo(BulkItemStatus.DUPLICATED)));
+        assertThat(results.get(2).getWine(), is(nullValue()));
+        /** Apenas o vinho novo é enviado ao saveAll; o já cadastrado é atualizado pelo flush. */
+        verify(wineRepository, times(1)).saveAll(Collections.singletonList(wineMapper.toNewModel(newWineDTO)));
+        verify(entityManager, times(1)).flush();
+    }
+
+    @Test
+    void whenWineIsDeletedThenAChangeEventWithThePreviousStateIsPublished() throws WineNotFoundException {
+        // given
+        WineDTO expectedDeletedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        Wine expectedDeletedWine = wineMapper.toModel(expectedDeletedWineDTO);
+        ArgumentCaptor<WineChangedEvent> eventCaptor = ArgumentCaptor.forClass(WineChangedEvent.class);
+
+        // when
+        when(wineRepository.findById(expectedDeletedWineDTO.getId())).thenReturn(Optional.of(expectedDeletedWine));
+
+        // then
+        wineService.deleteById(expectedDeletedWineDTO.getId());
+
+        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getOperation(), is(equalTo(WineOperation.DELETE)));
+        assertThat(eventCaptor.getValue().getBefore(), is(equalTo(expectedDeletedWineDTO)));
+        assertThat(eventCaptor.getValue().getAfter(), is(nullValue()));
+    }
+
+    @Test
+    void whenStockIsIncrementedThenTheChangeEventCarriesThePreviousQuantity()
+            throws WineNotFoundException, WineStockExceededException {
+        // given
+        WineDTO expectedWineDTO = WineDTOBuilder.builder().build().toWineDTO();
+        Wine expectedIncrementedWine = wineMapper.toModel(expectedWineDTO);
+        int quantityToIncrement = 10;
+        expectedIncrementedWine.setQuantity(expectedWineDTO.getQuantity() + quantityToIncrement);
+        ArgumentCaptor<WineChangedEvent> eventCaptor = ArgumentCaptor.forClass(WineChangedEvent.class);
+
+        // when
+        when(wineRepository.adjustQuantity(expectedWineDTO.getId(), quantityToIncrement)).thenReturn(1);
+        when(wineRepository.findById(expectedWineDTO.getId())).thenReturn(Optional.of(expectedIncrementedWine));
+
+        // then
+        wineService.increment(expectedWineDTO.getId(), quantityToIncrement);
+
+        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getOperation(), is(equalTo(WineOperation.INCREMENT)));
+        assertThat(eventCaptor.getValue().getBefore().getQuantity(), is(equalTo(expectedWineDTO.getQuantity())));
+        assertThat(eventCaptor.getValue().getAfter().getQuantity(), is(equalTo(expectedIncrementedWine.getQuantity())));
+    }
+
+    @Test
+    void whenUpdateWineIsCalledWithAnOutdatedVersionThenThrowAnException() {
+        // given
+        WineDTO registeredWineDTO = WineDTOBuilder.builder().version(3L).build().toWineDTO();
+        Wine registeredWine = wineMapper.toModel(registeredWineDTO);
+        WineDTO outdatedWineDTO = WineDTOBuilder.builder().version(2L).build().toWineDTO();
+
+        // when
+        when(wineRepository.findById(registeredWineDTO.getId())).thenReturn(Optional.of(registeredWine));
+
+        // then
+        assertThrows(WineVersionMismatchException.class, () -> wineService.update(registeredWineDTO.getId(), outdatedWineDTO));
+        verify(wineRepository, never()).save(any());
+    }
+
+    @Test
+    void whenUpdateWineLosesAConcurrentWriteThenThrowAnException() {
+        // given
+        WineDTO registeredWineDTO = WineDTOBuilder.builder().version(3L).build().toWineDTO();
+        Wine registeredWine = wineMapper.toModel(registeredWineDTO);
+
+        // when
+        /** Outra escrita alterou o vinho entre a leitura e o UPDATE; o @Version faz o save falhar. */
+        when(wineRepository.findById(registeredWineDTO.getId())).thenReturn(Optional.of(registeredWine));
+        when(wineRepository.save(registeredWine)).thenThrow(new ObjectOptimisticLockingFailureException(Wine.class, 1L));
+
+        // then
+        assertThrows(WineVersionMismatchException.class, () -> wineService.update(registeredWineDTO.getId(), registeredWineDTO));
+    }
+
+    @Test
+    void whenSearchIsCalledThenWinesAreReturnedInTheIndexRankingOrder() {
+        // given
+        Wine malbec = wineMapper.toModel(WineDTOBuilder.builder().id(1L).name("Malbec").build().toWineDTO());
+        Wine merlot = wineMapper.toModel(WineDTOBuilder.builder().id(2L).name("Merlot").build().toWineDTO());
+
+        // when
+        when(wineSearchIndex.search("malbek", paginationProperties.getDefaultSize())).thenReturn(Arrays.asList(2L, 1L));
+        when(wineRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(malbec, merlot));
+
+        // then
+        List<WineDTO> foundWines = wineService.search("malbek", null);
+        assertThat(foundWines.stream().map(WineDTO::getName).collect(Collectors.toList()), contains("Merlot", "Malbec"));
+    }
+}
@@ -0,0 +1,204 @@
+package com.one.innovation.digital.winestock.sharding;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.exception.WineAlreadyRegisteredException;
+import com.one.innovation.digital.winestock.service.ShardedWineService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.one.innovation.digital.winestock.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding-primary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "winestock.sharding.enabled=true",
+        "winestock.sharding.urls=" + ShardedCatalogTest.SHARD_URL_PREFIX + "0" + ShardedCatalogTest.SHARD_URL_OPTIONS + ","
+                + ShardedCatalogTest.SHARD_URL_PREFIX + "1" + ShardedCatalogTest.SHARD_URL_OPTIONS + ","
+                + ShardedCatalogTest.SHARD_URL_PREFIX + "2" + ShardedCatalogTest.SHARD_URL_OPTIONS,
+        "winestock.sharding.username=sa",
+        "winestock.sharding.password=",
+        "spring.cache.type=none"
+})
+@AutoConfigureMockMvc
+/** Três H2 em memória fazem o papel dos shards. As verificações de onde cada vinho foi gravado
+ são feitas direto nos bancos, por fora da aplicação.
+ */
+public class ShardedCatalogTest {
+
+    static final String SHARD_URL_PREFIX = "jdbc:h2:mem:shard-";
+
+    static final String SHARD_URL_OPTIONS = ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    private static final int SHARDS = 3;
+
+    private static final String WINE_API_URL_PATH = "/api/v1/wines";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShardedWineService shardedWineService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        shards.clear();
+        for (int i = 0; i < SHARDS; i++) {
+            JdbcTemplate shard = new JdbcTemplate(new DriverManagerDataSource(SHARD_URL_PREFIX + i + SHARD_URL_OPTIONS, "sa", ""));
+            shard.update("delete from wine");
+            shards.add(shard);
+        }
+    }
+
+    @Test
+    void whenWinesAreCreatedThenEachOneIsStoredOnlyInTheShardOfItsNameAndItsIdPointsToIt() throws Exception {
+        // given
+        List<WineDTO> createdWines = createWines(30);
+
+        // then
+        for (WineDTO createdWine : createdWines) {
+            int shard = shardRouter.shardOf(createdWine.getName());
+            assertThat(shardRouter.shardOf(createdWine.getId()), is(shard));
+            for (int i = 0; i < SHARDS; i++) {
+                Integer stored = shards.get(i).queryForObject("select count(*) from wine where id = ?", Integer.class, createdWine.getId());
+                assertThat(stored, is(i == shard ? 1 : 0));
+            }
+        }
+        for (JdbcTemplate shard : shards) {
+            assertThat(shard.queryForObject("select count(*) from wine", Integer.class) > 0, is(true));
+        }
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + createdWines.get(7).getName()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(createdWines.get(7).getId().intValue())));
+    }
+
+    @Test
+    void whenTheCatalogIsListedThenAllShardsAreMergedInIdOrder() throws Exception {
+        // given
+        List<WineDTO> createdWines = createWines(12);
+        createdWines.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(12)))
+                .andExpect(jsonPath("$[0].id", is(createdWines.get(0).getId().intValue())))
+                .andExpect(jsonPath("$[11].id", is(createdWines.get(11).getId().intValue())));
+        MvcResult export = mockMvc.perform(get(WINE_API_URL_PATH + "/export").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.split("\n").length, is(12));
+    }
+
+    @Test
+    void whenStatsAreRequestedThenTheTotalsOfEveryShardAreSummed() throws Exception {
+        // given
+        createWines(9);
+
+        // then
+        mockMvc.perform(get(WINE_API_URL_PATH + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(WineType.values().length)))
+                .andExpect(jsonPath("$[?(@.type == 'REDWINE')].wines", is(List.of(9))))
+                .andExpect(jsonPath("$[?(@.type == 'REDWINE')].bottles", is(List.of(90))))
+                .andExpect(jsonPath("$[?(@.type == 'REDWINE')].capacity", is(List.of(450))));
+    }
+
+    @Test
+    void whenWineIsChangedByIdThenUpdateStockAndDeleteResolveItsShard() throws Exception {
+        // given
+        WineDTO wineDTO = createWines(1).get(0);
+        WineDTO changedWineDTO = WineDTOBuilder.builder().name(wineDTO.getName()).brand("Changed").build().toWineDTO();
+
+        // then
+        mockMvc.perform(put(WINE_API_URL_PATH + "/" + wineDTO.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(changedWineDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.brand", is("Changed")))
+                .andExpect(jsonPath("$.version", is(1)));
+        mockMvc.perform(patch(WINE_API_URL_PATH + "/" + wineDTO.getId() + "/decrement")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 4}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(6)));
+        mockMvc.perform(delete(WINE_API_URL_PATH + "/" + wineDTO.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get(WINE_API_URL_PATH + "/" + wineDTO.getName()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenWineIsRenamedOrNameIsRepeatedThenTheChangeIsRefused() throws Exception {
+        // given
+        WineDTO wineDTO = createWines(1).get(0);
+        WineDTO renamedWineDTO = WineDTOBuilder.builder().name(wineDTO.getName() + " Reserva").build().toWineDTO();
+
+        // then
+        mockMvc.perform(put(WINE_API_URL_PATH + "/" + wineDTO.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(renamedWineDTO)))
+                .andExpect(status().isBadRequest());
+        WineDTO duplicatedWineDTO = WineDTOBuilder.builder().id(null).name(wineDTO.getName()).build().toWineDTO();
+        assertThrows(WineAlreadyRegisteredException.class, () -> shardedWineService.createWine(duplicatedWineDTO));
+    }
+
+    @Test
+    void whenShardsAreEnabledThenWritesAreNotRecordedInTheOutboxOrTheLedgerAndTheChangeFeedIsNotServed() throws Exception {
+        // given
+        JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:sharding-primary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE", "sa", ""));
+
+        // when
+        List<WineDTO> createdWines = createWines(3);
+        shardedWineService.increment(createdWines.get(0).getId(), 1);
+
+        // then
+        assertThat(primary.queryForObject("select count(*) from wine_change", Integer.class), is(0));
+        assertThat(primary.queryForObject("select count(*) from stock_movement", Integer.class), is(0));
+        mockMvc.perform(get(WINE_API_URL_PATH + "/changes/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+    }
+
+    private List<WineDTO> createWines(int count) throws WineAlreadyRegisteredException {
+        List<WineDTO> createdWines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            createdWines.add(shardedWineService.createWine(WineDTOBuilder.builder()
+                    .id(null)
+                    .name("Sharded Wine " + i)
+                    .build()
+                    .toWineDTO()));
+        }
+        return createdWines;
+    }
+}
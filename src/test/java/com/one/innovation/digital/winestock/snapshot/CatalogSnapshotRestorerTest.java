@@ -0,0 +1,191 @@
+package com.one.innovation.digital.winestock.snapshot;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.cache.CatalogVersion;
+import com.one.innovation.digital.winestock.config.SnapshotProperties;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.inventory.InventoryIndex;
+import com.one.innovation.digital.winestock.search.WineSearchIndex;
+import com.one.innovation.digital.winestock.service.WineService;
+import com.one.innovation.digital.winestock.stats.WineTypeStatistics;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogSnapshotRestorerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private WineSearchIndex wineSearchIndex;
+
+    @Mock
+    private InventoryIndex inventoryIndex;
+
+    @Mock
+    private WineTypeStatistics wineTypeStatistics;
+
+    @Mock
+    private WineService wineService;
+
+    @TempDir
+    Path directory;
+
+    private final WineDTO snapshotWine = WineDTOBuilder.builder().id(120L).version(3L).build().toWineDTO();
+
+    private SnapshotProperties snapshotProperties;
+
+    private CatalogSnapshotRestorer catalogSnapshotRestorer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setPath(directory.resolve("catalog.snapshot"));
+        CatalogSnapshot.write(snapshotProperties.getPath(), List.of(snapshotWine)::forEach);
+        catalogSnapshotRestorer = new CatalogSnapshotRestorer(snapshotProperties, jdbcTemplate, transactionManager, wineSearchIndex,
+                inventoryIndex, wineTypeStatistics, new CatalogVersion());
+    }
+
+    @Test
+    void whenWineTableIsEmptyThenTheSnapshotServesReadsAndTheSequenceSkipsItsIds() {
+        // when
+        when(jdbcTemplate.queryForObject("select count(*) from wine", Long.class)).thenReturn(0L);
+        catalogSnapshotRestorer.afterSingletonsInstantiated();
+
+        // then
+        assertThat(catalogSnapshotRestorer.isRestoring(), is(true));
+        assertThat(catalogSnapshotRestorer.findByName(snapshotWine.getName()), is(Optional.of(snapshotWine)));
+        verify(jdbcTemplate).execute("alter sequence wine_sequence restart with 170");
+    }
+
+    @Test
+    void whenWineTableAlreadyHasWinesThenTheSnapshotIsNotUsed() {
+        // when
+        when(jdbcTemplate.queryForObject("select count(*) from wine", Long.class)).thenReturn(10L);
+        catalogSnapshotRestorer.afterSingletonsInstantiated();
+
+        // then
+        assertThat(catalogSnapshotRestorer.isRestoring(), is(false));
+        assertThat(catalogSnapshotRestorer.findByName(snapshotWine.getName()), is(Optional.empty()));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void whenWineChangesDuringTheRestoreThenTheSnapshotNoLongerAnswersForIt() {
+        // given
+        when(jdbcTemplate.queryForObject("select count(*) from wine", Long.class)).thenReturn(0L);
+        catalogSnapshotRestorer.afterSingletonsInstantiated();
+
+        // when
+        catalogSnapshotRestorer.onWineChanged(new WineChangedEvent(WineOperation.DELETE, snapshotWine, null));
+
+        // then
+        assertThat(catalogSnapshotRestorer.findByName(snapshotWine.getName()), is(Optional.empty()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenRestoreFinishesThenWinesAreIndexedAndTheSnapshotIsReleased() {
+        // given
+        when(jdbcTemplate.queryForObject("select count(*) from wine", Long.class)).thenReturn(0L);
+        catalogSnapshotRestorer.afterSingletonsInstantiated();
+
+        // when
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1}});
+        catalogSnapshotRestorer.restore();
+
+        // then
+        assertThat(catalogSnapshotRestorer.isRestoring(), is(false));
+        assertThat(catalogSnapshotRestorer.findByName(snapshotWine.getName()), is(Optional.empty()));
+        verify(wineSearchIndex, times(1)).put(eq(snapshotWine.getId()), eq(snapshotWine.getName()), eq(snapshotWine.getBrand()), eq(snapshotWine.getVersion()));
+        verify(inventoryIndex, times(1)).put(snapshotWine.getId(), snapshotWine.getType(), snapshotWine.getQuantity(), snapshotWine.getMax(), snapshotWine.getVersion());
+        verify(wineTypeStatistics, times(1)).rebuild();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenRestoreFailsThenTheSnapshotKeepsServingAndIsNotOverwritten() {
+        // given
+        when(jdbcTemplate.queryForObject("select count(*) from wine", Long.class)).thenReturn(0L);
+        catalogSnapshotRestorer.afterSingletonsInstantiated();
+        CatalogSnapshotWriter catalogSnapshotWriter = new CatalogSnapshotWriter(wineService, snapshotProperties, catalogSnapshotRestorer);
+
+        // when
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("disk full"));
+        catalogSnapshotRestorer.restore();
+        catalogSnapshotWriter.writeSnapshot();
+
+        // then
+        assertThat(catalogSnapshotRestorer.isRestoreFailed(), is(true));
+        assertThat(catalogSnapshotRestorer.isRestoring(), is(true));
+        assertThat(catalogSnapshotRestorer.findByName(snapshotWine.getName()), is(Optional.of(snapshotWine)));
+        verify(wineService, never()).exportAll(any());
+        verify(wineTypeStatistics, times(1)).rebuild();
+    }
+
+    @Test
+    void whenThePoolDisablesAutoCommitThenTheRestoredWinesAreCommittedBeforeBeingIndexed() {
+        // given
+        /** Como no perfil prod: a conexão sai do pool com auto-commit desligado e, se nada for confirmado,
+         o Hikari desfaz as alterações quando ela volta ao pool.
+         */
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:snapshot-restore-auto-commit;DB_CLOSE_DELAY=-1");
+        config.setAutoCommit(false);
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            JdbcTemplate pooledJdbcTemplate = new JdbcTemplate(dataSource);
+            pooledJdbcTemplate.execute("create sequence wine_sequence");
+            pooledJdbcTemplate.execute("create table wine (id bigint primary key, name varchar(255) not null unique, "
+                    + "brand varchar(255), max int, quantity int, type varchar(20), low_stock_threshold int, version bigint)");
+            CatalogSnapshotRestorer pooledRestorer = new CatalogSnapshotRestorer(snapshotProperties, pooledJdbcTemplate,
+                    new DataSourceTransactionManager(dataSource), wineSearchIndex, inventoryIndex, wineTypeStatistics,
+                    new CatalogVersion());
+            pooledRestorer.afterSingletonsInstantiated();
+
+            // when
+            pooledRestorer.restore();
+
+            // then
+            assertThat(pooledJdbcTemplate.queryForObject("select count(*) from wine where id = ?", Long.class,
+                    snapshotWine.getId()), is(1L));
+            assertThat(pooledRestorer.isRestoring(), is(false));
+            verify(wineSearchIndex, times(1)).put(eq(snapshotWine.getId()), eq(snapshotWine.getName()), eq(snapshotWine.getBrand()), eq(snapshotWine.getVersion()));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.one.innovation.digital.winestock.snapshot;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.enums.WineType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CatalogSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenCatalogIsWrittenThenEveryWineIsFoundByNameInTheMappedFile() throws IOException {
+        // given
+        List<WineDTO> wines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            wines.add(WineDTOBuilder.builder()
+                    .id(i * 3L + 1)
+                    .name("Vinho " + i)
+                    .brand("Vinícola " + (i % 7))
+                    .quantity(i % 50)
+                    .type(WineType.values()[i % WineType.values().length])
+                    .lowStockThreshold(i % 2 == 0 ? null : i % 40)
+                    .version((long) i)
+                    .build()
+                    .toWineDTO());
+        }
+        Path path = directory.resolve("catalog.snapshot");
+
+        // when
+        int written = CatalogSnapshot.write(path, wines::forEach);
+        CatalogSnapshot snapshot = CatalogSnapshot.open(path);
+
+        // then
+        assertThat(written, is(5000));
+        assertThat(snapshot.size(), is(5000));
+        assertThat(snapshot.maxId(), is(4999 * 3L + 1));
+        for (WineDTO wineDTO : wines) {
+            assertThat(snapshot.findByName(wineDTO.getName()), is(Optional.of(wineDTO)));
+        }
+        assertThat(snapshot.findByName("Vinho 5000"), is(Optional.empty()));
+        List<WineDTO> readBack = new ArrayList<>();
+        snapshot.forEach(readBack::add);
+        assertThat(readBack, is(wines));
+    }
+
+    @Test
+    void whenSnapshotIsRewrittenThenTheNewCatalogReplacesTheOldOne() throws IOException {
+        // given
+        Path path = directory.resolve("catalog.snapshot");
+        WineDTO oldWine = WineDTOBuilder.builder().name("Antigo").version(0L).build().toWineDTO();
+        WineDTO newWine = WineDTOBuilder.builder().id(2L).name("Novo").version(0L).build().toWineDTO();
+        CatalogSnapshot.write(path, List.of(oldWine)::forEach);
+
+        // when
+        CatalogSnapshot.write(path, List.of(newWine)::forEach);
+        CatalogSnapshot snapshot = CatalogSnapshot.open(path);
+
+        // then
+        assertThat(snapshot.findByName("Antigo"), is(Optional.empty()));
+        assertThat(snapshot.findByName("Novo"), is(Optional.of(newWine)));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count(), is(1L));
+        }
+    }
+
+    @Test
+    void whenEmptyCatalogIsWrittenThenLookupsFindNothing() throws IOException {
+        // given
+        Path path = directory.resolve("catalog.snapshot");
+
+        // when
+        CatalogSnapshot.write(path, consumer -> { });
+
+        // then
+        assertThat(CatalogSnapshot.open(path).size(), is(0));
+        assertThat(CatalogSnapshot.open(path).findByName("Cabernet Sauvignon"), is(Optional.empty()));
+    }
+
+    @Test
+    void whenFileIsNotASnapshotThenOpeningFails() throws IOException {
+        // given
+        Path path = Files.writeString(directory.resolve("catalog.snapshot"), "not a snapshot, just some text");
+
+        // then
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(path));
+    }
+}
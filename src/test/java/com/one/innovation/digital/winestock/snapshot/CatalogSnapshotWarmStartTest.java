@@ -0,0 +1,87 @@
+package com.one.innovation.digital.winestock.snapshot;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.search.WineSearchIndex;
+import com.one.innovation.digital.winestock.service.WineService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:snapshot-warm-start;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "winestock.snapshot.enabled=true",
+        "winestock.snapshot.interval=PT1H",
+        "winestock.snapshot.write-on-shutdown=false",
+        "winestock.snapshot.restore-batch-size=100",
+        "spring.cache.type=none"
+})
+/** O snapshot é gravado antes de o contexto subir, com um banco H2 vazio: o mesmo cenário de um
+ reinício com o banco em memória.
+ */
+public class CatalogSnapshotWarmStartTest {
+
+    private static final int SNAPSHOT_WINES = 1000;
+
+    private static final long SNAPSHOT_MAX_ID = 5000;
+
+    @Autowired
+    private WineService wineService;
+
+    @Autowired
+    private CatalogSnapshotRestorer catalogSnapshotRestorer;
+
+    @Autowired
+    private WineSearchIndex wineSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void snapshotPath(DynamicPropertyRegistry registry) throws IOException {
+        Path path = Files.createTempDirectory("winestock-snapshot").resolve("catalog.snapshot");
+        List<WineDTO> wines = new ArrayList<>();
+        for (int i = 1; i <= SNAPSHOT_WINES; i++) {
+            wines.add(WineDTOBuilder.builder()
+                    .id(i == SNAPSHOT_WINES ? SNAPSHOT_MAX_ID : i)
+                    .name("Snapshot Wine " + i)
+                    .version(0L)
+                    .build()
+                    .toWineDTO());
+        }
+        CatalogSnapshot.write(path, wines::forEach);
+        registry.add("winestock.snapshot.path", path::toString);
+    }
+
+    @Test
+    void whenApplicationStartsWithAnEmptyDatabaseThenTheSnapshotIsRestoredIntoIt() throws Exception {
+        // given
+        assertThat(wineService.findByName("Snapshot Wine 500").getId(), is(500L));
+
+        // when
+        for (int i = 0; i < 100 && catalogSnapshotRestorer.isRestoring(); i++) {
+            Thread.sleep(100);
+        }
+
+        // then
+        assertThat(catalogSnapshotRestorer.isRestoring(), is(false));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from wine", Integer.class), is(SNAPSHOT_WINES));
+        assertThat(wineService.findByName("Snapshot Wine 1000").getId(), is(SNAPSHOT_MAX_ID));
+        assertThat(wineService.search("Snapshot Wine 42", 1).get(0).getName(), is("Snapshot Wine 42"));
+        WineDTO createdWine = wineService.createWine(WineDTOBuilder.builder().id(null).name("Fresh Wine").build().toWineDTO());
+        assertThat(createdWine.getId(), greaterThan(SNAPSHOT_MAX_ID));
+    }
+}
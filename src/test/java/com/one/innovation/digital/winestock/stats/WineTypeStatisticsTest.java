@@ -0,0 +1,146 @@
+package com.one.innovation.digital.winestock.stats;
+
+import com.one.innovation.digital.winestock.builder.WineDTOBuilder;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.dto.WineTypeStatsDTO;
+import com.one.innovation.digital.winestock.enums.WineOperation;
+import com.one.innovation.digital.winestock.enums.WineType;
+import com.one.innovation.digital.winestock.event.WineChangedEvent;
+import com.one.innovation.digital.winestock.mapper.WineMapper;
+import com.one.innovation.digital.winestock.repository.WineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class WineTypeStatisticsTest {
+
+    @Mock
+    private WineRepository wineRepository;
+
+    @InjectMocks
+    private WineTypeStatistics wineTypeStatistics;
+
+    private final WineMapper wineMapper = WineMapper.INSTANCE;
+
+    @BeforeEach
+    void setUp() {
+        WineRepository.WineTypeTotals redWineTotals = mock(WineRepository.WineTypeTotals.class);
+        when(redWineTotals.getType()).thenReturn(WineType.REDWINE);
+        when(redWineTotals.getWines()).thenReturn(3L);
+        when(redWineTotals.getBottles()).thenReturn(30L);
+        when(redWineTotals.getCapacity()).thenReturn(120L);
+        when(wineRepository.sumByType()).thenReturn(Collections.singletonList(redWineTotals));
+        wineTypeStatistics.rebuild();
+    }
+
+    @Test
+    void whenRebuiltThenTheTotalsOfTheGroupedQueryAreReturned() {
+        WineTypeStatsDTO redWineStats = statsOf(WineType.REDWINE);
+
+        assertThat(redWineStats.getWines(), is(3L));
+        assertThat(redWineStats.getBottles(), is(30L));
+        assertThat(redWineStats.getCapacity(), is(120L));
+        assertThat(redWineStats.getFillRatio(), is(0.25));
+        assertThat(statsOf(WineType.WHITEWINE).getWines(), is(0L));
+        assertThat(wineTypeStatistics.all().size(), is(WineType.values().length));
+    }
+
+    @Test
+    void whenAWineIsCreatedAndItsStockChangesThenTheTotalsFollow() {
+        // given
+        WineDTO createdWineDTO = WineDTOBuilder.builder().max(50).quantity(10).type(WineType.REDWINE).build().toWineDTO();
+        WineDTO incrementedWineDTO = wineMapper.copy(createdWineDTO);
+        incrementedWineDTO.setQuantity(15);
+
+        // when
+        wineTypeStatistics.onWineChanged(new WineChangedEvent(WineOperation.CREATE, null, createdWineDTO));
+        wineTypeStatistics.onWineChanged(new WineChangedEvent(WineOperation.INCREMENT, createdWineDTO, incrementedWineDTO));
+
+        // then
+        WineTypeStatsDTO redWineStats = statsOf(WineType.REDWINE);
+        assertThat(redWineStats.getWines(), is(4L));
+        assertThat(redWineStats.getBottles(), is(45L));
+        assertThat(redWineStats.getCapacity(), is(170L));
+    }
+
+    @Test
+    void whenTheTypeChangesOrTheWineIsDeletedThenItLeavesThePreviousTypeTotals() {
+        // given
+        WineDTO redWineDTO = WineDTOBuilder.builder().max(20).quantity(10).type(WineType.REDWINE).build().toWineDTO();
+        WineDTO whiteWineDTO = wineMapper.copy(redWineDTO);
+        whiteWineDTO.setType(WineType.WHITEWINE);
+
+        // when
+        wineTypeStatistics.onWineChanged(new WineChangedEvent(WineOperation.UPDATE, redWineDTO, whiteWineDTO));
+
+        // then
+        assertThat(statsOf(WineType.REDWINE).getWines(), is(2L));
+        assertThat(statsOf(WineType.REDWINE).getBottles(), is(20L));
+        assertThat(statsOf(WineType.WHITEWINE).getBottles(), is(10L));
+
+        wineTypeStatistics.onWineChanged(new WineChangedEvent(WineOperation.DELETE, whiteWineDTO, null));
+        assertThat(statsOf(WineType.WHITEWINE).getWines(), is(0L));
+        assertThat(statsOf(WineType.WHITEWINE).getFillRatio(), is(0.0));
+    }
+
+    @Test
+    void whenRebuiltWithTrafficThenReadersSeeThePreviousTotalsAndChangesWaitForTheNewOnes() throws Exception {
+        // given
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch queryReleased = new CountDownLatch(1);
+        List<WineRepository.WineTypeTotals> rebuiltRows = wineRepository.sumByType();
+        when(wineRepository.sumByType()).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            queryReleased.await();
+            return rebuiltRows;
+        });
+        WineDTO createdWineDTO = WineDTOBuilder.builder().max(50).quantity(10).type(WineType.REDWINE).build().toWineDTO();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // when
+            Future<?> rebuild = executor.submit(() -> wineTypeStatistics.rebuild());
+            assertThat(queryStarted.await(5, TimeUnit.SECONDS), is(true));
+            Future<?> change = executor.submit(() ->
+                    wineTypeStatistics.onWineChanged(new WineChangedEvent(WineOperation.CREATE, null, createdWineDTO)));
+
+            // then
+            assertThat(statsOf(WineType.REDWINE).getWines(), is(3L));
+            assertThrows(TimeoutException.class, () -> change.get(200, TimeUnit.MILLISECONDS));
+            queryReleased.countDown();
+            rebuild.get(5, TimeUnit.SECONDS);
+            change.get(5, TimeUnit.SECONDS);
+            assertThat(statsOf(WineType.REDWINE).getWines(), is(4L));
+            assertThat(statsOf(WineType.REDWINE).getBottles(), is(40L));
+        } finally {
+            queryReleased.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private WineTypeStatsDTO statsOf(WineType type) {
+        return wineTypeStatistics.all().stream()
+                .filter(stats -> stats.getType() == type)
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+    }
+}
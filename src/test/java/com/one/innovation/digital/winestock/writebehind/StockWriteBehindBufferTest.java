@@ -0,0 +1,309 @@
+package com.one.innovation.digital.winestock.writebehind;
+
+import com.one.innovation.digital.winestock.config.WriteBehindProperties;
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class StockWriteBehindBufferTest {
+
+    private static final int MAX_FAILED_FLUSHES = 3;
+
+    private static final int MAX_PENDING = 5;
+
+    @Mock
+    private StockWriteBehindFlusher stockWriteBehindFlusher;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StockWriteBehindBuffer stockWriteBehindBuffer;
+
+    @BeforeEach
+    void setUp() throws WineNotFoundException {
+        /** Intervalo longo para que o flush agendado não interfira; os testes chamam flush() diretamente. */
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setBatchSize(2);
+        properties.setMaxFailedFlushes(MAX_FAILED_FLUSHES);
+        properties.setMaxPending(MAX_PENDING);
+        stockWriteBehindBuffer = new StockWriteBehindBuffer(properties, stockWriteBehindFlusher, meterRegistry);
+        stockWriteBehindBuffer.start();
+        /** Todo vinho começa com 10 garrafas de no máximo 100, e cada lote é gravado por inteiro. */
+        when(stockWriteBehindFlusher.currentStock(anyLong())).thenReturn(stock(10));
+        when(stockWriteBehindFlusher.applyBatch(anyList())).thenAnswer(invocation -> appliedAll(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockWriteBehindBuffer.stop();
+    }
+
+    @Test
+    void whenSeveralChangesToTheSameWineAreBufferedThenASingleNetChangeIsFlushed() throws Exception {
+        // given
+        stockWriteBehindBuffer.enqueue(1L, 10);
+        stockWriteBehindBuffer.enqueue(1L, -3);
+        stockWriteBehindBuffer.enqueue(1L, 5);
+        assertThat(meterRegistry.get(StockWriteBehindBuffer.PENDING_GAUGE).gauge().value(), is(3.0));
+
+        // when
+        stockWriteBehindBuffer.flush();
+
+        // then
+        verify(stockWriteBehindFlusher).applyBatch(List.of(new PendingStockChange(1L, 12, 3)));
+        assertThat(stockWriteBehindBuffer.pending(), is(0L));
+        assertThat(meterRegistry.get(StockWriteBehindBuffer.FLUSHED_COUNTER).counter().count(), is(3.0));
+    }
+
+    @Test
+    void whenChangesCancelOutThenNothingIsFlushed() throws Exception {
+        // given
+        stockWriteBehindBuffer.enqueue(1L, 4);
+        stockWriteBehindBuffer.enqueue(1L, -4);
+
+        // when
+        stockWriteBehindBuffer.flush();
+
+        // then
+        verify(stockWriteBehindFlusher, never()).applyBatch(anyList());
+        assertThat(meterRegistry.get(StockWriteBehindBuffer.FLUSHED_COUNTER).counter().count(), is(2.0));
+    }
+
+    @Test
+    void whenTheWineDoesNotExistThenTheChangeIsRejectedWithoutBeingBuffered() throws Exception {
+        // given
+        when(stockWriteBehindFlusher.currentStock(9L)).thenThrow(new WineNotFoundException(9L));
+
+        // then
+        assertThrows(WineNotFoundException.class, () -> stockWriteBehindBuffer.enqueue(9L, 1));
+        assertThat(stockWriteBehindBuffer.pending(), is(0L));
+    }
+
+    @Test
+    void whenTheChangeExceedsTheProjectedStockThenItIsRejected() throws Exception {
+        // given
+        stockWriteBehindBuffer.enqueue(1L, -6);
+
+        // then
+        /** Restam 4 garrafas projetadas: o decremento de 5 não cabe, mesmo com nada gravado ainda. */
+        assertThrows(WineStockExceededException.class, () -> stockWriteBehindBuffer.enqueue(1L, -5));
+        assertThat(stockWriteBehindBuffer.pending(), is(1L));
+    }
+
+    @Test
+    void whenTheBufferIsFullThenNewChangesAreNotAccepted() throws Exception {
+        // given
+        /** Um flush parado na gravação segura o flush antecipado, que esvaziaria o buffer no meio do teste. */
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(stockWriteBehindFlusher.applyBatch(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return appliedAll(invocation.getArgument(0));
+        });
+        stockWriteBehindBuffer.enqueue(100L, 1);
+        Thread flush = new Thread(stockWriteBehindBuffer::flush);
+        flush.start();
+        writing.await();
+        for (int change = 0; change < MAX_PENDING; change++) {
+            stockWriteBehindBuffer.enqueue((long) change, 1);
+        }
+
+        // when
+        boolean accepted = stockWriteBehindBuffer.enqueue(1L, 1);
+
+        // then
+        assertThat(accepted, is(false));
+        assertThat(stockWriteBehindBuffer.pending(), is((long) MAX_PENDING));
+        release.countDown();
+        flush.join();
+    }
+
+    @Test
+    void whenAWineHasNoChangesForAWholeFlushThenItLeavesTheBuffer() throws Exception {
+        // given
+        stockWriteBehindBuffer.enqueue(1L, 2);
+        stockWriteBehindBuffer.flush();
+        stockWriteBehindBuffer.flush();
+
+        // when
+        stockWriteBehindBuffer.enqueue(1L, 1);
+
+        // then
+        /** O vinho foi lido de novo porque a entrada anterior tinha sido removida. */
+        verify(stockWriteBehindFlusher, times(2)).currentStock(1L);
+    }
+
+    @Test
+    void whenAFlushIsWrittenThenTheProjectionFollowsTheWrittenStock() throws Exception {
+        // given
+        when(stockWriteBehindFlusher.applyBatch(anyList())).thenReturn(Map.of(1L, stock(3)));
+        stockWriteBehindBuffer.enqueue(1L, -2);
+
+        // when
+        /** Uma escrita síncrona levou o estoque a 3 depois do decremento; o UPDATE devolve o estado real. */
+        stockWriteBehindBuffer.flush();
+
+        // then
+        assertThrows(WineStockExceededException.class, () -> stockWriteBehindBuffer.enqueue(1L, -4));
+        verify(stockWriteBehindFlusher, times(1)).currentStock(1L);
+    }
+
+    @Test
+    void whenTheNetChangeNoLongerFitsThenItIsDiscardedAndTheWineReloaded() throws Exception {
+        // given
+        when(stockWriteBehindFlusher.applyBatch(anyList())).thenReturn(Map.of());
+        stockWriteBehindBuffer.enqueue(1L, -3);
+        stockWriteBehindBuffer.enqueue(1L, -3);
+
+        // when
+        stockWriteBehindBuffer.flush();
+        stockWriteBehindBuffer.enqueue(1L, 1);
+
+        // then
+        assertThat(meterRegistry.get(StockWriteBehindBuffer.REJECTED_COUNTER).counter().count(), is(2.0));
+        verify(stockWriteBehindFlusher, times(2)).currentStock(1L);
+    }
+
+    @Test
+    void whenMoreWinesThanTheBatchSizeArePendingThenTheyAreFlushedInSeveralBatches() throws Exception {
+        // given
+        stockWriteBehindBuffer.enqueue(1L, 1);
+        stockWriteBehindBuffer.enqueue(2L, 2);
+        stockWriteBehindBuffer.enqueue(3L, 3);
+
+        // when
+        stockWriteBehindBuffer.flush();
+
+        // then
+        ArgumentCaptor<List<PendingStockChange>> batches = captor();
+        verify(stockWriteBehindFlusher, times(2)).applyBatch(batches.capture());
+        assertThat(batches.getAllValues().get(0).size(), is(2));
+        assertThat(batches.getAllValues().get(1).size(), is(1));
+    }
+
+    @Test
+    void whenTheDatabaseIsUnavailableThenTheChangesAreKeptForTheNextFlush() throws Exception {
+        // given
+        stockWriteBehindBuffer.enqueue(1L, 7);
+        when(stockWriteBehindFlusher.applyBatch(anyList()))
+                .thenThrow(new CannotCreateTransactionException("database unavailable"))
+                .thenReturn(Map.of(1L, stock(18)));
+
+        // when
+        stockWriteBehindBuffer.flush();
+        stockWriteBehindBuffer.enqueue(1L, 1);
+        stockWriteBehindBuffer.flush();
+
+        // then
+        ArgumentCaptor<List<PendingStockChange>> batches = captor();
+        verify(stockWriteBehindFlusher, times(2)).applyBatch(batches.capture());
+        assertThat(batches.getAllValues().get(1), contains(new PendingStockChange(1L, 8, 2)));
+        assertThat(stockWriteBehindBuffer.pending(), is(0L));
+    }
+
+    @Test
+    void whenOneWineFailsThenTheOthersInItsBatchAreStillWritten() throws Exception {
+        // given
+        stockWriteBehindBuffer.enqueue(1L, 2);
+        stockWriteBehindBuffer.enqueue(2L, -1);
+        when(stockWriteBehindFlusher.applyBatch(anyList())).thenAnswer(invocation -> {
+            List<PendingStockChange> batch = invocation.getArgument(0);
+            if (batch.contains(new PendingStockChange(2L, -1, 1))) {
+                throw new IllegalStateException("broken wine");
+            }
+            return appliedAll(batch);
+        });
+
+        // when
+        stockWriteBehindBuffer.flush();
+
+        // then
+        verify(stockWriteBehindFlusher).applyBatch(List.of(new PendingStockChange(1L, 2, 1)));
+        assertThat(meterRegistry.get(StockWriteBehindBuffer.FLUSHED_COUNTER).counter().count(), is(1.0));
+        assertThat(stockWriteBehindBuffer.pending(), is(1L));
+    }
+
+    @Test
+    void whenAWineKeepsFailingThenItsChangesAreDiscardedAfterTheRetryLimit() throws Exception {
+        // given
+        stockWriteBehindBuffer.enqueue(1L, 2);
+        when(stockWriteBehindFlusher.applyBatch(anyList())).thenThrow(new IllegalStateException("broken wine"));
+
+        // when
+        for (int flush = 0; flush < MAX_FAILED_FLUSHES; flush++) {
+            stockWriteBehindBuffer.flush();
+        }
+
+        // then
+        assertThat(stockWriteBehindBuffer.pending(), is(0L));
+        assertThat(meterRegistry.get(StockWriteBehindBuffer.REJECTED_COUNTER).counter().count(), is(1.0));
+        stockWriteBehindBuffer.flush();
+        verify(stockWriteBehindFlusher, times(2 * MAX_FAILED_FLUSHES)).applyBatch(anyList());
+    }
+
+    @Test
+    void whenTheBufferIsStoppedThenPendingChangesAreFlushed() throws Exception {
+        // given
+        stockWriteBehindBuffer.enqueue(1L, 2);
+        stockWriteBehindBuffer.enqueue(2L, -1);
+
+        // when
+        stockWriteBehindBuffer.stop();
+
+        // then
+        ArgumentCaptor<List<PendingStockChange>> batch = captor();
+        verify(stockWriteBehindFlusher).applyBatch(batch.capture());
+        assertThat(batch.getValue(), containsInAnyOrder(new PendingStockChange(1L, 2, 1), new PendingStockChange(2L, -1, 1)));
+    }
+
+    private static WineDTO stock(int quantity) {
+        WineDTO wineDTO = new WineDTO();
+        wineDTO.setQuantity(quantity);
+        wineDTO.setMax(100);
+        return wineDTO;
+    }
+
+    private static Map<Long, WineDTO> appliedAll(List<PendingStockChange> batch) {
+        Map<Long, WineDTO> applied = new HashMap<>();
+        batch.forEach(change -> applied.put(change.getWineId(), stock(10 + (int) change.getNetDelta())));
+        return applied;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<PendingStockChange>> captor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.one.innovation.digital.winestock.writebehind;
+
+import com.one.innovation.digital.winestock.dto.WineDTO;
+import com.one.innovation.digital.winestock.exception.WineNotFoundException;
+import com.one.innovation.digital.winestock.exception.WineStockExceededException;
+import com.one.innovation.digital.winestock.service.WineService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockWriteBehindFlusherTest {
+
+    @Mock
+    private WineService wineService;
+
+    @InjectMocks
+    private StockWriteBehindFlusher stockWriteBehindFlusher;
+
+    @Test
+    void whenTheNetChangeIsPositiveThenASingleIncrementIsApplied() throws WineNotFoundException, WineStockExceededException {
+        // given
+        WineDTO after = new WineDTO();
+        when(wineService.increment(1L, 6)).thenReturn(after);
+
+        // when
+        Map<Long, WineDTO> applied = stockWriteBehindFlusher.applyBatch(List.of(new PendingStockChange(1L, 6, 3)));
+
+        // then
+        assertThat(applied, is(Map.of(1L, after)));
+        verify(wineService, never()).decrement(anyLong(), anyInt());
+    }
+
+    @Test
+    void whenTheNetChangeIsNegativeThenASingleDecrementIsApplied() throws WineNotFoundException, WineStockExceededException {
+        // given
+        WineDTO after = new WineDTO();
+        when(wineService.decrement(1L, 4)).thenReturn(after);
+
+        // when
+        Map<Long, WineDTO> applied = stockWriteBehindFlusher.applyBatch(List.of(new PendingStockChange(1L, -4, 2)));
+
+        // then
+        assertThat(applied, is(Map.of(1L, after)));
+        verify(wineService, never()).increment(anyLong(), anyInt());
+    }
+
+    @Test
+    void whenTheNetChangeNoLongerFitsThenTheWineIsLeftOutAndTheOthersAreApplied()
+            throws WineNotFoundException, WineStockExceededException {
+        // given
+        /** O vinho 1 foi alterado por uma escrita síncrona depois que as variações foram aceitas. */
+        WineDTO after = new WineDTO();
+        when(wineService.decrement(1L, 15)).thenThrow(new WineStockExceededException(1L, -15));
+        when(wineService.increment(2L, 1)).thenReturn(after);
+
+        // when
+        Map<Long, WineDTO> applied = stockWriteBehindFlusher.applyBatch(
+                List.of(new PendingStockChange(1L, -15, 5), new PendingStockChange(2L, 1, 1)));
+
+        // then
+        assertThat(applied, is(Map.of(2L, after)));
+    }
+
+    @Test
+    void whenTheWineWasDeletedThenItIsLeftOut() throws WineNotFoundException, WineStockExceededException {
+        // given
+        when(wineService.increment(2L, 3)).thenThrow(new WineNotFoundException(2L));
+
+        // when
+        Map<Long, WineDTO> applied = stockWriteBehindFlusher.applyBatch(List.of(new PendingStockChange(2L, 3, 2)));
+
+        // then
+        assertThat(applied.isEmpty(), is(true));
+    }
+}